@@ -0,0 +1,77 @@
+package com.looplink.stickerengine;
+
+import com.looplink.stickerengine.model.Item;
+import com.looplink.stickerengine.model.Money;
+import com.looplink.stickerengine.model.TransactionRequest;
+import com.looplink.stickerengine.repository.CampaignRuleRepository;
+import com.looplink.stickerengine.service.rule.RuleSet;
+import com.looplink.stickerengine.service.rule.RuleSetProvider;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic inputs shared by the benchmarks.
+ */
+public final class BenchmarkFixtures {
+
+    /** Rule set version 1, as seeded by the V3 migration. */
+    public static final RuleSet DEFAULT_RULES = new RuleSet(1, 10_00, "promo", 5);
+
+    private static final String[] CATEGORIES = {"grocery", "dairy", "produce", "household", "promo", "bakery"};
+
+    private BenchmarkFixtures() {}
+
+    /**
+     * Basket with the given number of lines. About 1 in 6 lines is promo and SKUs repeat
+     * every 50 lines.
+     */
+    public static TransactionRequest basket(int itemCount) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Item> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            int sku = i % 50;
+            items.add(new Item(
+                "SKU-" + sku,
+                "Item " + sku,
+                1 + random.nextInt(3),
+                Money.ofCents(50 + random.nextInt(5_000)),
+                CATEGORIES[random.nextInt(CATEGORIES.length)]));
+        }
+        return new TransactionRequest("tx-bench-" + itemCount, "shopper-bench", "store-01",
+            Instant.parse("2025-01-10T10:15:00Z"), items);
+    }
+
+    /**
+     * Store sync of the given number of baskets from a handful of shoppers, as a POS batch upload sends.
+     */
+    public static List<TransactionRequest> batch(int transactions, int itemCount) {
+        TransactionRequest basket = basket(itemCount);
+        List<TransactionRequest> batch = new ArrayList<>(transactions);
+        for (int i = 0; i < transactions; i++) {
+            batch.add(new TransactionRequest("tx-bench-" + itemCount + "-" + i, "shopper-bench-" + (i % 20),
+                basket.storeId(), basket.timestamp().plusSeconds(i), basket.items()));
+        }
+        return batch;
+    }
+
+    /**
+     * Provider pinned to the given rule set, without a database.
+     */
+    public static RuleSetProvider fixedRules(RuleSet rules) {
+        return new RuleSetProvider(new CampaignRuleRepository(null) {
+            @Override
+            public Optional<Integer> findActiveVersion() {
+                return Optional.of(rules.version());
+            }
+
+            @Override
+            public Optional<RuleSet> findByVersion(int version) {
+                return Optional.of(rules);
+            }
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package com.looplink.stickerengine.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.looplink.stickerengine.BenchmarkFixtures;
+import com.looplink.stickerengine.model.BatchTransactionRequest;
+import com.looplink.stickerengine.model.TransactionRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Decoding the same transaction batch from JSON (with the mapper Spring Boot gives the controllers)
+ * and from the POS binary format. A single request is a batch of one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+public class PosBinaryFormatBenchmark {
+
+    @Param({"1", "100"})
+    public int transactions;
+
+    @Param({"1", "10", "100"})
+    public int items;
+
+    private ObjectReader batchReader;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        batchReader = objectMapper.readerFor(BatchTransactionRequest.class);
+        List<TransactionRequest> batch = BenchmarkFixtures.batch(transactions, items);
+        json = objectMapper.writeValueAsBytes(new BatchTransactionRequest(batch));
+        binary = PosBinaryFormat.encode(batch);
+    }
+
+    @Benchmark
+    public BatchTransactionRequest readJson() throws IOException {
+        return batchReader.readValue(json);
+    }
+
+    @Benchmark
+    public List<TransactionRequest> readBinary() {
+        return PosBinaryFormat.decode(binary);
+    }
+}
@@ -0,0 +1,63 @@
+package com.looplink.stickerengine.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.looplink.stickerengine.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+
+/**
+ * Jackson (de)serialization of the request/response DTOs, with the mapper configured the way
+ * Spring Boot configures it for the controllers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+public class JsonBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int items;
+
+    private ObjectReader requestReader;
+    private ObjectWriter requestWriter;
+    private ObjectWriter responseWriter;
+    private byte[] requestJson;
+    private TransactionRequest request;
+    private TransactionResponse response;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        requestReader = objectMapper.readerFor(TransactionRequest.class);
+        requestWriter = objectMapper.writerFor(TransactionRequest.class);
+        responseWriter = objectMapper.writerFor(TransactionResponse.class);
+
+        request = BenchmarkFixtures.basket(items);
+        requestJson = requestWriter.writeValueAsBytes(request);
+        response = TransactionResponse.success(
+            Transaction.from(request, 3, Money.ofCents(2_500), BenchmarkFixtures.DEFAULT_RULES.version()), 42);
+    }
+
+    @Benchmark
+    public TransactionRequest readRequest() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+
+    @Benchmark
+    public byte[] writeRequest() throws IOException {
+        return requestWriter.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,67 @@
+package com.looplink.stickerengine.service;
+
+import com.looplink.stickerengine.BenchmarkFixtures;
+import com.looplink.stickerengine.model.Item;
+import com.looplink.stickerengine.model.TransactionRequest;
+import com.looplink.stickerengine.service.rule.BaseStickersRule;
+import com.looplink.stickerengine.service.rule.MaxCapRule;
+import com.looplink.stickerengine.service.rule.PromoBonusRule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Full rule chain, including the single-pass basket aggregation, over realistic basket sizes.
+ *
+ * {@link #perRuleStreams} is the chain as it was before BasketContext: each rule streams the items on
+ * its own and the total is summed in BigDecimal. It stays as the baseline for {@link #calculate}, so one
+ * run gives the before/after comparison; both return the same stickers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+public class StickerCalculatorBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int items;
+
+    private StickerCalculator calculator;
+    private TransactionRequest request;
+
+    @Setup
+    public void setUp() {
+        calculator = new StickerCalculator(
+            List.of(new MaxCapRule(new SimpleMeterRegistry()), new PromoBonusRule(), new BaseStickersRule()),
+            BenchmarkFixtures.fixedRules(BenchmarkFixtures.DEFAULT_RULES));
+        request = BenchmarkFixtures.basket(items);
+    }
+
+    @Benchmark
+    public int calculate() {
+        return calculator.calculate(request);
+    }
+
+    @Benchmark
+    public int perRuleStreams() {
+        // BaseStickersRule
+        BigDecimal totalSpend = request.items().stream()
+            .map(item -> item.unitPrice().toBigDecimal().multiply(BigDecimal.valueOf(item.quantity())))
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        int stickers = totalSpend.divide(BigDecimal.valueOf(10), 0, RoundingMode.FLOOR).intValue();
+        // PromoBonusRule
+        stickers += request.items().stream()
+            .filter(item -> item.category().equalsIgnoreCase("promo"))
+            .mapToInt(Item::quantity)
+            .sum();
+        // MaxCapRule
+        return Math.min(stickers, 5);
+    }
+}
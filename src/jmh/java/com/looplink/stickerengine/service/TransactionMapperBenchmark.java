@@ -0,0 +1,53 @@
+package com.looplink.stickerengine.service;
+
+import com.looplink.stickerengine.BenchmarkFixtures;
+import com.looplink.stickerengine.entity.TransactionEntity;
+import com.looplink.stickerengine.model.Transaction;
+import com.looplink.stickerengine.model.TransactionRequest;
+import com.looplink.stickerengine.service.rule.BasketContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Transaction record construction and the record/entity mapping used on the write and duplicate paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+public class TransactionMapperBenchmark {
+
+    @Param({"10", "100"})
+    public int items;
+
+    private TransactionRequest request;
+    private BasketContext context;
+    private Transaction transaction;
+    private TransactionEntity entity;
+
+    @Setup
+    public void setUp() {
+        request = BenchmarkFixtures.basket(items);
+        context = BasketContext.of(request, BenchmarkFixtures.DEFAULT_RULES);
+        transaction = transactionFrom();
+        entity = TransactionMapper.toEntity(transaction);
+    }
+
+    @Benchmark
+    public Transaction transactionFrom() {
+        return Transaction.from(request, 5, context.totalAmount(), context.rules().version());
+    }
+
+    @Benchmark
+    public TransactionEntity toEntity() {
+        return TransactionMapper.toEntity(transaction);
+    }
+
+    @Benchmark
+    public Transaction toTransaction() {
+        return TransactionMapper.toTransaction(entity);
+    }
+}
@@ -0,0 +1,56 @@
+package com.looplink.stickerengine.service.rule;
+
+import com.looplink.stickerengine.BenchmarkFixtures;
+import com.looplink.stickerengine.model.TransactionRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Each rule in isolation against a prebuilt context, plus the context build the rules share.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+public class StickerRuleBenchmark {
+
+    @Param({"10", "100"})
+    public int items;
+
+    private final BaseStickersRule baseStickersRule = new BaseStickersRule();
+    private final PromoBonusRule promoBonusRule = new PromoBonusRule();
+    private final MaxCapRule maxCapRule = new MaxCapRule(new SimpleMeterRegistry());
+
+    private TransactionRequest request;
+    private BasketContext context;
+
+    @Setup
+    public void setUp() {
+        request = BenchmarkFixtures.basket(items);
+        context = BasketContext.of(request, BenchmarkFixtures.DEFAULT_RULES);
+    }
+
+    @Benchmark
+    public BasketContext basketContext() {
+        return BasketContext.of(request, BenchmarkFixtures.DEFAULT_RULES);
+    }
+
+    @Benchmark
+    public int baseStickers() {
+        return baseStickersRule.apply(context, 0);
+    }
+
+    @Benchmark
+    public int promoBonus() {
+        return promoBonusRule.apply(context, 2);
+    }
+
+    @Benchmark
+    public int maxCap() {
+        return maxCapRule.apply(context, 7);
+    }
+}
@@ -0,0 +1,52 @@
+package com.looplink.stickerengine.loadtest;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Weighted basket sizes, parsed from "size:weight,...", e.g. "1:20,5:45,20:30,100:5".
+ */
+final class BasketSizeDistribution {
+
+    private final String spec;
+    private final int[] sizes;
+    private final int[] cumulativeWeights;
+
+    private BasketSizeDistribution(String spec, int[] sizes, int[] cumulativeWeights) {
+        this.spec = spec;
+        this.sizes = sizes;
+        this.cumulativeWeights = cumulativeWeights;
+    }
+
+    static BasketSizeDistribution parse(String spec) {
+        String[] entries = spec.split(",");
+        int[] sizes = new int[entries.length];
+        int[] cumulative = new int[entries.length];
+        int total = 0;
+        for (int i = 0; i < entries.length; i++) {
+            String[] parts = entries[i].trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected size:weight in basket distribution: " + entries[i]);
+            }
+            sizes[i] = Integer.parseInt(parts[0].trim());
+            int weight = Integer.parseInt(parts[1].trim());
+            if (sizes[i] < 1 || weight < 1) {
+                throw new IllegalArgumentException("Basket size and weight must be positive: " + entries[i]);
+            }
+            total += weight;
+            cumulative[i] = total;
+        }
+        return new BasketSizeDistribution(spec, sizes, cumulative);
+    }
+
+    int sample(SplittableRandom random) {
+        int point = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = Arrays.binarySearch(cumulativeWeights, point + 1);
+        return sizes[index >= 0 ? index : -index - 1];
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
@@ -0,0 +1,122 @@
+package com.looplink.stickerengine.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fppt.jedismock.RedisServer;
+import com.looplink.stickerengine.StickerEngineApplication;
+import com.looplink.stickerengine.model.TransactionRequest;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application on a random port against local stand-ins, then runs each scenario in turn.
+ *
+ * MySQL is replaced by in-memory H2 in MySQL mode (the "loadtest" profile, Flyway migrations included),
+ * Redis by an in-process Redis-protocol server that supports the Lua scripts and pub/sub the engine uses.
+ * Neither needs network access, so the harness runs in CI. Absolute numbers are not comparable with
+ * production; compare runs of the same harness between releases.
+ *
+ * {@code loadtest.thread-modes=platform,virtual} repeats every scenario with request handling on platform
+ * threads and then on virtual threads, each against a fresh application, database and Redis, and suffixes
+ * the scenario names with the mode.
+ *
+ * After the scenarios of each mode, {@link ReadPathProbe} reads shopper statuses from the data they wrote
+ * ({@code loadtest.read-probe.calls}, default 5000, 0 to skip; {@code loadtest.read-probe.shoppers},
+ * default 1000).
+ */
+public final class LoadTestMain {
+
+    private static final List<String> THREAD_MODES = List.of("platform", "virtual");
+
+    private LoadTestMain() {}
+
+    public static void main(String[] args) throws Exception {
+        List<Scenario> scenarios = Scenario.fromSystemProperties();
+        Path outputDir = Path.of(System.getProperty("loadtest.output-dir", "build/loadtest"));
+        Files.createDirectories(outputDir);
+        String modesProperty = System.getProperty("loadtest.thread-modes");
+        List<String> modes = threadModes(modesProperty);
+
+        List<ScenarioResult> results = new ArrayList<>();
+        List<ReadPathProbe.Result> probes = new ArrayList<>();
+        for (String mode : modes) {
+            List<Scenario> runs = modesProperty == null
+                ? scenarios
+                : scenarios.stream().map(scenario -> scenario.variant(mode, scenario.concurrency())).toList();
+            results.addAll(runScenarios(mode, runs, probes, outputDir, args));
+        }
+        ScenarioResult.writeSummary(results, outputDir.resolve("summary.csv"));
+        if (!probes.isEmpty()) {
+            ReadPathProbe.Result.writeSummary(probes, outputDir.resolve("read-probe.csv"));
+        }
+        System.out.println("Histograms and summary.csv written to " + outputDir.toAbsolutePath());
+    }
+
+    private static List<ScenarioResult> runScenarios(String threadMode, List<Scenario> scenarios,
+                                                     List<ReadPathProbe.Result> probes, Path outputDir,
+                                                     String[] args) throws IOException, InterruptedException {
+        RedisServer redis = RedisServer.newRedisServer();
+        redis.start();
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(StickerEngineApplication.class)
+                .profiles("loadtest")
+                .properties(
+                    "server.port=0",
+                    "spring.data.redis.host=" + redis.getHost(),
+                    "spring.data.redis.port=" + redis.getBindPort(),
+                    "spring.threads.virtual.enabled=" + threadMode.equals("virtual"),
+                    "loadtest.db-name=sticker_engine_" + threadMode)
+                .run(args)) {
+            int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            ObjectMapper objectMapper = app.getBean(ObjectMapper.class);
+            ScenarioRunner runner = new ScenarioRunner(
+                URI.create("http://localhost:" + port + "/api/transactions"),
+                objectMapper.writerFor(TransactionRequest.class));
+
+            List<ScenarioResult> results = new ArrayList<>();
+            for (Scenario scenario : scenarios) {
+                System.out.println("Running " + scenario.describe() + ", threads=" + threadMode);
+                ScenarioResult result = runner.run(scenario);
+                result.writeHistogram(outputDir);
+                results.add(result);
+                System.out.println(result.summaryLine());
+            }
+
+            int probeCalls = Integer.getInteger("loadtest.read-probe.calls", 5_000);
+            if (probeCalls > 0) {
+                ReadPathProbe.Result probe = new ReadPathProbe(app)
+                    .run("shopper-status-" + threadMode, Integer.getInteger("loadtest.read-probe.shoppers", 1_000), probeCalls);
+                if (probe != null) {
+                    probes.add(probe);
+                    System.out.println(probe.summaryLine());
+                }
+            }
+            return results;
+        } finally {
+            redis.stop();
+        }
+    }
+
+    private static List<String> threadModes(String property) {
+        if (property == null || property.isBlank()) {
+            return List.of("platform");
+        }
+        List<String> modes = new ArrayList<>();
+        for (String mode : property.split(",")) {
+            String trimmed = mode.trim();
+            if (!THREAD_MODES.contains(trimmed)) {
+                throw new IllegalArgumentException("Unknown thread mode '" + trimmed + "', expected one of " + THREAD_MODES);
+            }
+            if (trimmed.equals("virtual") && Runtime.version().feature() < 21) {
+                throw new IllegalStateException("Virtual threads need Java 21+, running on " + Runtime.version());
+            }
+            modes.add(trimmed);
+        }
+        return modes;
+    }
+}
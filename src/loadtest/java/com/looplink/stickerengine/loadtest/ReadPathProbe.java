@@ -0,0 +1,99 @@
+package com.looplink.stickerengine.loadtest;
+
+import com.looplink.stickerengine.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures the shopper status read behind GET /api/shoppers/{shopperId}: JDBC statements, bytes allocated
+ * and time per call, after the write scenarios have filled the database.
+ *
+ * Calls the service in-process on one thread, so the statement count comes from Hibernate statistics
+ * (switched on for the probe only) and the allocation from the thread's allocated-bytes counter, neither
+ * mixed with HTTP, JSON or other requests. The page size differs from the default so every call misses the
+ * status cache and reaches the database.
+ */
+final class ReadPathProbe {
+
+    private static final String HEADER = "probe,calls,shoppers,statements_per_call,bytes_per_call,micros_per_call";
+    private static final int PAGE_SIZE = TransactionService.DEFAULT_PAGE_SIZE - 1;
+
+    private final TransactionService transactionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final Statistics statistics;
+    private final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    ReadPathProbe(ApplicationContext app) {
+        this.transactionService = app.getBean(TransactionService.class);
+        this.jdbcTemplate = app.getBean(JdbcTemplate.class);
+        this.statistics = app.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Reads the status of up to {@code shoppers} existing shoppers, round-robin, for {@code calls} calls
+     * after as many warm-up calls. Returns null when no shopper exists yet.
+     */
+    Result run(String name, int shoppers, int calls) {
+        List<String> shopperIds = jdbcTemplate.queryForList(
+            "SELECT shopper_id FROM shoppers ORDER BY shopper_id LIMIT ?", String.class, shoppers);
+        if (shopperIds.isEmpty()) {
+            return null;
+        }
+        read(shopperIds, calls);
+
+        statistics.clear();
+        statistics.setStatisticsEnabled(true);
+        try {
+            long threadId = Thread.currentThread().getId();
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            read(shopperIds, calls);
+            long elapsedNanos = System.nanoTime() - start;
+            long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            return new Result(name, calls, shopperIds.size(), (double) statistics.getPrepareStatementCount() / calls,
+                (double) allocated / calls, elapsedNanos / 1_000.0 / calls);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    private void read(List<String> shopperIds, int calls) {
+        for (int i = 0; i < calls; i++) {
+            String shopperId = shopperIds.get(i % shopperIds.size());
+            if (transactionService.getShopperStatus(shopperId, null, PAGE_SIZE).isEmpty()) {
+                throw new IllegalStateException("Shopper " + shopperId + " disappeared during the read probe");
+            }
+        }
+    }
+
+    record Result(String name, int calls, int shoppers, double statementsPerCall, double bytesPerCall,
+                  double microsPerCall) {
+
+        String summaryLine() {
+            return String.format("%-16s %8d calls  %5d shoppers  %5.2f statements/call  %10.0f B/call  %8.1f us/call",
+                name, calls, shoppers, statementsPerCall, bytesPerCall, microsPerCall);
+        }
+
+        static void writeSummary(List<Result> results, Path file) throws IOException {
+            List<String> lines = new ArrayList<>();
+            lines.add(HEADER);
+            for (Result result : results) {
+                lines.add(String.format(Locale.ROOT, "%s,%d,%d,%.2f,%.0f,%.1f", result.name(), result.calls(),
+                    result.shoppers(), result.statementsPerCall(), result.bytesPerCall(), result.microsPerCall()));
+            }
+            Files.write(file, lines);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.looplink.stickerengine.loadtest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Samples heap usage and the platform thread count while a scenario runs, keeping the peaks.
+ *
+ * Client and server share the JVM, so the heap includes the harness's own workers. Virtual threads are
+ * not counted by the thread MXBean, so the thread count is the server's platform threads plus the
+ * harness's fixed overhead when the workers run on virtual threads.
+ */
+final class ResourceSampler {
+
+    private static final long INTERVAL_MILLIS = 100;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final Thread sampler;
+    private volatile long peakHeapBytes;
+
+    private ResourceSampler() {
+        this.sampler = new Thread(this::run, "loadtest-resource-sampler");
+        this.sampler.setDaemon(true);
+    }
+
+    static ResourceSampler start() {
+        ResourceSampler sampler = new ResourceSampler();
+        sampler.threads.resetPeakThreadCount();
+        sampler.sample();
+        sampler.sampler.start();
+        return sampler;
+    }
+
+    long peakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    int peakThreads() {
+        return threads.getPeakThreadCount();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            sample();
+            try {
+                Thread.sleep(INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void sample() {
+        peakHeapBytes = Math.max(peakHeapBytes, memory.getHeapMemoryUsage().getUsed());
+    }
+
+    void stop() throws InterruptedException {
+        sampler.interrupt();
+        sampler.join();
+        sample();
+    }
+}
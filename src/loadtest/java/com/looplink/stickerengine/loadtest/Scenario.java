@@ -0,0 +1,115 @@
+package com.looplink.stickerengine.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One workload: how many requests, how many in flight, and how shoppers, retries and basket sizes are drawn.
+ *
+ * Presets can be tuned with system properties, most specific first:
+ * {@code loadtest.<scenario>.<key>}, then {@code loadtest.<key>}.
+ * {@code loadtest.concurrency-levels} (comma-separated) runs each scenario once per level instead.
+ */
+record Scenario(
+    String name,
+    int requests,
+    int warmupRequests,
+    int concurrency,
+    int shoppers,
+    int hotShoppers,
+    double hotTrafficShare,
+    double duplicateRatio,
+    BasketSizeDistribution basketSizes
+) {
+    private static final String TYPICAL_BASKETS = "1:20,5:45,20:30,100:5";
+
+    private static final Map<String, Scenario> PRESETS = new LinkedHashMap<>();
+
+    static {
+        preset("uniform", 10_000, 0, 0.0, 0.0, TYPICAL_BASKETS);
+        preset("hot-shopper", 10_000, 10, 0.5, 0.0, TYPICAL_BASKETS);
+        preset("duplicate-retry", 10_000, 0, 0.0, 0.2, TYPICAL_BASKETS);
+        preset("large-basket", 10_000, 0, 0.0, 0.0, "100:60,500:30,1000:10");
+    }
+
+    private static void preset(String name, int shoppers, int hotShoppers, double hotTrafficShare,
+                               double duplicateRatio, String basketSizes) {
+        PRESETS.put(name, new Scenario(name, 20_000, 2_000, 32, shoppers, hotShoppers, hotTrafficShare,
+            duplicateRatio, BasketSizeDistribution.parse(basketSizes)));
+    }
+
+    /**
+     * Scenarios named by {@code loadtest.scenarios} (comma-separated, default all presets), with overrides applied.
+     */
+    static List<Scenario> fromSystemProperties() {
+        String names = System.getProperty("loadtest.scenarios", String.join(",", PRESETS.keySet()));
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String name : names.split(",")) {
+            Scenario preset = PRESETS.get(name.trim());
+            if (preset == null) {
+                throw new IllegalArgumentException("Unknown scenario '" + name.trim() + "', expected one of " + PRESETS.keySet());
+            }
+            Scenario scenario = preset.withOverrides();
+            String levels = System.getProperty("loadtest.concurrency-levels");
+            if (levels == null || levels.isBlank()) {
+                scenarios.add(scenario);
+                continue;
+            }
+            for (String level : levels.split(",")) {
+                int concurrency = Integer.parseInt(level.trim());
+                scenarios.add(scenario.variant("c" + concurrency, concurrency));
+            }
+        }
+        return scenarios;
+    }
+
+    /**
+     * Copy with a suffixed name, which also keeps its transaction IDs apart from other variants.
+     */
+    Scenario variant(String suffix, int concurrency) {
+        Scenario scenario = new Scenario(name + "-" + suffix, requests, warmupRequests, concurrency, shoppers,
+            hotShoppers, hotTrafficShare, duplicateRatio, basketSizes);
+        scenario.validate();
+        return scenario;
+    }
+
+    private Scenario withOverrides() {
+        Scenario scenario = new Scenario(
+            name,
+            Integer.parseInt(property("requests", requests)),
+            Integer.parseInt(property("warmup-requests", warmupRequests)),
+            Integer.parseInt(property("concurrency", concurrency)),
+            Integer.parseInt(property("shoppers", shoppers)),
+            Integer.parseInt(property("hot-shoppers", hotShoppers)),
+            Double.parseDouble(property("hot-traffic-share", hotTrafficShare)),
+            Double.parseDouble(property("duplicate-ratio", duplicateRatio)),
+            BasketSizeDistribution.parse(property("basket-sizes", basketSizes)));
+        scenario.validate();
+        return scenario;
+    }
+
+    private String property(String key, Object defaultValue) {
+        String value = System.getProperty("loadtest." + name + "." + key);
+        if (value == null) {
+            value = System.getProperty("loadtest." + key);
+        }
+        return value != null ? value.trim() : String.valueOf(defaultValue);
+    }
+
+    private void validate() {
+        if (requests < 1 || concurrency < 1 || shoppers < 1 || warmupRequests < 0 || hotShoppers < 0) {
+            throw new IllegalArgumentException("Invalid counts for scenario " + name);
+        }
+        if (hotTrafficShare < 0 || hotTrafficShare > 1 || duplicateRatio < 0 || duplicateRatio >= 1) {
+            throw new IllegalArgumentException("Ratios out of range for scenario " + name);
+        }
+    }
+
+    String describe() {
+        return String.format("%s: requests=%d, concurrency=%d, shoppers=%d, hotShoppers=%d (%.0f%% of traffic), " +
+                "duplicates=%.0f%%, baskets=%s", name, requests, concurrency, shoppers, hotShoppers,
+            hotTrafficShare * 100, duplicateRatio * 100, basketSizes);
+    }
+}
@@ -0,0 +1,78 @@
+package com.looplink.stickerengine.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Latency histogram (microseconds), wall-clock time, response status counts and peak heap and platform
+ * thread usage of one scenario run.
+ */
+record ScenarioResult(
+    Scenario scenario,
+    Histogram latency,
+    long elapsedNanos,
+    Map<Integer, Long> statusCounts,
+    long peakHeapBytes,
+    int peakThreads
+) {
+    private static final String SUMMARY_HEADER =
+        "scenario,requests,throughput_rps,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,peak_heap_mb,peak_threads,status_counts";
+
+    ScenarioResult withResources(long peakHeapBytes, int peakThreads) {
+        return new ScenarioResult(scenario, latency, elapsedNanos, statusCounts, peakHeapBytes, peakThreads);
+    }
+
+    double peakHeapMegabytes() {
+        return peakHeapBytes / (1024.0 * 1024.0);
+    }
+
+    double throughput() {
+        return latency.getTotalCount() / (elapsedNanos / 1e9);
+    }
+
+    double percentileMillis(double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1_000.0;
+    }
+
+    String summaryLine() {
+        return String.format("%-16s %8d req %10.1f req/s  p50 %7.2f ms  p90 %7.2f ms  p99 %7.2f ms  " +
+                "p99.9 %7.2f ms  max %8.2f ms  heap %7.1f MB  threads %5d  status %s",
+            scenario.name(), latency.getTotalCount(), throughput(), percentileMillis(50), percentileMillis(90),
+            percentileMillis(99), percentileMillis(99.9), latency.getMaxValue() / 1_000.0, peakHeapMegabytes(),
+            peakThreads, statusCounts);
+    }
+
+    /**
+     * Writes the full percentile distribution in milliseconds (HdrHistogram .hgrm format).
+     */
+    void writeHistogram(Path directory) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(scenario.name() + ".hgrm")))) {
+            latency.outputPercentileDistribution(out, 1_000.0);
+        }
+    }
+
+    static void writeSummary(List<ScenarioResult> results, Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(SUMMARY_HEADER);
+        for (ScenarioResult result : results) {
+            lines.add(String.format(Locale.ROOT, "%s,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f,%.1f,%d,%s",
+                result.scenario().name(), result.latency().getTotalCount(), result.throughput(),
+                result.percentileMillis(50), result.percentileMillis(90), result.percentileMillis(99),
+                result.percentileMillis(99.9), result.latency().getMaxValue() / 1_000.0,
+                result.peakHeapMegabytes(), result.peakThreads(),
+                result.statusCounts().entrySet().stream()
+                    .map(e -> e.getKey() + "=" + e.getValue())
+                    .collect(Collectors.joining(" "))));
+        }
+        Files.write(file, lines);
+    }
+}
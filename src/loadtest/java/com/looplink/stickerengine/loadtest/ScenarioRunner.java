@@ -0,0 +1,136 @@
+package com.looplink.stickerengine.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives POST /api/transactions with a fixed number of closed-loop workers and records
+ * per-request latency in microseconds.
+ *
+ * On Java 21+ workers run on virtual threads, so thousands of concurrent connections do not cost the
+ * harness thousands of platform threads and the sampled thread count reflects the server.
+ */
+final class ScenarioRunner {
+
+    /** Status recorded when the request failed before a response arrived. */
+    static final int STATUS_IO_ERROR = -1;
+
+    private static final long HIGHEST_TRACKABLE_MICROS = Duration.ofMinutes(1).toNanos() / 1_000;
+
+    private final HttpClient client;
+    private final URI endpoint;
+    private final ObjectWriter requestWriter;
+
+    ScenarioRunner(URI endpoint, ObjectWriter requestWriter) {
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        this.endpoint = endpoint;
+        this.requestWriter = requestWriter;
+    }
+
+    ScenarioResult run(Scenario scenario) throws InterruptedException {
+        if (scenario.warmupRequests() > 0) {
+            drive(scenario, "warmup-" + scenario.name(), scenario.warmupRequests());
+        }
+        ResourceSampler resources = ResourceSampler.start();
+        ScenarioResult result;
+        try {
+            result = drive(scenario, scenario.name(), scenario.requests());
+        } finally {
+            resources.stop();
+        }
+        return result.withResources(resources.peakHeapBytes(), resources.peakThreads());
+    }
+
+    private ScenarioResult drive(Scenario scenario, String transactionPrefix, int requests) throws InterruptedException {
+        AtomicInteger remaining = new AtomicInteger(requests);
+        ExecutorService workers = newWorkerExecutor(scenario.concurrency());
+        try {
+            List<Future<Worker>> futures = new ArrayList<>(scenario.concurrency());
+            long start = System.nanoTime();
+            for (int i = 0; i < scenario.concurrency(); i++) {
+                Worker worker = new Worker(new WorkloadGenerator(
+                    scenario, requestWriter, 31L * i + transactionPrefix.hashCode(), transactionPrefix + "-w" + i));
+                futures.add(workers.submit(() -> worker.run(remaining)));
+            }
+
+            Histogram latency = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+            Map<Integer, Long> statusCounts = new TreeMap<>();
+            for (Future<Worker> future : futures) {
+                Worker worker = future.get();
+                latency.add(worker.latency);
+                worker.statusCounts.forEach((status, count) -> statusCounts.merge(status, count, Long::sum));
+            }
+            return new ScenarioResult(scenario, latency, System.nanoTime() - start, statusCounts, 0L, 0);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load worker failed in scenario " + scenario.name(), e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Virtual thread per worker when the runtime has them (looked up reflectively, the harness compiles
+     * for Java 17), otherwise one platform thread per worker.
+     */
+    private static ExecutorService newWorkerExecutor(int concurrency) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return Executors.newFixedThreadPool(concurrency);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+
+    private final class Worker {
+        private final WorkloadGenerator generator;
+        private final Histogram latency = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final Map<Integer, Long> statusCounts = new TreeMap<>();
+
+        Worker(WorkloadGenerator generator) {
+            this.generator = generator;
+        }
+
+        Worker run(AtomicInteger remaining) throws InterruptedException {
+            while (remaining.getAndDecrement() > 0) {
+                HttpRequest request = HttpRequest.newBuilder(endpoint)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(generator.next()))
+                    .build();
+                long start = System.nanoTime();
+                int status;
+                try {
+                    status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (IOException e) {
+                    status = STATUS_IO_ERROR;
+                }
+                long micros = (System.nanoTime() - start) / 1_000;
+                latency.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+                statusCounts.merge(status, 1L, Long::sum);
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.looplink.stickerengine.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.looplink.stickerengine.model.Item;
+import com.looplink.stickerengine.model.Money;
+import com.looplink.stickerengine.model.TransactionRequest;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Produces request bodies for one worker. Not thread-safe; each worker owns one.
+ *
+ * A duplicate is a byte-for-byte resend of one of the worker's recent requests, like a client retry.
+ */
+final class WorkloadGenerator {
+
+    private static final String[] CATEGORIES = {"grocery", "dairy", "produce", "household", "bakery", "promo"};
+    private static final int RECENT_CAPACITY = 64;
+
+    private final Scenario scenario;
+    private final ObjectWriter writer;
+    private final SplittableRandom random;
+    private final String transactionPrefix;
+    private final byte[][] recent = new byte[RECENT_CAPACITY][];
+    private int recentCount;
+    private long sequence;
+
+    WorkloadGenerator(Scenario scenario, ObjectWriter writer, long seed, String transactionPrefix) {
+        this.scenario = scenario;
+        this.writer = writer;
+        this.random = new SplittableRandom(seed);
+        this.transactionPrefix = transactionPrefix;
+    }
+
+    byte[] next() {
+        if (recentCount > 0 && random.nextDouble() < scenario.duplicateRatio()) {
+            return recent[random.nextInt(Math.min(recentCount, RECENT_CAPACITY))];
+        }
+        byte[] body = serialize(newRequest());
+        recent[recentCount % RECENT_CAPACITY] = body;
+        recentCount++;
+        return body;
+    }
+
+    private TransactionRequest newRequest() {
+        int itemCount = scenario.basketSizes().sample(random);
+        List<Item> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            int sku = random.nextInt(5_000);
+            items.add(new Item(
+                "SKU-" + sku,
+                "Item " + sku,
+                1 + random.nextInt(3),
+                Money.ofCents(50 + random.nextInt(5_000)),
+                CATEGORIES[random.nextInt(CATEGORIES.length)]));
+        }
+        return new TransactionRequest(
+            transactionPrefix + "-" + sequence++,
+            nextShopper(),
+            "store-" + random.nextInt(50),
+            Instant.now(),
+            items);
+    }
+
+    private String nextShopper() {
+        if (scenario.hotShoppers() > 0 && random.nextDouble() < scenario.hotTrafficShare()) {
+            return "hot-shopper-" + random.nextInt(scenario.hotShoppers());
+        }
+        return "shopper-" + random.nextInt(scenario.shoppers());
+    }
+
+    private byte[] serialize(TransactionRequest request) {
+        try {
+            return writer.writeValueAsBytes(request);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
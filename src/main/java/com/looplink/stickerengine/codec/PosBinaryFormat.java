@@ -0,0 +1,295 @@
+package com.looplink.stickerengine.codec;
+
+import com.looplink.stickerengine.model.Item;
+import com.looplink.stickerengine.model.Money;
+import com.looplink.stickerengine.model.TransactionRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of transaction requests for POS uploads ({@value PosBinaryMessageConverter#MEDIA_TYPE_VALUE}).
+ *
+ * <pre>
+ * int32   magic "STKB", then uint8 version
+ * varint  string count, then per string: varint byte length, UTF-8 bytes
+ * varint  transaction count, then per transaction: varint byte length, record
+ * record: ref transactionId, ref shopperId, ref storeId, int64 timestamp (epoch millis),
+ *         varint item count, then per item: ref sku, ref name, zigzag varint quantity,
+ *         zigzag varint unit price (cents), ref category
+ * ref:    varint, 0 = absent, n = string n - 1
+ * </pre>
+ * Fixed-width integers are big-endian; varints are unsigned LEB128.
+ *
+ * Every string, SKUs, names and categories included, is sent once in the table and referenced by
+ * index, so a batch repeating the same products pays for each name once. Decoding reads straight
+ * from the body array into the model types: each table string is decoded once and shared by every
+ * reference, prices become Money without BigDecimal, and timestamps are a single Instant.ofEpochMilli.
+ * Absent strings and out-of-range numbers decode as-is, so they fail bean validation exactly like
+ * the equivalent JSON.
+ */
+public final class PosBinaryFormat {
+
+    static final int MAGIC = 0x53544B42;
+    static final int VERSION = 1;
+
+    /** Smallest encoded transaction record: three refs, the timestamp and an item count. */
+    private static final int MIN_RECORD_BYTES = 12;
+    /** Smallest encoded item: five single-byte fields. */
+    private static final int MIN_ITEM_BYTES = 5;
+
+    private PosBinaryFormat() {}
+
+    /**
+     * @throws FormatException if the bytes are not a well-formed message
+     */
+    public static List<TransactionRequest> decode(byte[] bytes) {
+        Reader in = new Reader(bytes);
+        if (in.readInt() != MAGIC) {
+            throw new FormatException("Not a POS binary message");
+        }
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new FormatException("Unsupported POS binary version: " + version);
+        }
+        String[] strings = new String[in.readCount(1)];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = in.readString();
+        }
+        int count = in.readCount(MIN_RECORD_BYTES);
+        List<TransactionRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = in.readCount(1);
+            int end = in.position + length;
+            requests.add(in.readTransaction(strings));
+            if (in.position != end) {
+                throw new FormatException("Transaction record " + i + " length mismatch");
+            }
+        }
+        if (in.position != bytes.length) {
+            throw new FormatException("Trailing bytes after the last transaction");
+        }
+        return requests;
+    }
+
+    /**
+     * Encodes requests for upload; timestamps, items and quantities must be present.
+     */
+    public static byte[] encode(List<TransactionRequest> requests) {
+        Map<String, Integer> refs = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        Writer records = new Writer(256 * requests.size());
+        Writer record = new Writer(256);
+        for (TransactionRequest request : requests) {
+            record.reset();
+            record.writeVarint(ref(request.transactionId(), refs, strings));
+            record.writeVarint(ref(request.shopperId(), refs, strings));
+            record.writeVarint(ref(request.storeId(), refs, strings));
+            record.writeLong(request.timestamp().toEpochMilli());
+            record.writeVarint(request.items().size());
+            for (Item item : request.items()) {
+                record.writeVarint(ref(item.sku(), refs, strings));
+                record.writeVarint(ref(item.name(), refs, strings));
+                record.writeVarint(zigzag(item.quantity()));
+                record.writeVarint(zigzag(item.unitPrice().cents()));
+                record.writeVarint(ref(item.category(), refs, strings));
+            }
+            records.writeVarint(record.size);
+            records.write(record.bytes, 0, record.size);
+        }
+
+        Writer out = new Writer(64 + records.size + strings.size() * 16);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeVarint(strings.size());
+        for (String string : strings) {
+            byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+            out.writeVarint(utf8.length);
+            out.write(utf8, 0, utf8.length);
+        }
+        out.writeVarint(requests.size());
+        out.write(records.bytes, 0, records.size);
+        return Arrays.copyOf(out.bytes, out.size);
+    }
+
+    private static long ref(String value, Map<String, Integer> refs, List<String> strings) {
+        if (value == null) {
+            return 0;
+        }
+        return refs.computeIfAbsent(value, key -> {
+            strings.add(key);
+            return strings.size();
+        });
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Cursor over the message bytes; every read is bounds-checked.
+     */
+    private static final class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        TransactionRequest readTransaction(String[] strings) {
+            String transactionId = readRef(strings);
+            String shopperId = readRef(strings);
+            String storeId = readRef(strings);
+            Instant timestamp = Instant.ofEpochMilli(readLong());
+            int itemCount = readCount(MIN_ITEM_BYTES);
+            List<Item> items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                String sku = readRef(strings);
+                String name = readRef(strings);
+                long quantity = unzigzag(readVarint());
+                if (quantity != (int) quantity) {
+                    throw new FormatException("Quantity out of range");
+                }
+                Money unitPrice = Money.ofCents(unzigzag(readVarint()));
+                items.add(new Item(sku, name, (int) quantity, unitPrice, readRef(strings)));
+            }
+            return new TransactionRequest(transactionId, shopperId, storeId, timestamp, items);
+        }
+
+        int readByte() {
+            require(1);
+            return bytes[position++] & 0xFF;
+        }
+
+        int readInt() {
+            require(4);
+            int value = (bytes[position] & 0xFF) << 24 | (bytes[position + 1] & 0xFF) << 16
+                | (bytes[position + 2] & 0xFF) << 8 | (bytes[position + 3] & 0xFF);
+            position += 4;
+            return value;
+        }
+
+        long readLong() {
+            return (long) readInt() << 32 | (readInt() & 0xFFFFFFFFL);
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new FormatException("Varint longer than 64 bits");
+        }
+
+        /**
+         * A count or length that the remaining bytes can hold, at minBytes per element, so a corrupt
+         * count cannot trigger a huge allocation.
+         */
+        int readCount(int minBytes) {
+            long count = readVarint();
+            if (count < 0 || count > (bytes.length - position) / minBytes) {
+                throw new FormatException("Count " + count + " exceeds the remaining message");
+            }
+            return (int) count;
+        }
+
+        String readString() {
+            int length = readCount(1);
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        String readRef(String[] strings) {
+            long ref = readVarint();
+            if (ref == 0) {
+                return null;
+            }
+            // Unsigned: a 10-byte varint can set the sign bit
+            if (Long.compareUnsigned(ref, strings.length) > 0) {
+                throw new FormatException("String reference " + ref + " out of range");
+            }
+            return strings[(int) ref - 1];
+        }
+
+        private void require(int count) {
+            if (bytes.length - position < count) {
+                throw new FormatException("Unexpected end of message");
+            }
+        }
+
+        private static long unzigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+
+    /**
+     * Growable byte buffer for encoding.
+     */
+    private static final class Writer {
+        private byte[] bytes;
+        private int size;
+
+        Writer(int capacity) {
+            this.bytes = new byte[Math.max(capacity, 16)];
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeInt(int value) {
+            ensure(4);
+            bytes[size++] = (byte) (value >>> 24);
+            bytes[size++] = (byte) (value >>> 16);
+            bytes[size++] = (byte) (value >>> 8);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        void write(byte[] source, int offset, int length) {
+            ensure(length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+
+        private void ensure(int count) {
+            if (bytes.length - size < count) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + count));
+            }
+        }
+    }
+
+    public static class FormatException extends RuntimeException {
+        public FormatException(String message) {
+            super(message);
+        }
+    }
+}
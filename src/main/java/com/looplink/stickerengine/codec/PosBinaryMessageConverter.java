@@ -0,0 +1,80 @@
+package com.looplink.stickerengine.codec;
+
+import com.looplink.stickerengine.model.BatchTransactionRequest;
+import com.looplink.stickerengine.model.TransactionRequest;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Reads {@link TransactionRequest} and {@link BatchTransactionRequest} bodies sent as
+ * {@value #MEDIA_TYPE_VALUE} (see {@link PosBinaryFormat}). Registered with Spring MVC as a bean, so the
+ * transaction endpoints accept either JSON or this format by Content-Type. Responses stay JSON.
+ */
+@Component
+public class PosBinaryMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-sticker-pos";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    /** Larger than a full 500-transaction batch of typical baskets. */
+    private static final int MAX_BODY_BYTES = 8 * 1024 * 1024;
+
+    public PosBinaryMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == TransactionRequest.class || clazz == BatchTransactionRequest.class;
+    }
+
+    @Override
+    protected boolean canWrite(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        List<TransactionRequest> requests;
+        try {
+            requests = PosBinaryFormat.decode(readBody(inputMessage));
+        } catch (PosBinaryFormat.FormatException e) {
+            throw new HttpMessageNotReadableException(e.getMessage(), e, inputMessage);
+        }
+        if (clazz == BatchTransactionRequest.class) {
+            return new BatchTransactionRequest(requests);
+        }
+        if (requests.size() != 1) {
+            throw new HttpMessageNotReadableException(
+                "Expected exactly one transaction, got " + requests.size(), inputMessage);
+        }
+        return requests.get(0);
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("POS binary format is request-only");
+    }
+
+    private static byte[] readBody(HttpInputMessage inputMessage) throws IOException {
+        long contentLength = inputMessage.getHeaders().getContentLength();
+        if (contentLength > MAX_BODY_BYTES) {
+            throw new HttpMessageNotReadableException("Body exceeds " + MAX_BODY_BYTES + " bytes", inputMessage);
+        }
+        InputStream body = inputMessage.getBody();
+        byte[] bytes = body.readNBytes(MAX_BODY_BYTES);
+        if (body.read() != -1) {
+            throw new HttpMessageNotReadableException("Body exceeds " + MAX_BODY_BYTES + " bytes", inputMessage);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,12 @@
+package com.looplink.stickerengine.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs such as the campaign rule refresh.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,43 @@
+package com.looplink.stickerengine.controller;
+
+import com.looplink.stickerengine.model.RollupReport;
+import com.looplink.stickerengine.service.rollup.StoreRollups;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Campaign dashboard endpoints, served from the store rollup tables rather than raw transactions.
+ */
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private final StoreRollups storeRollups;
+
+    public AnalyticsController(StoreRollups storeRollups) {
+        this.storeRollups = storeRollups;
+    }
+
+    /**
+     * GET /api/analytics/stores/{storeId}?granularity=day&from=2024-01-01T00:00:00Z&to=2024-02-01T00:00:00Z
+     * One store's transactions, stickers issued, spend and promo units per UTC hour or day.
+     */
+    @GetMapping("/stores/{storeId}")
+    public ResponseEntity<RollupReport> store(@PathVariable String storeId,
+                                              @RequestParam(defaultValue = "day") String granularity,
+                                              @RequestParam String from,
+                                              @RequestParam String to) {
+        return ResponseEntity.ok(storeRollups.findStoreReport(storeId, granularity, from, to));
+    }
+
+    /**
+     * GET /api/analytics/campaign?granularity=day&from=...&to=...
+     * The same figures summed over all stores.
+     */
+    @GetMapping("/campaign")
+    public ResponseEntity<RollupReport> campaign(@RequestParam(defaultValue = "day") String granularity,
+                                                 @RequestParam String from,
+                                                 @RequestParam String to) {
+        return ResponseEntity.ok(storeRollups.findCampaignReport(granularity, from, to));
+    }
+}
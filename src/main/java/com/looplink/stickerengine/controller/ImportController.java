@@ -0,0 +1,86 @@
+package com.looplink.stickerengine.controller;
+
+import com.looplink.stickerengine.model.ImportError;
+import com.looplink.stickerengine.model.ImportRequest;
+import com.looplink.stickerengine.model.ImportStatus;
+import com.looplink.stickerengine.service.importer.TransactionFileImport;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Admin endpoints for importing end-of-day transaction files. Enabled with sticker-engine.import.enabled
+ * on the node whose import directory the stores' files are delivered to.
+ */
+@RestController
+@RequestMapping("/api/admin/imports")
+@ConditionalOnProperty(name = "sticker-engine.import.enabled", havingValue = "true")
+public class ImportController {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportController.class);
+
+    private static final int MAX_ERRORS = 1000;
+
+    private final TransactionFileImport fileImport;
+
+    public ImportController(TransactionFileImport fileImport) {
+        this.fileImport = fileImport;
+    }
+
+    /**
+     * POST /api/admin/imports
+     * Start an import; it executes in the background. Poll GET /api/admin/imports/{file} for progress.
+     */
+    @PostMapping
+    public ResponseEntity<ImportStatus> start(@Valid @RequestBody ImportRequest request) {
+        log.info("Received import request: file={}, format={}, fromOffset={}",
+                request.file(), request.format(), request.fromOffset());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(fileImport.start(request));
+    }
+
+    /**
+     * GET /api/admin/imports/{file}
+     */
+    @GetMapping("/{file}")
+    public ResponseEntity<ImportStatus> get(@PathVariable String file) {
+        return ResponseEntity.of(fileImport.find(file));
+    }
+
+    /**
+     * GET /api/admin/imports/{file}/errors?limit=100
+     * Records the import rejected, with their line, byte offset and reason.
+     */
+    @GetMapping("/{file}/errors")
+    public ResponseEntity<List<ImportError>> errors(@PathVariable String file,
+                                                    @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.of(fileImport.findErrors(file, Math.max(1, Math.min(limit, MAX_ERRORS))));
+    }
+
+    /**
+     * POST /api/admin/imports/{file}/resume
+     * Continue a failed, cancelled or interrupted import from its checkpoint.
+     */
+    @PostMapping("/{file}/resume")
+    public ResponseEntity<ImportStatus> resume(@PathVariable String file) {
+        log.info("Resuming import: file={}", file);
+        return fileImport.resume(file)
+            .map(status -> ResponseEntity.status(HttpStatus.ACCEPTED).body(status))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * POST /api/admin/imports/{file}/cancel
+     * Stop the import after its current batch.
+     */
+    @PostMapping("/{file}/cancel")
+    public ResponseEntity<ImportStatus> cancel(@PathVariable String file) {
+        log.info("Cancelling import: file={}", file);
+        return ResponseEntity.of(fileImport.cancel(file));
+    }
+}
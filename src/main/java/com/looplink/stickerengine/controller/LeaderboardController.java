@@ -0,0 +1,77 @@
+package com.looplink.stickerengine.controller;
+
+import com.looplink.stickerengine.model.Leaderboard;
+import com.looplink.stickerengine.model.LeaderboardEntry;
+import com.looplink.stickerengine.service.leaderboard.Leaderboards;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Top-collector leaderboards, global and per store, and the admin rebuild.
+ */
+@RestController
+@RequestMapping("/api")
+public class LeaderboardController {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardController.class);
+
+    private static final int MAX_LIMIT = 100;
+
+    private final Leaderboards leaderboards;
+
+    public LeaderboardController(Leaderboards leaderboards) {
+        this.leaderboards = leaderboards;
+    }
+
+    /**
+     * GET /api/leaderboards/global?limit=10
+     * Shoppers with the highest sticker balances.
+     */
+    @GetMapping("/leaderboards/global")
+    public ResponseEntity<Leaderboard> global(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(leaderboards.top(null, clamp(limit)));
+    }
+
+    /**
+     * GET /api/leaderboards/global/shoppers/{shopperId}
+     */
+    @GetMapping("/leaderboards/global/shoppers/{shopperId}")
+    public ResponseEntity<LeaderboardEntry> globalRank(@PathVariable String shopperId) {
+        return ResponseEntity.of(leaderboards.find(null, shopperId));
+    }
+
+    /**
+     * GET /api/leaderboards/stores/{storeId}?limit=10
+     * Shoppers who earned the most stickers at the store.
+     */
+    @GetMapping("/leaderboards/stores/{storeId}")
+    public ResponseEntity<Leaderboard> store(@PathVariable String storeId,
+                                             @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(leaderboards.top(storeId, clamp(limit)));
+    }
+
+    /**
+     * GET /api/leaderboards/stores/{storeId}/shoppers/{shopperId}
+     */
+    @GetMapping("/leaderboards/stores/{storeId}/shoppers/{shopperId}")
+    public ResponseEntity<LeaderboardEntry> storeRank(@PathVariable String storeId, @PathVariable String shopperId) {
+        return ResponseEntity.of(leaderboards.find(storeId, shopperId));
+    }
+
+    /**
+     * POST /api/admin/leaderboards/rebuild
+     * Recompute every leaderboard from the DB and archive in the background.
+     */
+    @PostMapping("/admin/leaderboards/rebuild")
+    public ResponseEntity<Void> rebuild() {
+        log.info("Received leaderboard rebuild request");
+        leaderboards.startRebuild();
+        return ResponseEntity.accepted().build();
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
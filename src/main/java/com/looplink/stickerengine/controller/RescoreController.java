@@ -0,0 +1,88 @@
+package com.looplink.stickerengine.controller;
+
+import com.looplink.stickerengine.model.RescoreCorrection;
+import com.looplink.stickerengine.model.RescoreRequest;
+import com.looplink.stickerengine.model.RescoreRun;
+import com.looplink.stickerengine.service.rescore.RescoreJob;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Admin endpoints for bulk re-scoring after a rule change. Enabled with sticker-engine.rescore.enabled
+ * on the one node that should run the job.
+ */
+@RestController
+@RequestMapping("/api/admin/rescore")
+@ConditionalOnProperty(name = "sticker-engine.rescore.enabled", havingValue = "true")
+public class RescoreController {
+
+    private static final Logger log = LoggerFactory.getLogger(RescoreController.class);
+
+    private static final int MAX_CORRECTIONS = 1000;
+
+    private final RescoreJob rescoreJob;
+
+    public RescoreController(RescoreJob rescoreJob) {
+        this.rescoreJob = rescoreJob;
+    }
+
+    /**
+     * POST /api/admin/rescore
+     * Start a run; it executes in the background. Poll GET /api/admin/rescore/{runId} for progress.
+     */
+    @PostMapping
+    public ResponseEntity<RescoreRun> start(@Valid @RequestBody RescoreRequest request) {
+        log.info("Received re-score request: ruleVersion={}, dryRun={}", request.ruleVersion(), request.dryRun());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(rescoreJob.start(request));
+    }
+
+    /**
+     * GET /api/admin/rescore/{runId}
+     */
+    @GetMapping("/{runId}")
+    public ResponseEntity<RescoreRun> get(@PathVariable long runId) {
+        return ResponseEntity.of(rescoreJob.find(runId));
+    }
+
+    /**
+     * GET /api/admin/rescore/{runId}/corrections?limit=100
+     * Transactions whose stickers differ: the diff of a dry run, or what a real run changed.
+     */
+    @GetMapping("/{runId}/corrections")
+    public ResponseEntity<List<RescoreCorrection>> corrections(@PathVariable long runId,
+                                                               @RequestParam(defaultValue = "100") int limit) {
+        if (rescoreJob.find(runId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(rescoreJob.findCorrections(runId, Math.max(1, Math.min(limit, MAX_CORRECTIONS))));
+    }
+
+    /**
+     * POST /api/admin/rescore/{runId}/resume
+     * Continue a failed, cancelled or interrupted run from its checkpoint.
+     */
+    @PostMapping("/{runId}/resume")
+    public ResponseEntity<RescoreRun> resume(@PathVariable long runId) {
+        log.info("Resuming re-score run: runId={}", runId);
+        return rescoreJob.resume(runId)
+            .map(run -> ResponseEntity.status(HttpStatus.ACCEPTED).body(run))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * POST /api/admin/rescore/{runId}/cancel
+     * Stop the run after its current batch.
+     */
+    @PostMapping("/{runId}/cancel")
+    public ResponseEntity<RescoreRun> cancel(@PathVariable long runId) {
+        log.info("Cancelling re-score run: runId={}", runId);
+        return ResponseEntity.of(rescoreJob.cancel(runId));
+    }
+}
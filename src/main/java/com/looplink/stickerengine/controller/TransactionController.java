@@ -1,14 +1,29 @@
 package com.looplink.stickerengine.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.looplink.stickerengine.model.BalanceUpdate;
+import com.looplink.stickerengine.model.BatchTransactionRequest;
+import com.looplink.stickerengine.model.BatchTransactionResponse;
 import com.looplink.stickerengine.model.ShopperStatus;
 import com.looplink.stickerengine.model.TransactionRequest;
 import com.looplink.stickerengine.model.TransactionResponse;
 import com.looplink.stickerengine.service.TransactionService;
+import com.looplink.stickerengine.service.stream.BalanceStreamHub;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
  * REST controller for transaction and shopper endpoints.
@@ -19,10 +34,19 @@ public class TransactionController {
 
     private static final Logger log = LoggerFactory.getLogger(TransactionController.class);
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final TransactionService transactionService;
+    private final BalanceStreamHub balanceStreamHub;
+    private final ObjectWriter ndjsonWriter;
 
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, BalanceStreamHub balanceStreamHub,
+                                 ObjectMapper objectMapper) {
         this.transactionService = transactionService;
+        this.balanceStreamHub = balanceStreamHub;
+        this.ndjsonWriter = objectMapper.writer()
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .withRootValueSeparator("\n");
     }
 
     /**
@@ -41,13 +65,30 @@ public class TransactionController {
     }
 
     /**
-     * GET /api/shoppers/{shopperId}
-     * Get a shopper's sticker balance and transaction history.
+     * POST /api/transactions/batch
+     * Submit a batch of purchase transactions, e.g. a store sync.
+     */
+    @PostMapping("/transactions/batch")
+    public ResponseEntity<BatchTransactionResponse> submitBatch(
+            @Valid @RequestBody BatchTransactionRequest request) {
+        log.info("Received transaction batch: size={}", request.transactions().size());
+        BatchTransactionResponse response = transactionService.processBatch(request.transactions());
+        log.info("Transaction batch processed: processed={}, duplicates={}, failed={}",
+                response.processed(), response.duplicates(), response.failed());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /api/shoppers/{shopperId}?cursor=...&limit=50
+     * Get a shopper's sticker balance and one page of transaction history.
      */
     @GetMapping("/shoppers/{shopperId}")
-    public ResponseEntity<ShopperStatus> getShopperStatus(@PathVariable String shopperId) {
-        log.info("Fetching status for shopperId={}", shopperId);
-        return transactionService.getShopperStatus(shopperId)
+    public ResponseEntity<ShopperStatus> getShopperStatus(
+            @PathVariable String shopperId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        log.info("Fetching status for shopperId={}, limit={}", shopperId, limit);
+        return transactionService.getShopperStatus(shopperId, cursor, limit)
             .map(status -> {
                 log.info("Found shopper: shopperId={}, totalStickers={}", shopperId, status.totalStickers());
                 return ResponseEntity.ok(status);
@@ -57,4 +98,40 @@ public class TransactionController {
                 return ResponseEntity.notFound().build();
             });
     }
+
+    /**
+     * GET /api/shoppers/{shopperId}/transactions
+     * Stream a shopper's full transaction history as NDJSON, one summary per line.
+     */
+    @GetMapping(value = "/shoppers/{shopperId}/transactions", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamShopperHistory(@PathVariable String shopperId) {
+        log.info("Streaming history for shopperId={}", shopperId);
+        if (!transactionService.shopperExists(shopperId)) {
+            log.warn("Shopper not found: shopperId={}", shopperId);
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = ndjsonWriter.writeValues(new BufferedOutputStream(out))) {
+                transactionService.streamHistory(shopperId, summary -> {
+                    try {
+                        writer.write(summary);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * GET /api/shoppers/{shopperId}/balance/stream
+     * Server-sent events: the current balance, then one "balance" event per committed transaction.
+     */
+    @GetMapping(value = "/shoppers/{shopperId}/balance/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBalance(@PathVariable String shopperId) {
+        log.debug("Opening balance stream for shopperId={}", shopperId);
+        return balanceStreamHub.subscribe(shopperId,
+            () -> BalanceUpdate.snapshot(shopperId, transactionService.getBalance(shopperId)));
+    }
 }
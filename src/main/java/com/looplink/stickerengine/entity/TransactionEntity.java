@@ -1,7 +1,7 @@
 package com.looplink.stickerengine.entity;
 
+import com.looplink.stickerengine.model.Money;
 import jakarta.persistence.*;
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,7 +14,8 @@ public class TransactionEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "transaction_id", length = 64, unique = true, nullable = false)
+    // Unique through transaction_keys; the partitioned table cannot enforce it
+    @Column(name = "transaction_id", length = 64, nullable = false)
     private String transactionId;
 
     @Column(name = "shopper_id", length = 64, nullable = false)
@@ -27,11 +28,15 @@ public class TransactionEntity {
     private Instant timestamp;
 
     @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
-    private BigDecimal totalAmount;
+    @Convert(converter = MoneyConverter.class)
+    private Money totalAmount;
 
     @Column(name = "stickers_earned", nullable = false)
     private int stickersEarned = 0;
 
+    @Column(name = "rule_version", nullable = false)
+    private int ruleVersion;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -85,11 +90,11 @@ public class TransactionEntity {
         this.timestamp = timestamp;
     }
 
-    public BigDecimal getTotalAmount() {
+    public Money getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(BigDecimal totalAmount) {
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
 
@@ -101,6 +106,14 @@ public class TransactionEntity {
         this.stickersEarned = stickersEarned;
     }
 
+    public int getRuleVersion() {
+        return ruleVersion;
+    }
+
+    public void setRuleVersion(int ruleVersion) {
+        this.ruleVersion = ruleVersion;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -1,7 +1,7 @@
 package com.looplink.stickerengine.entity;
 
+import com.looplink.stickerengine.model.Money;
 import jakarta.persistence.*;
-import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
@@ -26,11 +26,16 @@ public class TransactionItemEntity {
     private int quantity;
 
     @Column(name = "unit_price", nullable = false, precision = 10, scale = 2)
-    private BigDecimal unitPrice;
+    @Convert(converter = MoneyConverter.class)
+    private Money unitPrice;
 
     @Column(name = "category", length = 64, nullable = false)
     private String category;
 
+    /** Copy of the transaction's timestamp, the partitioning key of transaction_items. */
+    @Column(name = "timestamp", nullable = false)
+    private Instant timestamp;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -39,6 +44,9 @@ public class TransactionItemEntity {
     @PrePersist
     protected void onCreate() {
         createdAt = Instant.now();
+        if (timestamp == null && transaction != null) {
+            timestamp = transaction.getTimestamp();
+        }
     }
 
     public Long getId() {
@@ -81,11 +89,11 @@ public class TransactionItemEntity {
         this.quantity = quantity;
     }
 
-    public BigDecimal getUnitPrice() {
+    public Money getUnitPrice() {
         return unitPrice;
     }
 
-    public void setUnitPrice(BigDecimal unitPrice) {
+    public void setUnitPrice(Money unitPrice) {
         this.unitPrice = unitPrice;
     }
 
@@ -97,6 +105,14 @@ public class TransactionItemEntity {
         this.category = category;
     }
 
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Instant timestamp) {
+        this.timestamp = timestamp;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
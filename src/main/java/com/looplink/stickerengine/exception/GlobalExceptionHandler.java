@@ -1,6 +1,18 @@
 package com.looplink.stickerengine.exception;
 
+import com.looplink.stickerengine.model.HistoryCursor;
+import com.looplink.stickerengine.service.DistributedLockService;
+import com.looplink.stickerengine.service.ShopperMailboxExecutor;
+import com.looplink.stickerengine.service.TransactionService;
+import com.looplink.stickerengine.service.importer.TransactionFileImport;
+import com.looplink.stickerengine.service.leaderboard.Leaderboards;
+import com.looplink.stickerengine.service.rescore.RescoreJob;
+import com.looplink.stickerengine.service.rollup.StoreRollups;
+import com.looplink.stickerengine.service.stream.BalanceStreamHub;
+import com.looplink.stickerengine.service.wal.WriteBehindIngestion;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -44,6 +56,161 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(response);
     }
 
+    @ExceptionHandler(HistoryCursor.InvalidCursorException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidCursor(HistoryCursor.InvalidCursorException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", Instant.now().toString());
+        response.put("status", HttpStatus.BAD_REQUEST.value());
+        response.put("error", "Invalid Cursor");
+        response.put("message", "The cursor is malformed. Use nextCursor from a previous page.");
+
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    @ExceptionHandler(TransactionService.ArchivedPeriodException.class)
+    public ResponseEntity<Map<String, Object>> handleArchivedPeriod(TransactionService.ArchivedPeriodException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", Instant.now().toString());
+        response.put("status", HttpStatus.BAD_REQUEST.value());
+        response.put("error", "Transaction Too Old");
+        response.put("message", ex.getMessage());
+
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    @ExceptionHandler(DistributedLockService.LockAcquisitionException.class)
+    public ResponseEntity<Map<String, Object>> handleLockTimeout(DistributedLockService.LockAcquisitionException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", Instant.now().toString());
+        response.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.put("error", "Shopper Busy");
+        response.put("message", "Another transaction for this shopper is in progress. Please retry shortly.");
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(response);
+    }
+
+    @ExceptionHandler(ShopperMailboxExecutor.MailboxFullException.class)
+    public ResponseEntity<Map<String, Object>> handleMailboxFull(ShopperMailboxExecutor.MailboxFullException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", Instant.now().toString());
+        response.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.put("error", "Server Busy");
+        response.put("message", "Too many transactions are queued. Please retry shortly.");
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(response);
+    }
+
+    @ExceptionHandler(WriteBehindIngestion.BacklogFullException.class)
+    public ResponseEntity<Map<String, Object>> handleBacklogFull(WriteBehindIngestion.BacklogFullException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", Instant.now().toString());
+        response.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.put("error", "Server Busy");
+        response.put("message", "Too many transactions are waiting to be stored. Please retry shortly.");
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(response);
+    }
+
+    @ExceptionHandler(BalanceStreamHub.SubscriberLimitException.class)
+    public ResponseEntity<Map<String, Object>> handleSubscriberLimit(BalanceStreamHub.SubscriberLimitException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", Instant.now().toString());
+        response.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.put("error", "Server Busy");
+        response.put("message", "Too many open balance streams. Please retry shortly.");
+
+        // Explicit type: the client asked for text/event-stream, which a JSON body cannot satisfy
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(response);
+    }
+
+    @ExceptionHandler(RescoreJob.InvalidRescoreException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidRescore(RescoreJob.InvalidRescoreException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", Instant.now().toString());
+        response.put("status", HttpStatus.BAD_REQUEST.value());
+        response.put("error", "Invalid Re-score Request");
+        response.put("message", ex.getMessage());
+
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    @ExceptionHandler(RescoreJob.RescoreConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleRescoreConflict(RescoreJob.RescoreConflictException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", Instant.now().toString());
+        response.put("status", HttpStatus.CONFLICT.value());
+        response.put("error", "Re-score Conflict");
+        response.put("message", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    @ExceptionHandler(StoreRollups.InvalidRollupQueryException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidRollupQuery(StoreRollups.InvalidRollupQueryException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", Instant.now().toString());
+        response.put("status", HttpStatus.BAD_REQUEST.value());
+        response.put("error", "Invalid Analytics Query");
+        response.put("message", ex.getMessage());
+
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    @ExceptionHandler(Leaderboards.LeaderboardUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleLeaderboardUnavailable(Leaderboards.LeaderboardUnavailableException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", Instant.now().toString());
+        response.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.put("error", "Leaderboard Unavailable");
+        response.put("message", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(response);
+    }
+
+    @ExceptionHandler(Leaderboards.RebuildInProgressException.class)
+    public ResponseEntity<Map<String, Object>> handleRebuildInProgress(Leaderboards.RebuildInProgressException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", Instant.now().toString());
+        response.put("status", HttpStatus.CONFLICT.value());
+        response.put("error", "Rebuild In Progress");
+        response.put("message", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    @ExceptionHandler(TransactionFileImport.InvalidImportException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidImport(TransactionFileImport.InvalidImportException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", Instant.now().toString());
+        response.put("status", HttpStatus.BAD_REQUEST.value());
+        response.put("error", "Invalid Import Request");
+        response.put("message", ex.getMessage());
+
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    @ExceptionHandler(TransactionFileImport.ImportConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleImportConflict(TransactionFileImport.ImportConflictException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", Instant.now().toString());
+        response.put("status", HttpStatus.CONFLICT.value());
+        response.put("error", "Import Conflict");
+        response.put("message", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGenericErrors(Exception ex) {
         Map<String, Object> response = new HashMap<>();
@@ -0,0 +1,25 @@
+package com.looplink.stickerengine.model;
+
+/**
+ * Balance change pushed to shopper balance streams.
+ * transactionId is null for the snapshot sent when a stream opens.
+ */
+public record BalanceUpdate(
+    String shopperId,
+    String transactionId,
+    int stickersEarned,
+    int totalStickers
+) {
+    public static BalanceUpdate of(TransactionResponse response) {
+        return new BalanceUpdate(
+            response.shopperId(),
+            response.transactionId(),
+            response.stickersEarned(),
+            response.newTotalBalance()
+        );
+    }
+
+    public static BalanceUpdate snapshot(String shopperId, int totalStickers) {
+        return new BalanceUpdate(shopperId, null, 0, totalStickers);
+    }
+}
@@ -0,0 +1,16 @@
+package com.looplink.stickerengine.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Incoming batch of transaction requests, typically a store sync.
+ */
+public record BatchTransactionRequest(
+    @NotEmpty(message = "Transactions list cannot be empty")
+    @Size(max = 500, message = "Batch cannot contain more than 500 transactions")
+    @Valid
+    List<TransactionRequest> transactions
+) {}
@@ -0,0 +1,57 @@
+package com.looplink.stickerengine.model;
+
+import java.util.List;
+
+/**
+ * Response DTO for batch submission. Results are in the same order as the request.
+ */
+public record BatchTransactionResponse(
+    int processed,
+    int duplicates,
+    int failed,
+    List<Result> results
+) {
+    public enum Status {
+        PROCESSED,
+        DUPLICATE,
+        FAILED
+    }
+
+    public record Result(
+        String transactionId,
+        String shopperId,
+        Status status,
+        int stickersEarned,
+        int newTotalBalance,
+        String message
+    ) {
+        public static Result from(TransactionResponse response) {
+            return new Result(
+                response.transactionId(),
+                response.shopperId(),
+                response.duplicate() ? Status.DUPLICATE : Status.PROCESSED,
+                response.stickersEarned(),
+                response.newTotalBalance(),
+                response.message()
+            );
+        }
+
+        public static Result failed(TransactionRequest request, String message) {
+            return new Result(request.transactionId(), request.shopperId(), Status.FAILED, 0, 0, message);
+        }
+    }
+
+    public static BatchTransactionResponse of(List<Result> results) {
+        int processed = 0;
+        int duplicates = 0;
+        int failed = 0;
+        for (Result result : results) {
+            switch (result.status()) {
+                case PROCESSED -> processed++;
+                case DUPLICATE -> duplicates++;
+                case FAILED -> failed++;
+            }
+        }
+        return new BatchTransactionResponse(processed, duplicates, failed, results);
+    }
+}
@@ -0,0 +1,11 @@
+package com.looplink.stickerengine.model;
+
+/**
+ * A record an import rejected: the line it starts on, its byte offset, and why.
+ */
+public record ImportError(
+    long line,
+    long offset,
+    String transactionId,
+    String message
+) {}
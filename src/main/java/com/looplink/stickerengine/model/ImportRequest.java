@@ -0,0 +1,19 @@
+package com.looplink.stickerengine.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * Request to import an end-of-day transaction file from the import directory.
+ * format (ndjson or csv) defaults to the file extension; fromOffset starts the import at a byte
+ * offset instead of the beginning, skipping ahead to the next line if it falls mid-line.
+ */
+public record ImportRequest(
+    @NotBlank(message = "File is required")
+    String file,
+
+    String format,
+
+    @PositiveOrZero(message = "fromOffset must not be negative")
+    Long fromOffset
+) {}
@@ -0,0 +1,35 @@
+package com.looplink.stickerengine.model;
+
+import java.time.Instant;
+
+/**
+ * Progress of a file import. offset and lines are the position of the last checkpoint, and the
+ * counters cover every record before it; lines are counted from fromOffset when one was given.
+ */
+public record ImportStatus(
+    String file,
+    Format format,
+    Status status,
+    long fileSize,
+    long offset,
+    long lines,
+    long processed,
+    long duplicates,
+    long invalid,
+    long failed,
+    String error,
+    Instant startedAt,
+    Instant updatedAt
+) {
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+}
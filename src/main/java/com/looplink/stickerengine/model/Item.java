@@ -4,16 +4,18 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
-import java.math.BigDecimal;
+import jakarta.validation.constraints.Size;
 
 /**
  * Represents an item in a purchase transaction.
  */
 public record Item(
     @NotBlank(message = "SKU is required")
+    @Size(max = 64, message = "SKU must be at most 64 characters")
     String sku,
 
     @NotBlank(message = "Item name is required")
+    @Size(max = 255, message = "Item name must be at most 255 characters")
     String name,
 
     @NotNull(message = "Quantity is required")
@@ -22,16 +24,20 @@ public record Item(
 
     @NotNull(message = "Unit price is required")
     @Positive(message = "Unit price must be positive")
-    BigDecimal unitPrice,
+    Money unitPrice,
 
     @NotBlank(message = "Category is required")
+    @Size(max = 64, message = "Category must be at most 64 characters")
     String category
 ) {
-    public BigDecimal totalPrice() {
-        return unitPrice.multiply(BigDecimal.valueOf(quantity));
+    public Money totalPrice() {
+        return unitPrice.times(quantity);
     }
 
-    public boolean isPromo() {
-        return "promo".equalsIgnoreCase(category);
+    /**
+     * Line total in cents, without allocating.
+     */
+    public long totalCents() {
+        return Math.multiplyExact(unitPrice.cents(), (long) quantity);
     }
 }
@@ -0,0 +1,12 @@
+package com.looplink.stickerengine.model;
+
+import java.util.List;
+
+/**
+ * Response DTO for top collectors, highest first. storeId is null for the global leaderboard,
+ * which ranks sticker balances; a store's leaderboard ranks stickers earned at that store.
+ */
+public record Leaderboard(
+    String storeId,
+    List<LeaderboardEntry> entries
+) {}
@@ -0,0 +1,10 @@
+package com.looplink.stickerengine.model;
+
+/**
+ * One shopper's position on a leaderboard; rank is 1-based.
+ */
+public record LeaderboardEntry(
+    long rank,
+    String shopperId,
+    long stickers
+) {}
@@ -0,0 +1,62 @@
+package com.looplink.stickerengine.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+
+/**
+ * Monetary amount as a long number of cents.
+ *
+ * Converted exactly to and from BigDecimal at the JSON and database boundaries; amounts with more
+ * than 2 decimal places are rejected. Arithmetic inside the engine is plain overflow-checked long math.
+ */
+public record Money(long cents) implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    /**
+     * Largest amount a DECIMAL(10,2) column holds.
+     */
+    public static final Money MAX_STORED = new Money(9_999_999_999L);
+    public static final String MAX_STORED_TEXT = "99999999.99";
+
+    public static Money ofCents(long cents) {
+        return new Money(cents);
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(BigDecimal amount) {
+        if (amount.stripTrailingZeros().scale() > 2) {
+            throw new IllegalArgumentException("Amount has more than 2 decimal places: " + amount.toPlainString());
+        }
+        return new Money(amount.movePointRight(2).longValueExact());
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(cents, other.cents));
+    }
+
+    public Money times(int quantity) {
+        return new Money(Math.multiplyExact(cents, (long) quantity));
+    }
+
+    public boolean isPositive() {
+        return cents > 0;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
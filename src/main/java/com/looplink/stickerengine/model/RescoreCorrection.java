@@ -0,0 +1,12 @@
+package com.looplink.stickerengine.model;
+
+/**
+ * One transaction whose stickers differ under the re-score rule version.
+ */
+public record RescoreCorrection(
+    String transactionId,
+    String shopperId,
+    int oldStickers,
+    int newStickers,
+    int oldRuleVersion
+) {}
@@ -0,0 +1,20 @@
+package com.looplink.stickerengine.model;
+
+import jakarta.validation.constraints.Positive;
+import java.time.Instant;
+
+/**
+ * Request to re-score stored transactions against a campaign rule version.
+ * ruleVersion defaults to the active version; from/to optionally bound the transaction timestamps,
+ * from inclusive and to exclusive.
+ */
+public record RescoreRequest(
+    @Positive(message = "Rule version must be positive")
+    Integer ruleVersion,
+
+    boolean dryRun,
+
+    Instant from,
+
+    Instant to
+) {}
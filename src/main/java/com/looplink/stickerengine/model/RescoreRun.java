@@ -0,0 +1,29 @@
+package com.looplink.stickerengine.model;
+
+import java.time.Instant;
+
+/**
+ * State of a re-score run. scanned, corrected and stickerDelta cover everything committed up to the
+ * checkpoint; in a dry run corrected and stickerDelta are what the run would change.
+ */
+public record RescoreRun(
+    long id,
+    int ruleVersion,
+    boolean dryRun,
+    Instant from,
+    Instant to,
+    Status status,
+    long scanned,
+    long corrected,
+    long stickerDelta,
+    String error,
+    Instant createdAt,
+    Instant updatedAt
+) {
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+}
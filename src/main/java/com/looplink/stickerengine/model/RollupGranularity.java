@@ -0,0 +1,33 @@
+package com.looplink.stickerengine.model;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bucket size of a store rollup. Buckets are UTC hours or days; maxBuckets bounds one read.
+ */
+public enum RollupGranularity {
+    HOUR(ChronoUnit.HOURS, 24 * 31),
+    DAY(ChronoUnit.DAYS, 366);
+
+    private final ChronoUnit unit;
+    private final int maxBuckets;
+
+    RollupGranularity(ChronoUnit unit, int maxBuckets) {
+        this.unit = unit;
+        this.maxBuckets = maxBuckets;
+    }
+
+    public Instant bucketStart(Instant timestamp) {
+        return timestamp.truncatedTo(unit);
+    }
+
+    public Duration duration() {
+        return unit.getDuration();
+    }
+
+    public int maxBuckets() {
+        return maxBuckets;
+    }
+}
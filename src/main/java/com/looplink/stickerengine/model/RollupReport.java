@@ -0,0 +1,24 @@
+package com.looplink.stickerengine.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Response DTO for campaign dashboards: one row per non-empty bucket in [from, to), oldest first.
+ * storeId is null for campaign-wide reports, which sum all stores.
+ */
+public record RollupReport(
+    String storeId,
+    RollupGranularity granularity,
+    Instant from,
+    Instant to,
+    List<Bucket> buckets
+) {
+    public record Bucket(
+        Instant bucketStart,
+        long transactionCount,
+        long stickersIssued,
+        Money spend,
+        long promoUnits
+    ) {}
+}
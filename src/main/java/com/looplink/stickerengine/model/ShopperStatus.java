@@ -1,14 +1,17 @@
 package com.looplink.stickerengine.model;
 
+import java.time.Instant;
 import java.util.List;
 
 /**
  * Response DTO showing a shopper's sticker status.
+ * Transactions are one page ordered by (timestamp, id); nextCursor is null on the last page.
  */
 public record ShopperStatus(
     String shopperId,
     int totalStickers,
-    List<TransactionSummary> transactions
+    List<TransactionSummary> transactions,
+    String nextCursor
 ) {
     public record TransactionSummary(
         String transactionId,
@@ -18,12 +21,17 @@ public record ShopperStatus(
         int stickersEarned
     ) {
         public static TransactionSummary from(Transaction tx) {
+            return of(tx.transactionId(), tx.storeId(), tx.timestamp(), tx.totalAmount(), tx.stickersEarned());
+        }
+
+        public static TransactionSummary of(String transactionId, String storeId, Instant timestamp,
+                                            Money totalAmount, int stickersEarned) {
             return new TransactionSummary(
-                tx.transactionId(),
-                tx.storeId(),
-                tx.timestamp().toString(),
-                "$" + tx.totalAmount().toString(),
-                tx.stickersEarned()
+                transactionId,
+                storeId,
+                timestamp.toString(),
+                "$" + totalAmount.toString(),
+                stickersEarned
             );
         }
     }
@@ -1,6 +1,5 @@
 package com.looplink.stickerengine.model;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 
@@ -13,14 +12,15 @@ public record Transaction(
     String storeId,
     Instant timestamp,
     List<Item> items,
-    BigDecimal totalAmount,
-    int stickersEarned
+    Money totalAmount,
+    int stickersEarned,
+    int ruleVersion
 ) {
-    public static Transaction from(TransactionRequest request, int stickersEarned) {
-        BigDecimal total = request.items().stream()
-            .map(Item::totalPrice)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
+    /**
+     * Builds the record from the basket total and stickers computed by the rule engine,
+     * stamped with the campaign rule version used.
+     */
+    public static Transaction from(TransactionRequest request, int stickersEarned, Money total, int ruleVersion) {
         return new Transaction(
             request.transactionId(),
             request.shopperId(),
@@ -28,7 +28,8 @@ public record Transaction(
             request.timestamp(),
             request.items(),
             total,
-            stickersEarned
+            stickersEarned,
+            ruleVersion
         );
     }
 }
@@ -1,23 +1,31 @@
 package com.looplink.stickerengine.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import java.time.Instant;
 import java.util.List;
 
 /**
  * Incoming transaction request payload.
+ *
+ * Size limits match the DB columns, so anything that passes validation can be stored.
  */
 public record TransactionRequest(
     @NotBlank(message = "Transaction ID is required")
+    @Size(max = 64, message = "Transaction ID must be at most 64 characters")
     String transactionId,
 
     @NotBlank(message = "Shopper ID is required")
+    @Size(max = 64, message = "Shopper ID must be at most 64 characters")
     String shopperId,
 
     @NotBlank(message = "Store ID is required")
+    @Size(max = 64, message = "Store ID must be at most 64 characters")
     String storeId,
 
     @NotNull(message = "Timestamp is required")
@@ -26,4 +34,26 @@ public record TransactionRequest(
     @NotEmpty(message = "Items list cannot be empty")
     @Valid
     List<Item> items
-) {}
+) {
+    /**
+     * Whether the basket total fits the DECIMAL(10,2) total_amount column.
+     */
+    @JsonIgnore
+    @AssertTrue(message = "Basket total must be at most " + Money.MAX_STORED_TEXT)
+    public boolean isTotalStorable() {
+        if (items == null) {
+            return true;
+        }
+        long total = 0;
+        try {
+            for (Item item : items) {
+                if (item != null && item.unitPrice() != null && item.quantity() != null) {
+                    total = Math.addExact(total, item.totalCents());
+                }
+            }
+        } catch (ArithmeticException e) {
+            return false;
+        }
+        return total <= Money.MAX_STORED.cents();
+    }
+}
@@ -23,13 +23,18 @@ public record TransactionResponse(
     }
 
     public static TransactionResponse duplicate(Transaction tx, int totalBalance) {
+        return duplicate(tx.transactionId(), tx.shopperId(), tx.stickersEarned(), totalBalance);
+    }
+
+    public static TransactionResponse duplicate(String transactionId, String shopperId,
+                                                int stickersEarned, int totalBalance) {
         return new TransactionResponse(
-            tx.transactionId(),
-            tx.shopperId(),
-            tx.stickersEarned(),
+            transactionId,
+            shopperId,
+            stickersEarned,
             totalBalance,
             true,
-            "Duplicate transaction. Previously awarded " + tx.stickersEarned() + " sticker(s)."
+            "Duplicate transaction. Previously awarded " + stickersEarned + " sticker(s)."
         );
     }
 }
@@ -0,0 +1,43 @@
+package com.looplink.stickerengine.repository;
+
+import com.looplink.stickerengine.model.Money;
+import com.looplink.stickerengine.service.rule.RuleSet;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC repository for versioned campaign rule parameters.
+ */
+@Repository
+public class CampaignRuleRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CampaignRuleRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Version currently in effect, or empty when no rule set is active. Cheap enough to poll.
+     */
+    public Optional<Integer> findActiveVersion() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(
+            "SELECT MAX(version) FROM campaign_rule_sets WHERE active = TRUE", Integer.class));
+    }
+
+    public Optional<RuleSet> findByVersion(int version) {
+        List<RuleSet> rows = jdbcTemplate.query(
+            "SELECT version, base_rate_threshold, promo_category, max_stickers_per_transaction " +
+            "FROM campaign_rule_sets WHERE version = ?",
+            (rs, rowNum) -> new RuleSet(
+                rs.getInt("version"),
+                Money.of(rs.getBigDecimal("base_rate_threshold")).cents(),
+                rs.getString("promo_category"),
+                rs.getInt("max_stickers_per_transaction")),
+            version);
+        return rows.stream().findFirst();
+    }
+}
@@ -0,0 +1,63 @@
+package com.looplink.stickerengine.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * JDBC repository for the full scans a leaderboard rebuild reads: shopper balances and stickers
+ * earned per store and shopper. Rows are streamed from a server cursor, so consumers must not use
+ * this thread's connection.
+ */
+@Repository
+public class LeaderboardRepository {
+
+    private static final String BALANCES_SQL =
+        "SELECT shopper_id, total_stickers FROM shoppers WHERE total_stickers <> 0";
+
+    private static final String STORE_TOTALS_SQL =
+        "SELECT store_id, shopper_id, SUM(stickers_earned) AS stickers FROM transactions";
+
+    private static final String STORE_TOTALS_GROUP_SQL =
+        " GROUP BY store_id, shopper_id HAVING SUM(stickers_earned) <> 0";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public LeaderboardRepository(DataSource dataSource) {
+        this.streamingJdbcTemplate = StreamingJdbcTemplates.create(dataSource);
+    }
+
+    /**
+     * Every shopper's balance, with a null storeId.
+     */
+    public void streamBalances(Consumer<StickerTotal> consumer) {
+        streamingJdbcTemplate.query(BALANCES_SQL, rs -> {
+            consumer.accept(new StickerTotal(null, rs.getString("shopper_id"), rs.getLong("total_stickers")));
+        });
+    }
+
+    /**
+     * Stickers earned per (store, shopper) over transactions at or after from, or all if from is null.
+     */
+    public void streamStoreTotals(Instant from, Consumer<StickerTotal> consumer) {
+        RowCallbackHandler handler = rs -> {
+            consumer.accept(new StickerTotal(rs.getString("store_id"), rs.getString("shopper_id"), rs.getLong("stickers")));
+        };
+        if (from == null) {
+            streamingJdbcTemplate.query(STORE_TOTALS_SQL + STORE_TOTALS_GROUP_SQL, handler);
+        } else {
+            streamingJdbcTemplate.query(STORE_TOTALS_SQL + " WHERE timestamp >= ?" + STORE_TOTALS_GROUP_SQL, handler,
+                Timestamp.from(from));
+        }
+    }
+
+    /**
+     * Stickers for a shopper, at one store or (storeId null) in total.
+     */
+    public record StickerTotal(String storeId, String shopperId, long stickers) {}
+}
@@ -0,0 +1,333 @@
+package com.looplink.stickerengine.repository;
+
+import com.looplink.stickerengine.model.Item;
+import com.looplink.stickerengine.model.Money;
+import com.looplink.stickerengine.model.RescoreCorrection;
+import com.looplink.stickerengine.model.RescoreRun;
+import com.looplink.stickerengine.model.Transaction;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * JDBC repository for re-score runs: run state and checkpoints, recorded corrections, sticker updates,
+ * and the streaming read of stored transactions with their items.
+ */
+@Repository
+public class RescoreRepository {
+
+    private static final String SCAN_SELECT_SQL =
+        "SELECT t.id, t.transaction_id, t.shopper_id, t.store_id, t.timestamp, t.total_amount, t.stickers_earned, " +
+        "t.rule_version, i.sku, i.name, i.quantity, i.unit_price, i.category FROM (" +
+        "SELECT id, transaction_id, shopper_id, store_id, timestamp, total_amount, stickers_earned, rule_version " +
+        "FROM transactions WHERE 1 = 1";
+
+    private static final String SCAN_JOIN_SQL =
+        " ORDER BY shopper_id, timestamp, id LIMIT ?) t " +
+        "JOIN transaction_items i ON i.transaction_id = t.id AND i.timestamp = t.timestamp " +
+        "ORDER BY t.shopper_id, t.timestamp, t.id";
+
+    private static final String INSERT_CORRECTION_SQL =
+        "INSERT INTO rescore_corrections (run_id, transaction_id, shopper_id, old_stickers, new_stickers, " +
+        "old_rule_version) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_STICKERS_SQL =
+        "UPDATE transactions SET stickers_earned = ?, rule_version = ? " +
+        "WHERE id = ? AND timestamp = ? AND stickers_earned = ?";
+
+    private static final String RUN_COLUMNS =
+        "id, rule_version, dry_run, from_timestamp, to_timestamp, status, scanned, corrected, sticker_delta, error, " +
+        "created_at, updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public RescoreRepository(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = StreamingJdbcTemplates.create(dataSource);
+    }
+
+    /**
+     * Creates a RUNNING run leased to the owner.
+     */
+    public long createRun(int ruleVersion, boolean dryRun, Instant from, Instant to, String owner, Duration lease) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO rescore_runs (rule_version, dry_run, from_timestamp, to_timestamp, status, " +
+                "lease_owner, lease_expires_at) VALUES (?, ?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+            ps.setInt(1, ruleVersion);
+            ps.setBoolean(2, dryRun);
+            ps.setTimestamp(3, from != null ? Timestamp.from(from) : null);
+            ps.setTimestamp(4, to != null ? Timestamp.from(to) : null);
+            ps.setString(5, RescoreRun.Status.RUNNING.name());
+            ps.setString(6, owner);
+            ps.setTimestamp(7, Timestamp.from(Instant.now().plus(lease)));
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    /**
+     * Sets an unfinished run to RUNNING and leases it to the owner, unless another owner's lease on
+     * it is still current.
+     * @return whether the run was claimed
+     */
+    public boolean claimRun(long runId, String owner, Duration lease) {
+        Instant now = Instant.now();
+        return jdbcTemplate.update(
+            "UPDATE rescore_runs SET status = ?, error = NULL, lease_owner = ?, lease_expires_at = ? " +
+            "WHERE id = ? AND status <> ? AND (status <> ? OR lease_expires_at IS NULL OR lease_expires_at < ?)",
+            RescoreRun.Status.RUNNING.name(), owner, Timestamp.from(now.plus(lease)), runId,
+            RescoreRun.Status.COMPLETED.name(), RescoreRun.Status.RUNNING.name(), Timestamp.from(now)) == 1;
+    }
+
+    public Optional<RescoreRun> findRun(long id) {
+        return jdbcTemplate.query("SELECT " + RUN_COLUMNS + " FROM rescore_runs WHERE id = ?",
+            (rs, rowNum) -> toRun(rs), id).stream().findFirst();
+    }
+
+    /**
+     * Key of the last transaction committed by the run, or empty if it has not committed a batch yet.
+     */
+    public Optional<Checkpoint> findCheckpoint(long runId) {
+        return jdbcTemplate.query(
+            "SELECT last_shopper_id, last_timestamp, last_id FROM rescore_runs WHERE id = ? AND last_id IS NOT NULL",
+            (rs, rowNum) -> new Checkpoint(
+                rs.getString("last_shopper_id"),
+                rs.getTimestamp("last_timestamp").toInstant(),
+                rs.getLong("last_id")),
+            runId).stream().findFirst();
+    }
+
+    /**
+     * Records how the owner's execution of the run ended and releases its lease.
+     * @return false if the owner no longer held the lease, in which case nothing is written
+     */
+    public boolean finishRun(long runId, String owner, RescoreRun.Status status, String error) {
+        return jdbcTemplate.update(
+            "UPDATE rescore_runs SET status = ?, error = ?, lease_owner = NULL, lease_expires_at = NULL " +
+            "WHERE id = ? AND lease_owner = ?",
+            status.name(), error, runId, owner) == 1;
+    }
+
+    /**
+     * Moves the checkpoint, adds one batch to the run's totals and renews the owner's lease. Call in
+     * the batch's DB transaction; the row lock it takes keeps a concurrent claim out until the commit.
+     * @throws LeaseLostException if the owner no longer holds the lease, so the batch must roll back
+     */
+    public void recordProgress(long runId, String owner, Duration lease, Checkpoint checkpoint,
+                               long scanned, long corrected, long stickerDelta) {
+        int updated = jdbcTemplate.update(
+            "UPDATE rescore_runs SET last_shopper_id = ?, last_timestamp = ?, last_id = ?, scanned = scanned + ?, " +
+            "corrected = corrected + ?, sticker_delta = sticker_delta + ?, lease_expires_at = ? " +
+            "WHERE id = ? AND lease_owner = ?",
+            checkpoint.shopperId(), Timestamp.from(checkpoint.timestamp()), checkpoint.id(),
+            scanned, corrected, stickerDelta, Timestamp.from(Instant.now().plus(lease)), runId, owner);
+        if (updated != 1) {
+            throw new LeaseLostException("Re-score run " + runId + " was claimed by another node");
+        }
+    }
+
+    public void insertCorrections(long runId, List<Rescored> corrections) {
+        if (corrections.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(corrections.size());
+        for (Rescored rescored : corrections) {
+            Transaction tx = rescored.row().transaction();
+            args.add(new Object[] {
+                runId, tx.transactionId(), tx.shopperId(), tx.stickersEarned(), rescored.stickers(), tx.ruleVersion()
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_CORRECTION_SQL, args);
+    }
+
+    public List<RescoreCorrection> findCorrections(long runId, int limit) {
+        return jdbcTemplate.query(
+            "SELECT transaction_id, shopper_id, old_stickers, new_stickers, old_rule_version " +
+            "FROM rescore_corrections WHERE run_id = ? ORDER BY transaction_id LIMIT ?",
+            (rs, rowNum) -> new RescoreCorrection(
+                rs.getString("transaction_id"),
+                rs.getString("shopper_id"),
+                rs.getInt("old_stickers"),
+                rs.getInt("new_stickers"),
+                rs.getInt("old_rule_version")),
+            runId, limit);
+    }
+
+    /**
+     * Writes the new sticker counts, stamped with the rule version, in one batched statement. A row is
+     * only updated if its sticker count is still the one the run read.
+     * @return the corrections that were applied
+     */
+    public List<Rescored> updateStickers(List<Rescored> corrections, int ruleVersion) {
+        if (corrections.isEmpty()) {
+            return corrections;
+        }
+        List<Object[]> args = new ArrayList<>(corrections.size());
+        for (Rescored rescored : corrections) {
+            Transaction tx = rescored.row().transaction();
+            args.add(new Object[] {
+                rescored.stickers(), ruleVersion, rescored.row().id(), Timestamp.from(tx.timestamp()), tx.stickersEarned()
+            });
+        }
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_STICKERS_SQL, args);
+        List<Rescored> applied = new ArrayList<>(corrections.size());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                throw new IllegalStateException("The JDBC driver did not report update counts for re-scored rows");
+            }
+            if (counts[i] > 0) {
+                applied.add(corrections.get(i));
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Passes up to limit stored transactions, items included, to the consumer in (shopper_id, timestamp, id)
+     * order, starting after the given position if any. Rows are streamed from a server cursor, so the
+     * consumer must not use this thread's connection; an exception from the consumer ends the scan.
+     * Callers page through the table with successive calls rather than one unbounded cursor, since
+     * Connector/J reads a streamed result to the end before it can close it.
+     * @param from inclusive lower bound on timestamp, or null
+     * @param to exclusive upper bound on timestamp, or null
+     * @return the number of transactions passed to the consumer
+     */
+    public int streamTransactions(Instant from, Instant to, Checkpoint after, int limit,
+                                  Consumer<StoredTransaction> consumer) {
+        StringBuilder sql = new StringBuilder(SCAN_SELECT_SQL);
+        List<Object> args = new ArrayList<>();
+        if (from != null) {
+            sql.append(" AND timestamp >= ?");
+            args.add(Timestamp.from(from));
+        }
+        if (to != null) {
+            sql.append(" AND timestamp < ?");
+            args.add(Timestamp.from(to));
+        }
+        if (after != null) {
+            Timestamp lastTimestamp = Timestamp.from(after.timestamp());
+            sql.append(" AND (shopper_id > ? OR (shopper_id = ? AND (timestamp > ? OR (timestamp = ? AND id > ?))))");
+            args.add(after.shopperId());
+            args.add(after.shopperId());
+            args.add(lastTimestamp);
+            args.add(lastTimestamp);
+            args.add(after.id());
+        }
+        // The inner page is read in shopper history index order; items need no order within a transaction
+        sql.append(SCAN_JOIN_SQL);
+        args.add(limit);
+
+        Assembler assembler = new Assembler(consumer);
+        streamingJdbcTemplate.query(sql.toString(), rs -> {
+            assembler.accept(rs);
+        }, args.toArray());
+        assembler.finish();
+        return assembler.count;
+    }
+
+    private static RescoreRun toRun(ResultSet rs) throws SQLException {
+        Timestamp from = rs.getTimestamp("from_timestamp");
+        Timestamp to = rs.getTimestamp("to_timestamp");
+        return new RescoreRun(
+            rs.getLong("id"),
+            rs.getInt("rule_version"),
+            rs.getBoolean("dry_run"),
+            from != null ? from.toInstant() : null,
+            to != null ? to.toInstant() : null,
+            RescoreRun.Status.valueOf(rs.getString("status")),
+            rs.getLong("scanned"),
+            rs.getLong("corrected"),
+            rs.getLong("sticker_delta"),
+            rs.getString("error"),
+            rs.getTimestamp("created_at").toInstant(),
+            rs.getTimestamp("updated_at").toInstant());
+    }
+
+    /**
+     * Folds consecutive joined rows of one transaction back into a transaction with its items.
+     */
+    private static final class Assembler {
+        private final Consumer<StoredTransaction> consumer;
+        private StoredTransaction current;
+        private List<Item> items;
+        private int count;
+
+        Assembler(Consumer<StoredTransaction> consumer) {
+            this.consumer = consumer;
+        }
+
+        void accept(ResultSet rs) throws SQLException {
+            long id = rs.getLong("id");
+            if (current == null || current.id() != id) {
+                finish();
+                items = new ArrayList<>();
+                current = new StoredTransaction(id, new Transaction(
+                    rs.getString("transaction_id"),
+                    rs.getString("shopper_id"),
+                    rs.getString("store_id"),
+                    rs.getTimestamp("timestamp").toInstant(),
+                    items,
+                    Money.of(rs.getBigDecimal("total_amount")),
+                    rs.getInt("stickers_earned"),
+                    rs.getInt("rule_version")));
+            }
+            items.add(new Item(
+                rs.getString("sku"),
+                rs.getString("name"),
+                rs.getInt("quantity"),
+                Money.of(rs.getBigDecimal("unit_price")),
+                rs.getString("category")));
+        }
+
+        void finish() {
+            if (current != null) {
+                StoredTransaction done = current;
+                current = null;
+                count++;
+                consumer.accept(done);
+            }
+        }
+    }
+
+    /**
+     * A stored transaction with its DB id, which is part of the scan order and the update key.
+     */
+    public record StoredTransaction(long id, Transaction transaction) {
+        public Checkpoint checkpoint() {
+            return new Checkpoint(transaction.shopperId(), transaction.timestamp(), id);
+        }
+    }
+
+    /**
+     * A stored transaction and its sticker count under the re-score rule version.
+     */
+    public record Rescored(StoredTransaction row, int stickers) {}
+
+    /**
+     * Scan position: (shopper_id, timestamp, id) of the last transaction committed.
+     */
+    public record Checkpoint(String shopperId, Instant timestamp, long id) {}
+
+    public static class LeaseLostException extends RuntimeException {
+        public LeaseLostException(String message) {
+            super(message);
+        }
+    }
+}
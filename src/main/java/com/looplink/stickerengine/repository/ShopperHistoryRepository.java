@@ -0,0 +1,61 @@
+package com.looplink.stickerengine.repository;
+
+import com.looplink.stickerengine.model.Money;
+import com.looplink.stickerengine.model.ShopperStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * JDBC repository for streaming a shopper's full history row by row.
+ */
+@Repository
+public class ShopperHistoryRepository {
+
+    private static final String HISTORY_SQL =
+        "SELECT transaction_id, store_id, timestamp, total_amount, stickers_earned FROM transactions " +
+        "WHERE shopper_id = ? ORDER BY timestamp ASC, id ASC";
+
+    private static final String HISTORY_FROM_SQL =
+        "SELECT transaction_id, store_id, timestamp, total_amount, stickers_earned FROM transactions " +
+        "WHERE shopper_id = ? AND timestamp >= ? ORDER BY timestamp ASC, id ASC";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public ShopperHistoryRepository(DataSource dataSource) {
+        this.streamingJdbcTemplate = StreamingJdbcTemplates.create(dataSource);
+    }
+
+    /**
+     * Passes each transaction summary to the consumer as it is read, without materialising the history.
+     */
+    public void streamSummaries(String shopperId, Consumer<ShopperStatus.TransactionSummary> consumer) {
+        streamingJdbcTemplate.query(HISTORY_SQL, rs -> {
+            consumer.accept(toSummary(rs));
+        }, shopperId);
+    }
+
+    /**
+     * As {@link #streamSummaries}, limited to transactions at or after the given time.
+     */
+    public void streamSummariesFrom(String shopperId, Instant from, Consumer<ShopperStatus.TransactionSummary> consumer) {
+        streamingJdbcTemplate.query(HISTORY_FROM_SQL, rs -> {
+            consumer.accept(toSummary(rs));
+        }, shopperId, Timestamp.from(from));
+    }
+
+    private static ShopperStatus.TransactionSummary toSummary(ResultSet rs) throws SQLException {
+        return ShopperStatus.TransactionSummary.of(
+            rs.getString("transaction_id"),
+            rs.getString("store_id"),
+            rs.getTimestamp("timestamp").toInstant(),
+            Money.of(rs.getBigDecimal("total_amount")),
+            rs.getInt("stickers_earned"));
+    }
+}
@@ -0,0 +1,99 @@
+package com.looplink.stickerengine.repository;
+
+import com.looplink.stickerengine.model.Money;
+import com.looplink.stickerengine.model.RollupGranularity;
+import com.looplink.stickerengine.model.RollupReport;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC repository for the hourly and daily store rollup tables.
+ */
+@Repository
+public class StoreRollupRepository {
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO %s (store_id, bucket_start, transaction_count, stickers_issued, spend, promo_units) " +
+        "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+        "transaction_count = transaction_count + VALUES(transaction_count), " +
+        "stickers_issued = stickers_issued + VALUES(stickers_issued), " +
+        "spend = spend + VALUES(spend), " +
+        "promo_units = promo_units + VALUES(promo_units)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StoreRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds each delta to its bucket, creating missing buckets, one batched statement.
+     */
+    public void addDeltas(RollupGranularity granularity, List<Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (Delta delta : deltas) {
+            args.add(new Object[] {
+                delta.storeId(),
+                Timestamp.from(delta.bucketStart()),
+                delta.transactionCount(),
+                delta.stickersIssued(),
+                Money.ofCents(delta.spendCents()).toBigDecimal(),
+                delta.promoUnits()
+            });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL.formatted(table(granularity)), args);
+    }
+
+    /**
+     * One store's buckets in [from, to), a primary key range scan.
+     */
+    public List<RollupReport.Bucket> findStoreBuckets(RollupGranularity granularity, String storeId,
+                                                      Instant from, Instant to) {
+        return jdbcTemplate.query(
+            "SELECT bucket_start, transaction_count, stickers_issued, spend, promo_units FROM " + table(granularity) +
+            " WHERE store_id = ? AND bucket_start >= ? AND bucket_start < ? ORDER BY bucket_start",
+            (rs, rowNum) -> toBucket(rs),
+            storeId, Timestamp.from(from), Timestamp.from(to));
+    }
+
+    /**
+     * All stores' buckets in [from, to), summed per bucket.
+     */
+    public List<RollupReport.Bucket> findCampaignBuckets(RollupGranularity granularity, Instant from, Instant to) {
+        return jdbcTemplate.query(
+            "SELECT bucket_start, SUM(transaction_count) AS transaction_count, SUM(stickers_issued) AS stickers_issued, " +
+            "SUM(spend) AS spend, SUM(promo_units) AS promo_units FROM " + table(granularity) +
+            " WHERE bucket_start >= ? AND bucket_start < ? GROUP BY bucket_start ORDER BY bucket_start",
+            (rs, rowNum) -> toBucket(rs),
+            Timestamp.from(from), Timestamp.from(to));
+    }
+
+    private static String table(RollupGranularity granularity) {
+        return switch (granularity) {
+            case HOUR -> "store_rollups_hourly";
+            case DAY -> "store_rollups_daily";
+        };
+    }
+
+    private static RollupReport.Bucket toBucket(ResultSet rs) throws SQLException {
+        return new RollupReport.Bucket(
+            rs.getTimestamp("bucket_start").toInstant(),
+            rs.getLong("transaction_count"),
+            rs.getLong("stickers_issued"),
+            Money.of(rs.getBigDecimal("spend")),
+            rs.getLong("promo_units"));
+    }
+
+    public record Delta(String storeId, Instant bucketStart, long transactionCount, long stickersIssued,
+                        long spendCents, long promoUnits) {}
+}
@@ -0,0 +1,39 @@
+package com.looplink.stickerengine.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * JdbcTemplates for the full scans that stream rows to a consumer instead of collecting them.
+ */
+final class StreamingJdbcTemplates {
+
+    /** Rows per round-trip on drivers that take the fetch size as a plain hint. */
+    private static final int FETCH_SIZE = 1000;
+
+    private StreamingJdbcTemplates() {}
+
+    /**
+     * On MySQL the fetch size is Integer.MIN_VALUE, which makes Connector/J stream rows from a server
+     * cursor instead of buffering the whole result. Other drivers, such as H2 in the load test, reject
+     * a negative fetch size, so they get a positive one.
+     */
+    static JdbcTemplate create(DataSource dataSource) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(isMySql(dataSource) ? Integer.MIN_VALUE : FETCH_SIZE);
+        return template;
+    }
+
+    private static boolean isMySql(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "MySQL".equalsIgnoreCase(product);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Cannot read database metadata", e);
+        }
+    }
+}
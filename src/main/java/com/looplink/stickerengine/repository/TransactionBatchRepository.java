@@ -0,0 +1,135 @@
+package com.looplink.stickerengine.repository;
+
+import com.looplink.stickerengine.model.Item;
+import com.looplink.stickerengine.model.Transaction;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * JDBC repository for bulk writes that bypass the JPA persistence context.
+ * Participates in the surrounding JPA transaction.
+ */
+@Repository
+public class TransactionBatchRepository {
+
+    private static final String UPSERT_BALANCE_SQL =
+        "INSERT INTO shoppers (shopper_id, total_stickers) VALUES (?, ?) " +
+        "ON DUPLICATE KEY UPDATE total_stickers = total_stickers + VALUES(total_stickers)";
+
+    private static final String INSERT_TRANSACTION_SQL =
+        "INSERT INTO transactions (transaction_id, shopper_id, store_id, timestamp, total_amount, stickers_earned, " +
+        "rule_version) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ITEM_SQL =
+        "INSERT INTO transaction_items (transaction_id, sku, name, quantity, unit_price, category, timestamp) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionKeyRepository keyRepository;
+
+    public TransactionBatchRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+                                      TransactionKeyRepository keyRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.keyRepository = keyRepository;
+    }
+
+    /**
+     * Returns the subset of the given transaction IDs that are already stored, archived ones included.
+     */
+    public Set<String> findExistingTransactionIds(Collection<String> transactionIds) {
+        return keyRepository.findExisting(transactionIds);
+    }
+
+    /**
+     * Creates missing shoppers and adds the sticker delta to each balance, one batched statement.
+     * Rows are upserted in shopper ID order whatever the map's order, so concurrent callers (batches,
+     * the write-behind flusher, re-score runs) lock shopper rows in the same order and cannot deadlock.
+     */
+    public void incrementBalances(Map<String, Integer> deltaByShopper) {
+        if (deltaByShopper.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(deltaByShopper.size());
+        new TreeMap<>(deltaByShopper).forEach((shopperId, delta) -> args.add(new Object[] {shopperId, delta}));
+        jdbcTemplate.batchUpdate(UPSERT_BALANCE_SQL, args);
+    }
+
+    /**
+     * Returns the current balance of each given shopper.
+     */
+    public Map<String, Integer> findBalances(Collection<String> shopperIds) {
+        Map<String, Integer> balances = new HashMap<>();
+        if (shopperIds.isEmpty()) {
+            return balances;
+        }
+        namedJdbcTemplate.query(
+            "SELECT shopper_id, total_stickers FROM shoppers WHERE shopper_id IN (:ids)",
+            new MapSqlParameterSource("ids", shopperIds),
+            rs -> {
+                balances.put(rs.getString("shopper_id"), rs.getInt("total_stickers"));
+            });
+        return balances;
+    }
+
+    /**
+     * Inserts transactions, their ID keys and their items with one batched statement per table.
+     * Shoppers must already exist.
+     */
+    public void insertTransactions(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        keyRepository.insertAll(transactions);
+        List<Object[]> txArgs = new ArrayList<>(transactions.size());
+        for (Transaction tx : transactions) {
+            txArgs.add(new Object[] {
+                tx.transactionId(),
+                tx.shopperId(),
+                tx.storeId(),
+                Timestamp.from(tx.timestamp()),
+                tx.totalAmount().toBigDecimal(),
+                tx.stickersEarned(),
+                tx.ruleVersion()
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION_SQL, txArgs);
+
+        Map<String, Long> idsByTransactionId = new HashMap<>();
+        namedJdbcTemplate.query(
+            "SELECT id, transaction_id FROM transactions WHERE transaction_id IN (:ids)",
+            new MapSqlParameterSource("ids", transactions.stream().map(Transaction::transactionId).toList()),
+            rs -> {
+                idsByTransactionId.put(rs.getString("transaction_id"), rs.getLong("id"));
+            });
+
+        List<Object[]> itemArgs = new ArrayList<>();
+        for (Transaction tx : transactions) {
+            Long id = idsByTransactionId.get(tx.transactionId());
+            for (Item item : tx.items()) {
+                itemArgs.add(new Object[] {
+                    id,
+                    item.sku(),
+                    item.name(),
+                    item.quantity(),
+                    item.unitPrice().toBigDecimal(),
+                    item.category(),
+                    Timestamp.from(tx.timestamp())
+                });
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, itemArgs);
+    }
+}
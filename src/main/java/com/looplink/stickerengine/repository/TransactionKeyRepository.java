@@ -0,0 +1,94 @@
+package com.looplink.stickerengine.repository;
+
+import com.looplink.stickerengine.model.Transaction;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * JDBC repository for transaction_keys, the unpartitioned table that keeps transaction IDs unique
+ * across partitions and after archival. Participates in the surrounding transaction.
+ */
+@Repository
+public class TransactionKeyRepository {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO transaction_keys (transaction_id, shopper_id, timestamp) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public TransactionKeyRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    public boolean exists(String transactionId) {
+        return !jdbcTemplate.queryForList(
+            "SELECT 1 FROM transaction_keys WHERE transaction_id = ?", Integer.class, transactionId).isEmpty();
+    }
+
+    public Optional<TransactionKey> findById(String transactionId) {
+        return jdbcTemplate.query(
+            "SELECT transaction_id, shopper_id, timestamp FROM transaction_keys WHERE transaction_id = ?",
+            (rs, rowNum) -> toKey(rs), transactionId).stream().findFirst();
+    }
+
+    public List<TransactionKey> findAllById(Collection<String> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return List.of();
+        }
+        return namedJdbcTemplate.query(
+            "SELECT transaction_id, shopper_id, timestamp FROM transaction_keys WHERE transaction_id IN (:ids)",
+            new MapSqlParameterSource("ids", transactionIds),
+            (rs, rowNum) -> toKey(rs));
+    }
+
+    /**
+     * Returns the subset of the given transaction IDs already stored, archived ones included.
+     */
+    public Set<String> findExisting(Collection<String> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(namedJdbcTemplate.queryForList(
+            "SELECT transaction_id FROM transaction_keys WHERE transaction_id IN (:ids)",
+            new MapSqlParameterSource("ids", transactionIds),
+            String.class));
+    }
+
+    /**
+     * Claims the transactions' IDs; fails with DuplicateKeyException if one is already stored.
+     */
+    public void insertAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(transactions.size());
+        for (Transaction tx : transactions) {
+            args.add(new Object[] {tx.transactionId(), tx.shopperId(), Timestamp.from(tx.timestamp())});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    private static TransactionKey toKey(ResultSet rs) throws SQLException {
+        return new TransactionKey(
+            rs.getString("transaction_id"),
+            rs.getString("shopper_id"),
+            rs.getTimestamp("timestamp").toInstant());
+    }
+
+    public record TransactionKey(String transactionId, String shopperId, Instant timestamp) {}
+}
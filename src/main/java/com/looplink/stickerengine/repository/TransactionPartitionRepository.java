@@ -0,0 +1,166 @@
+package com.looplink.stickerengine.repository;
+
+import com.looplink.stickerengine.model.Item;
+import com.looplink.stickerengine.model.Money;
+import com.looplink.stickerengine.model.Transaction;
+import com.looplink.stickerengine.service.archive.ArchiveRow;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * JDBC access to the monthly partitions of transactions and transaction_items (MySQL only):
+ * partition metadata, maintenance DDL, and ordered reads of one partition for archival.
+ */
+@Repository
+public class TransactionPartitionRepository {
+
+    public static final String TRANSACTIONS = "transactions";
+    public static final String TRANSACTION_ITEMS = "transaction_items";
+    public static final String FUTURE_PARTITION = "p_future";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("p[A-Za-z0-9_]+");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public TransactionPartitionRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    /**
+     * Partitions of the table in range order, or an empty list if it is not partitioned.
+     */
+    public List<Partition> findPartitions(String table) {
+        List<Partition> partitions = new ArrayList<>();
+        jdbcTemplate.query(
+            "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION",
+            rs -> {
+                Instant lower = partitions.isEmpty() ? Instant.EPOCH : partitions.get(partitions.size() - 1).upperBound();
+                String description = rs.getString("PARTITION_DESCRIPTION");
+                Instant upper = "MAXVALUE".equalsIgnoreCase(description)
+                    ? null
+                    : Instant.ofEpochSecond(Long.parseLong(description.trim()));
+                partitions.add(new Partition(rs.getString("PARTITION_NAME"), lower, upper));
+            },
+            table);
+        return partitions;
+    }
+
+    /**
+     * Splits p_future into the given partitions, which must be in range order and start at its lower bound.
+     */
+    public void splitFuturePartition(String table, List<Partition> partitions) {
+        StringBuilder sql = new StringBuilder("ALTER TABLE ").append(table)
+            .append(" REORGANIZE PARTITION ").append(FUTURE_PARTITION).append(" INTO (");
+        for (Partition partition : partitions) {
+            sql.append("PARTITION ").append(checkName(partition.name()))
+                .append(" VALUES LESS THAN (").append(partition.upperBound().getEpochSecond()).append("), ");
+        }
+        sql.append("PARTITION ").append(FUTURE_PARTITION).append(" VALUES LESS THAN MAXVALUE)");
+        jdbcTemplate.execute(sql.toString());
+    }
+
+    public void dropPartition(String table, String partition) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " DROP PARTITION " + checkName(partition));
+    }
+
+    public long countTransactions(String partition) {
+        Long count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM transactions PARTITION (" + checkName(partition) + ")", Long.class);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * One page of the partition's transactions, with items, in (shopper_id, timestamp, id) order after
+     * the given row (null for the first page).
+     */
+    public List<ArchiveRow> readPage(String partition, ArchiveRow after, int limit) {
+        String name = checkName(partition);
+        List<ArchiveRow> headers = new ArrayList<>(limit);
+        String select = "SELECT id, transaction_id, shopper_id, store_id, timestamp, total_amount, stickers_earned, " +
+            "rule_version FROM transactions PARTITION (" + name + ") ";
+        String order = " ORDER BY shopper_id, timestamp, id LIMIT " + limit;
+        if (after == null) {
+            jdbcTemplate.query(select + order, rs -> {
+                headers.add(toHeader(rs));
+            });
+        } else {
+            Transaction last = after.transaction();
+            Timestamp lastTimestamp = Timestamp.from(last.timestamp());
+            jdbcTemplate.query(select +
+                "WHERE shopper_id > ? OR (shopper_id = ? AND (timestamp > ? OR (timestamp = ? AND id > ?)))" + order,
+                rs -> {
+                    headers.add(toHeader(rs));
+                },
+                last.shopperId(), last.shopperId(), lastTimestamp, lastTimestamp, after.id());
+        }
+        if (headers.isEmpty()) {
+            return headers;
+        }
+
+        Map<Long, List<Item>> itemsById = new HashMap<>();
+        namedJdbcTemplate.query(
+            "SELECT transaction_id, sku, name, quantity, unit_price, category FROM transaction_items PARTITION (" +
+            name + ") WHERE transaction_id IN (:ids) ORDER BY transaction_id, id",
+            new MapSqlParameterSource("ids", headers.stream().map(ArchiveRow::id).toList()),
+            rs -> {
+                itemsById.computeIfAbsent(rs.getLong("transaction_id"), id -> new ArrayList<>()).add(new Item(
+                    rs.getString("sku"),
+                    rs.getString("name"),
+                    rs.getInt("quantity"),
+                    Money.of(rs.getBigDecimal("unit_price")),
+                    rs.getString("category")));
+            });
+
+        List<ArchiveRow> rows = new ArrayList<>(headers.size());
+        for (ArchiveRow header : headers) {
+            Transaction tx = header.transaction();
+            rows.add(new ArchiveRow(header.id(), new Transaction(tx.transactionId(), tx.shopperId(), tx.storeId(),
+                tx.timestamp(), itemsById.getOrDefault(header.id(), List.of()), tx.totalAmount(),
+                tx.stickersEarned(), tx.ruleVersion())));
+        }
+        return rows;
+    }
+
+    private static ArchiveRow toHeader(ResultSet rs) throws SQLException {
+        return new ArchiveRow(rs.getLong("id"), new Transaction(
+            rs.getString("transaction_id"),
+            rs.getString("shopper_id"),
+            rs.getString("store_id"),
+            rs.getTimestamp("timestamp").toInstant(),
+            List.of(),
+            Money.of(rs.getBigDecimal("total_amount")),
+            rs.getInt("stickers_earned"),
+            rs.getInt("rule_version")));
+    }
+
+    /**
+     * Partition names come from information_schema or are generated, but are spliced into DDL, so check them.
+     */
+    private static String checkName(String partition) {
+        if (!PARTITION_NAME.matcher(partition).matches()) {
+            throw new IllegalArgumentException("Invalid partition name: " + partition);
+        }
+        return partition;
+    }
+
+    /**
+     * A range partition holding rows with lowerBound <= timestamp < upperBound; upperBound is null for MAXVALUE.
+     */
+    public record Partition(String name, Instant lowerBound, Instant upperBound) {}
+}
@@ -1,9 +1,14 @@
 package com.looplink.stickerengine.repository;
 
 import com.looplink.stickerengine.entity.TransactionEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,7 +20,29 @@ public interface TransactionRepository extends JpaRepository<TransactionEntity,
 
     Optional<TransactionEntity> findByTransactionId(String transactionId);
 
+    List<TransactionEntity> findByTransactionIdIn(Collection<String> transactionIds);
+
     List<TransactionEntity> findByShopperId(String shopperId);
 
-    boolean existsByTransactionId(String transactionId);
+    /**
+     * First history page for a shopper, ordered by (timestamp, id).
+     * Selects only summary columns into a DTO, so no entities or items are loaded.
+     */
+    @Query("SELECT new com.looplink.stickerengine.repository.TransactionSummaryRow(" +
+           "t.id, t.transactionId, t.storeId, t.timestamp, t.totalAmount, t.stickersEarned) " +
+           "FROM TransactionEntity t WHERE t.shopperId = :shopperId ORDER BY t.timestamp ASC, t.id ASC")
+    List<TransactionSummaryRow> findHistoryPage(@Param("shopperId") String shopperId, Pageable pageable);
+
+    /**
+     * History page after the (timestamp, id) keyset cursor, served by idx_transactions_shopper_history.
+     */
+    @Query("SELECT new com.looplink.stickerengine.repository.TransactionSummaryRow(" +
+           "t.id, t.transactionId, t.storeId, t.timestamp, t.totalAmount, t.stickersEarned) " +
+           "FROM TransactionEntity t WHERE t.shopperId = :shopperId " +
+           "AND (t.timestamp > :timestamp OR (t.timestamp = :timestamp AND t.id > :id)) " +
+           "ORDER BY t.timestamp ASC, t.id ASC")
+    List<TransactionSummaryRow> findHistoryPageAfter(@Param("shopperId") String shopperId,
+                                                     @Param("timestamp") Instant timestamp,
+                                                     @Param("id") long id,
+                                                     Pageable pageable);
 }
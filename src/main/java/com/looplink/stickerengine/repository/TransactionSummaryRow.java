@@ -0,0 +1,22 @@
+package com.looplink.stickerengine.repository;
+
+import com.looplink.stickerengine.model.Money;
+import com.looplink.stickerengine.model.ShopperStatus;
+
+import java.time.Instant;
+
+/**
+ * Read-only projection of the summary columns of a transaction, without items.
+ */
+public record TransactionSummaryRow(
+    Long id,
+    String transactionId,
+    String storeId,
+    Instant timestamp,
+    Money totalAmount,
+    int stickersEarned
+) {
+    public ShopperStatus.TransactionSummary toSummary() {
+        return ShopperStatus.TransactionSummary.of(transactionId, storeId, timestamp, totalAmount, stickersEarned);
+    }
+}
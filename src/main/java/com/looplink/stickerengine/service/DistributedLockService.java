@@ -1,34 +1,52 @@
 package com.looplink.stickerengine.service;
 
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
+import com.looplink.stickerengine.service.lock.LockBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
-import java.util.Collections;
-import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Per-key mutual exclusion. Storage is delegated to a LockBackend selected by
+ * sticker-engine.lock.backend: "redis" (default, multi-node) or "local" (single-node, in-JVM).
+ *
+ * Waiting acquisition (acquire/executeWithLock) is bounded by sticker-engine.lock.max-wait and
+ * recorded in the sticker.lock.wait timer, tagged by outcome, to help size that timeout.
+ * Time from acquisition to release is recorded in sticker.lock.held.
+ */
 @Service
 public class DistributedLockService {
 
-    private static final String LOCK_KEY_PREFIX = "lock:";
-    private static final Duration DEFAULT_LOCK_TTL = Duration.ofSeconds(30);
+    static final Duration DEFAULT_LOCK_TTL = Duration.ofSeconds(30);
 
-    private static final String UNLOCK_SCRIPT = 
-        "if redis.call('get', KEYS[1]) == ARGV[1] then " +
-        "    return redis.call('del', KEYS[1]) " +
-        "else " +
-        "    return 0 " +
-        "end";
+    private final LockBackend backend;
+    private final Duration maxWait;
+    private final Timer acquiredWaitTimer;
+    private final Timer timedOutWaitTimer;
+    private final Timer holdTimer;
+    private final ConcurrentHashMap<String, Long> acquiredAtByToken = new ConcurrentHashMap<>();
 
-    private final StringRedisTemplate redisTemplate;
-    private final DefaultRedisScript<Long> unlockScript;
+    public DistributedLockService(LockBackend backend,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${sticker-engine.lock.max-wait:2s}") Duration maxWait) {
+        this.backend = backend;
+        this.maxWait = maxWait;
+        this.acquiredWaitTimer = waitTimer(meterRegistry, "acquired");
+        this.timedOutWaitTimer = waitTimer(meterRegistry, "timeout");
+        this.holdTimer = TransactionMetrics.latencyTimer("sticker.lock.held")
+            .description("Time a lock was held, from acquisition to release")
+            .register(meterRegistry);
+    }
 
-    public DistributedLockService(StringRedisTemplate redisTemplate) {
-        this.redisTemplate = redisTemplate;
-        this.unlockScript = new DefaultRedisScript<>();
-        this.unlockScript.setScriptText(UNLOCK_SCRIPT);
-        this.unlockScript.setResultType(Long.class);
+    private static Timer waitTimer(MeterRegistry meterRegistry, String outcome) {
+        return TransactionMetrics.latencyTimer("sticker.lock.wait")
+            .description("Time spent waiting to acquire a lock")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
     }
 
     /**
@@ -47,10 +65,53 @@ public class DistributedLockService {
      * @return lock token if acquired, null if lock not available
      */
     public String tryLock(String lockKey, Duration ttl) {
-        String key = LOCK_KEY_PREFIX + lockKey;
-        String token = UUID.randomUUID().toString();
-        Boolean success = redisTemplate.opsForValue().setIfAbsent(key, token, ttl);
-        return Boolean.TRUE.equals(success) ? token : null;
+        String token = backend.tryLock(lockKey, ttl);
+        lockAcquired(token);
+        return token;
+    }
+
+    /**
+     * Acquires a distributed lock, waiting up to the configured max wait for it to be released.
+     * @param lockKey the key to lock on (e.g., shopper ID)
+     * @return lock token if acquired, null if the wait timed out
+     */
+    public String acquire(String lockKey) {
+        return acquire(lockKey, DEFAULT_LOCK_TTL, maxWait);
+    }
+
+    /**
+     * Acquires a distributed lock, waiting up to maxWait (zero means not at all) for it to be released.
+     * @param lockKey the key to lock on
+     * @param maxWait how long to wait for the current holder
+     * @return lock token if acquired, null if the wait timed out
+     */
+    public String acquire(String lockKey, Duration maxWait) {
+        return acquire(lockKey, DEFAULT_LOCK_TTL, maxWait);
+    }
+
+    /**
+     * The configured sticker-engine.lock.max-wait.
+     */
+    public Duration maxWait() {
+        return maxWait;
+    }
+
+    /**
+     * Acquires a distributed lock, waiting up to maxWait for it to be released.
+     * @param lockKey the key to lock on
+     * @param ttl lock expiration time
+     * @param maxWait how long to wait for the current holder
+     * @return lock token if acquired, null if the wait timed out
+     */
+    public String acquire(String lockKey, Duration ttl, Duration maxWait) {
+        long start = System.nanoTime();
+        String token = backend.lock(lockKey, ttl, maxWait);
+        long now = System.nanoTime();
+        (token != null ? acquiredWaitTimer : timedOutWaitTimer).record(now - start, TimeUnit.NANOSECONDS);
+        if (token != null) {
+            acquiredAtByToken.put(token, now);
+        }
+        return token;
     }
 
     /**
@@ -64,9 +125,28 @@ public class DistributedLockService {
         if (token == null) {
             return false;
         }
-        String key = LOCK_KEY_PREFIX + lockKey;
-        Long result = redisTemplate.execute(unlockScript, Collections.singletonList(key), token);
-        return result != null && result > 0;
+        boolean released = backend.unlock(lockKey, token);
+        lockReleased(token);
+        return released;
+    }
+
+    /**
+     * Starts hold-time tracking for a lock taken outside this service (e.g. by a combined Redis script).
+     */
+    void lockAcquired(String token) {
+        if (token != null) {
+            acquiredAtByToken.put(token, System.nanoTime());
+        }
+    }
+
+    /**
+     * Records the hold time of a lock released outside this service, or by {@link #unlock}.
+     */
+    void lockReleased(String token) {
+        Long acquiredAt = token != null ? acquiredAtByToken.remove(token) : null;
+        if (acquiredAt != null) {
+            holdTimer.record(System.nanoTime() - acquiredAt, TimeUnit.NANOSECONDS);
+        }
     }
 
     /**
@@ -74,10 +154,10 @@ public class DistributedLockService {
      * @param lockKey the key to lock on
      * @param action the action to execute
      * @return the result of the action
-     * @throws LockAcquisitionException if lock cannot be acquired
+     * @throws LockAcquisitionException if lock cannot be acquired within the max wait
      */
     public <T> T executeWithLock(String lockKey, LockAction<T> action) {
-        String token = tryLock(lockKey);
+        String token = acquire(lockKey);
         if (token == null) {
             throw new LockAcquisitionException("Failed to acquire lock for: " + lockKey);
         }
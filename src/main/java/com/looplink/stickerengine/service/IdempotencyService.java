@@ -1,14 +1,32 @@
 package com.looplink.stickerengine.service;
 
+import com.looplink.stickerengine.model.TransactionResponse;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
+/**
+ * Redis idempotency records, keyed by transaction ID.
+ *
+ * A record is "processing" while a transaction is in flight. On completion it holds a compact
+ * encoding of the response ({@code c:<stickersEarned>:<balance>:<shopperId>}), so retries can be
+ * answered straight from Redis without touching the database.
+ */
 @Service
 public class IdempotencyService {
 
     private static final String IDEMPOTENCY_KEY_PREFIX = "idempotency:tx:";
+    private static final String COMPLETED_PREFIX = "c:";
     private static final Duration TTL = Duration.ofHours(24);
 
     private final StringRedisTemplate redisTemplate;
@@ -28,11 +46,81 @@ public class IdempotencyService {
     }
 
     /**
-     * Marks the transaction as completed in Redis.
+     * Attempts to acquire locks for several transaction IDs in a single pipelined round-trip.
+     * @return the IDs that were already claimed, mapped to their stored record; all other IDs were acquired
      */
-    public void markCompleted(String transactionId) {
-        String key = IDEMPOTENCY_KEY_PREFIX + transactionId;
-        redisTemplate.opsForValue().set(key, "completed", TTL);
+    public Map<String, String> tryAcquireAll(Collection<String> transactionIds) {
+        List<String> ids = List.copyOf(transactionIds);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String id : ids) {
+                String key = IDEMPOTENCY_KEY_PREFIX + id;
+                stringConnection.set(key, "processing", Expiration.from(TTL), SetOption.ifAbsent());
+                stringConnection.get(key);
+            }
+            return null;
+        });
+
+        Map<String, String> alreadyClaimed = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (!Boolean.TRUE.equals(results.get(2 * i))) {
+                Object value = results.get(2 * i + 1);
+                alreadyClaimed.put(ids.get(i), value != null ? value.toString() : "processing");
+            }
+        }
+        return alreadyClaimed;
+    }
+
+    /**
+     * Marks the transaction as completed in Redis, storing the response for retries.
+     */
+    public void markCompleted(TransactionResponse response) {
+        String key = IDEMPOTENCY_KEY_PREFIX + response.transactionId();
+        redisTemplate.opsForValue().set(key, encodeCompleted(response), TTL);
+    }
+
+    /**
+     * Marks several transactions as completed in a single pipelined round-trip.
+     */
+    public void markCompletedAll(Collection<TransactionResponse> responses) {
+        if (responses.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (TransactionResponse response : responses) {
+                stringConnection.set(IDEMPOTENCY_KEY_PREFIX + response.transactionId(), encodeCompleted(response),
+                        Expiration.from(TTL), SetOption.upsert());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Returns the stored response of a completed transaction, if Redis has one.
+     */
+    public Optional<TransactionResponse> findCompleted(String transactionId) {
+        return decodeCompleted(transactionId, redisTemplate.opsForValue().get(IDEMPOTENCY_KEY_PREFIX + transactionId));
+    }
+
+    String encodeCompleted(TransactionResponse response) {
+        return COMPLETED_PREFIX + response.stickersEarned() + ":" + response.newTotalBalance() + ":" + response.shopperId();
+    }
+
+    /**
+     * Decodes a stored record into a duplicate response.
+     * Empty for in-flight ("processing") records and records written before responses were stored.
+     */
+    Optional<TransactionResponse> decodeCompleted(String transactionId, String value) {
+        if (value == null || !value.startsWith(COMPLETED_PREFIX)) {
+            return Optional.empty();
+        }
+        String[] parts = value.substring(COMPLETED_PREFIX.length()).split(":", 3);
+        if (parts.length != 3) {
+            return Optional.empty();
+        }
+        return Optional.of(TransactionResponse.duplicate(
+            transactionId, parts[2], Integer.parseInt(parts[0]), Integer.parseInt(parts[1])));
     }
 
     /**
@@ -43,6 +131,26 @@ public class IdempotencyService {
         redisTemplate.delete(key);
     }
 
+    /**
+     * Releases several locks with a single DEL.
+     */
+    public void releaseAll(Collection<String> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return;
+        }
+        redisTemplate.delete(transactionIds.stream()
+            .map(id -> IDEMPOTENCY_KEY_PREFIX + id)
+            .toList());
+    }
+
+    String keyFor(String transactionId) {
+        return IDEMPOTENCY_KEY_PREFIX + transactionId;
+    }
+
+    Duration ttl() {
+        return TTL;
+    }
+
     /**
      * Checks if a transaction is already being processed or completed.
      */
@@ -0,0 +1,282 @@
+package com.looplink.stickerengine.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.looplink.stickerengine.model.ShopperStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache for shopper status (first history page) and balances.
+ *
+ * Tier 1 is a size-bounded local Caffeine cache with a short TTL, tier 2 is Redis with a longer TTL.
+ * Commits invalidate both tiers rather than writing the new value, since concurrent commits for one
+ * shopper could otherwise land out of order. Invalidations are broadcast on {@value #INVALIDATION_CHANNEL}
+ * so other nodes drop their local copies; the local TTL bounds staleness if a message is missed.
+ * Redis errors degrade to a cache miss.
+ *
+ * Fills are conditional, so a reader that loaded a balance just before a commit cannot cache it after
+ * the commit's invalidation. Invalidation bumps a per-shopper generation in Redis, which the reader
+ * fetches together with the cache miss; the fill script only writes if the generation is unchanged.
+ * Locally, invalidation bumps a striped epoch, and a local fill that raced with one is undone.
+ */
+@Component
+public class ShopperCache implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ShopperCache.class);
+
+    private static final String STATUS_KEY_PREFIX = "cache:shopper:status:";
+    private static final String BALANCE_KEY_PREFIX = "cache:shopper:balance:";
+    private static final String INVALIDATION_CHANNEL = "cache:shopper:invalidate";
+    private static final String GENERATION_KEY_PREFIX = "cache:shopper:generation:";
+
+    /**
+     * Outlives any in-flight load by far; an expired generation also changes what a fill compares against.
+     */
+    private static final Duration GENERATION_TTL = Duration.ofHours(1);
+    private static final int EPOCH_STRIPES = 1024;
+
+    // KEYS[1] = cache key, KEYS[2] = generation key; ARGV[1] = value, ARGV[2] = generation read before
+    // the load ('' if none), ARGV[3] = TTL in ms
+    private static final String FILL_SCRIPT =
+        "if (redis.call('get', KEYS[2]) or '') ~= ARGV[2] then " +
+        "    return 0 " +
+        "end " +
+        "redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[3]) " +
+        "return 1";
+
+    // KEYS = (status key, balance key, generation key) per shopper; ARGV[1] = generation TTL in ms
+    private static final String INVALIDATE_SCRIPT =
+        "for i = 1, #KEYS, 3 do " +
+        "    redis.call('del', KEYS[i], KEYS[i + 1]) " +
+        "    redis.call('incr', KEYS[i + 2]) " +
+        "    redis.call('pexpire', KEYS[i + 2], ARGV[1]) " +
+        "end " +
+        "return 0";
+
+    private final boolean enabled;
+    private final Cache<String, ShopperStatus> localStatus;
+    private final Cache<String, Integer> localBalance;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration redisTtl;
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    private final DefaultRedisScript<Long> fillScript;
+    private final DefaultRedisScript<Long> invalidateScript;
+    private final AtomicLongArray localEpochs = new AtomicLongArray(EPOCH_STRIPES);
+
+    public ShopperCache(StringRedisTemplate redisTemplate,
+                        ObjectMapper objectMapper,
+                        RedisMessageListenerContainer listenerContainer,
+                        MeterRegistry meterRegistry,
+                        @Value("${sticker-engine.cache.enabled:true}") boolean enabled,
+                        @Value("${sticker-engine.cache.local.max-size:100000}") long localMaxSize,
+                        @Value("${sticker-engine.cache.local.ttl:5s}") Duration localTtl,
+                        @Value("${sticker-engine.cache.redis.ttl:60s}") Duration redisTtl) {
+        this.enabled = enabled;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.redisTtl = redisTtl;
+        this.localStatus = Caffeine.newBuilder()
+            .maximumSize(localMaxSize)
+            .expireAfterWrite(localTtl)
+            .recordStats()
+            .build();
+        this.localBalance = Caffeine.newBuilder()
+            .maximumSize(localMaxSize)
+            .expireAfterWrite(localTtl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localStatus, "shopper.status.local");
+        CaffeineCacheMetrics.monitor(meterRegistry, localBalance, "shopper.balance.local");
+        this.redisHits = Counter.builder("sticker.cache.redis").tag("result", "hit").register(meterRegistry);
+        this.redisMisses = Counter.builder("sticker.cache.redis").tag("result", "miss").register(meterRegistry);
+        this.fillScript = script(FILL_SCRIPT);
+        this.invalidateScript = script(INVALIDATE_SCRIPT);
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    private static DefaultRedisScript<Long> script(String text) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(text);
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * Returns the cached status or loads it; absent shoppers are not cached.
+     */
+    public Optional<ShopperStatus> getStatus(String shopperId, Supplier<Optional<ShopperStatus>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        ShopperStatus cached = localStatus.getIfPresent(shopperId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long epoch = localEpoch(shopperId);
+        String key = STATUS_KEY_PREFIX + shopperId;
+        Cached stored = redisGet(key, shopperId);
+        if (stored != null && stored.value() != null) {
+            try {
+                ShopperStatus status = objectMapper.readValue(stored.value(), ShopperStatus.class);
+                putLocal(localStatus, shopperId, status, epoch);
+                return Optional.of(status);
+            } catch (JsonProcessingException e) {
+                log.warn("Discarding unreadable cached status: shopperId={}", shopperId);
+            }
+        }
+        Optional<ShopperStatus> loaded = loader.get();
+        loaded.ifPresent(status -> {
+            putLocal(localStatus, shopperId, status, epoch);
+            try {
+                redisFill(key, shopperId, objectMapper.writeValueAsString(status), stored);
+            } catch (JsonProcessingException e) {
+                log.warn("Failed to serialize status for cache: shopperId={}", shopperId);
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Returns the cached balance or loads it; absent shoppers are not cached.
+     */
+    public Optional<Integer> getBalance(String shopperId, Supplier<Optional<Integer>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Integer cached = localBalance.getIfPresent(shopperId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long epoch = localEpoch(shopperId);
+        String key = BALANCE_KEY_PREFIX + shopperId;
+        Cached stored = redisGet(key, shopperId);
+        if (stored != null && stored.value() != null) {
+            int balance = Integer.parseInt(stored.value());
+            putLocal(localBalance, shopperId, balance, epoch);
+            return Optional.of(balance);
+        }
+        Optional<Integer> loaded = loader.get();
+        loaded.ifPresent(balance -> {
+            putLocal(localBalance, shopperId, balance, epoch);
+            redisFill(key, shopperId, Integer.toString(balance), stored);
+        });
+        return loaded;
+    }
+
+    /**
+     * Drops cached entries for the shoppers on every node. Call after the change is committed.
+     */
+    public void invalidate(Collection<String> shopperIds) {
+        if (!enabled || shopperIds.isEmpty()) {
+            return;
+        }
+        evictLocal(shopperIds);
+        List<String> keys = new ArrayList<>(shopperIds.size() * 3);
+        for (String shopperId : shopperIds) {
+            keys.add(STATUS_KEY_PREFIX + shopperId);
+            keys.add(BALANCE_KEY_PREFIX + shopperId);
+            keys.add(GENERATION_KEY_PREFIX + shopperId);
+        }
+        try {
+            redisTemplate.execute(invalidateScript, keys, Long.toString(GENERATION_TTL.toMillis()));
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, String.join("\n", shopperIds));
+        } catch (DataAccessException e) {
+            log.warn("Failed to invalidate shopper cache in Redis: shoppers={}, error={}", shopperIds.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        evictLocal(List.of(new String(message.getBody(), StandardCharsets.UTF_8).split("\n")));
+    }
+
+    private void evictLocal(Collection<String> shopperIds) {
+        // Epochs first, so a local fill that lands between the two steps sees the bump and undoes itself
+        for (String shopperId : shopperIds) {
+            localEpochs.incrementAndGet(stripe(shopperId));
+        }
+        localStatus.invalidateAll(shopperIds);
+        localBalance.invalidateAll(shopperIds);
+    }
+
+    private long localEpoch(String shopperId) {
+        return localEpochs.get(stripe(shopperId));
+    }
+
+    /**
+     * Puts the value, then removes it again if the shopper was invalidated on this node after epoch was read.
+     */
+    private <V> void putLocal(Cache<String, V> cache, String shopperId, V value, long epoch) {
+        cache.put(shopperId, value);
+        if (localEpoch(shopperId) != epoch) {
+            cache.invalidate(shopperId);
+        }
+    }
+
+    private static int stripe(String shopperId) {
+        return Math.floorMod(shopperId.hashCode(), EPOCH_STRIPES);
+    }
+
+    /**
+     * Reads the cached value together with the shopper's generation.
+     * @return null if Redis could not be read
+     */
+    private Cached redisGet(String key, String shopperId) {
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(List.of(key, GENERATION_KEY_PREFIX + shopperId));
+            String value = values != null ? values.get(0) : null;
+            (value != null ? redisHits : redisMisses).increment();
+            return new Cached(value, values != null && values.get(1) != null ? values.get(1) : "");
+        } catch (DataAccessException e) {
+            log.debug("Shopper cache read failed, falling back to DB: key={}, error={}", key, e.getMessage());
+            redisMisses.increment();
+            return null;
+        }
+    }
+
+    /**
+     * Caches a loaded value unless the shopper was invalidated since stored was read.
+     */
+    private void redisFill(String key, String shopperId, String value, Cached stored) {
+        if (stored == null) {
+            return;
+        }
+        try {
+            redisTemplate.execute(fillScript, List.of(key, GENERATION_KEY_PREFIX + shopperId),
+                value, stored.generation(), Long.toString(redisTtl.toMillis()));
+        } catch (DataAccessException e) {
+            log.debug("Shopper cache write failed: key={}, error={}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * A Redis read: the cached value, if any, and the shopper's generation at that moment ('' if none).
+     */
+    private record Cached(String value, String generation) {}
+}
@@ -0,0 +1,174 @@
+package com.looplink.stickerengine.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Serializes work per key (shopper ID) without locks.
+ *
+ * Each key is hashed onto one of a fixed number of shards. A shard owns a bounded mailbox and a
+ * single worker thread, so tasks for one key run one at a time in submission order, while keys on
+ * different shards run in parallel. When a mailbox is full, submitters wait up to the offer timeout
+ * and are then rejected with {@link MailboxFullException}. On shutdown new work is rejected and
+ * queued tasks are drained for up to the drain timeout; tasks still queued after that never ran, and
+ * fail with MailboxFullException too, so callers get a 503 they can retry against another node.
+ *
+ * Ordering is per node; with several nodes, correctness still relies on idempotency and the
+ * atomic balance upsert rather than on the mailbox.
+ */
+@Component
+@ConditionalOnProperty(name = "sticker-engine.execution.mode", havingValue = "mailbox")
+public class ShopperMailboxExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(ShopperMailboxExecutor.class);
+
+    private final Shard[] shards;
+    private final long offerTimeoutNanos;
+    private final Duration drainTimeout;
+    private volatile boolean closed;
+
+    public ShopperMailboxExecutor(
+            @Value("${sticker-engine.execution.mailbox.shards:0}") int shardCount,
+            @Value("${sticker-engine.execution.mailbox.capacity:1024}") int capacity,
+            @Value("${sticker-engine.execution.mailbox.offer-timeout:100ms}") Duration offerTimeout,
+            @Value("${sticker-engine.execution.mailbox.drain-timeout:30s}") Duration drainTimeout) {
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors() * 2;
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(i, capacity);
+        }
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.drainTimeout = drainTimeout;
+        log.info("Started shopper mailboxes: shards={}, capacity={}", count, capacity);
+    }
+
+    /**
+     * Runs the task on the key's shard and waits for its result.
+     * @throws MailboxFullException if the shard's mailbox stays full for the offer timeout, or on shutdown
+     */
+    public <T> T call(String key, Supplier<T> task) {
+        if (closed) {
+            throw new MailboxFullException("Mailboxes are shutting down");
+        }
+        MailboxTask<T> future = new MailboxTask<>(task);
+        Shard shard = shardFor(key);
+        try {
+            if (!shard.mailbox.offer(future, offerTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new MailboxFullException("Mailbox full for shard " + shard.index);
+            }
+            // close() may have drained this mailbox before the offer landed
+            if (closed && shard.mailbox.remove(future)) {
+                throw new MailboxFullException("Mailboxes are shutting down");
+            }
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailboxFullException("Interrupted while waiting for shard " + shard.index);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Number of tasks waiting across all mailboxes.
+     */
+    public int queuedTasks() {
+        int total = 0;
+        for (Shard shard : shards) {
+            total += shard.mailbox.size();
+        }
+        return total;
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        closed = true;
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        for (Shard shard : shards) {
+            shard.thread.join(Math.max(1L, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        }
+        List<Runnable> abandoned = new ArrayList<>();
+        for (Shard shard : shards) {
+            shard.thread.interrupt();
+            shard.mailbox.drainTo(abandoned);
+        }
+        abandoned.forEach(task -> ((MailboxTask<?>) task).abandon());
+        log.info("Stopped shopper mailboxes: abandoned={}", abandoned.size());
+    }
+
+    private Shard shardFor(String key) {
+        return shards[Math.floorMod(key.hashCode(), shards.length)];
+    }
+
+    /**
+     * A queued task that close() can fail without running it.
+     */
+    private static final class MailboxTask<T> extends FutureTask<T> {
+
+        MailboxTask(Supplier<T> task) {
+            super(task::get);
+        }
+
+        void abandon() {
+            setException(new MailboxFullException("Mailboxes shut down before the task ran"));
+        }
+    }
+
+    private final class Shard implements Runnable {
+        final int index;
+        final BlockingQueue<Runnable> mailbox;
+        final Thread thread;
+
+        Shard(int index, int capacity) {
+            this.index = index;
+            this.mailbox = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this, "shopper-mailbox-" + index);
+            this.thread.start();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Runnable task;
+                try {
+                    task = mailbox.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (task == null) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+                task.run();
+            }
+        }
+    }
+
+    public static class MailboxFullException extends RuntimeException {
+        public MailboxFullException(String message) {
+            super(message);
+        }
+    }
+}
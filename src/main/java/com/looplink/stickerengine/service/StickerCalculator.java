@@ -1,6 +1,8 @@
 package com.looplink.stickerengine.service;
 
 import com.looplink.stickerengine.model.TransactionRequest;
+import com.looplink.stickerengine.service.rule.BasketContext;
+import com.looplink.stickerengine.service.rule.RuleSetProvider;
 import com.looplink.stickerengine.service.rule.StickerRule;
 import org.springframework.stereotype.Component;
 
@@ -12,22 +14,42 @@ import java.util.List;
  * 
  * Rules are applied in order based on their priority (getOrder()).
  * New rules can be added by implementing StickerRule interface.
+ *
+ * The chain is sorted into an array once at startup and walked in order; there is no generated code.
+ * What is fused is the item scan: each calculation builds a single BasketContext (one pass over the
+ * items) that every rule reads from, instead of each rule re-streaming the items.
+ *
+ * Rule parameters come from the campaign rule snapshot in effect when the context is built; a snapshot
+ * swap never affects a calculation already in progress.
  */
 @Component
 public class StickerCalculator {
 
-    private final List<StickerRule> rules;
+    private final StickerRule[] chain;
+    private final RuleSetProvider ruleSetProvider;
 
-    public StickerCalculator(List<StickerRule> rules) {
-        this.rules = rules.stream()
+    public StickerCalculator(List<StickerRule> rules, RuleSetProvider ruleSetProvider) {
+        this.ruleSetProvider = ruleSetProvider;
+        this.chain = rules.stream()
             .sorted(Comparator.comparingInt(StickerRule::getOrder))
-            .toList();
+            .toArray(StickerRule[]::new);
     }
 
     public int calculate(TransactionRequest request) {
+        return calculate(newContext(request));
+    }
+
+    /**
+     * Builds the basket context against the current rule snapshot.
+     */
+    public BasketContext newContext(TransactionRequest request) {
+        return BasketContext.of(request, ruleSetProvider.current());
+    }
+
+    public int calculate(BasketContext context) {
         int stickers = 0;
-        for (StickerRule rule : rules) {
-            stickers = rule.apply(request, stickers);
+        for (StickerRule rule : chain) {
+            stickers = rule.apply(context, stickers);
         }
         return stickers;
     }
@@ -0,0 +1,178 @@
+package com.looplink.stickerengine.service;
+
+import com.looplink.stickerengine.model.TransactionResponse;
+import com.looplink.stickerengine.service.lock.LockBackend;
+import com.looplink.stickerengine.service.lock.RedisLockBackend;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Admits a transaction for processing: claims its idempotency key and, optionally, the shopper lock.
+ *
+ * With the Redis lock backend both are claimed by one script, and completion (or abort) updates
+ * the idempotency key and releases the lock with a second one, so the uncontended path costs two
+ * Redis round-trips instead of four. A retry of a completed transaction gets the stored response
+ * back from the claim script itself. Other backends fall back to the individual services.
+ * Both keys must live on the same Redis node (standalone or sentinel, not cluster).
+ */
+@Service
+public class TransactionGate {
+
+    // Distinct from any stored idempotency record ("processing" or an encoded response)
+    private static final String CLAIMED = "claimed";
+    private static final String LOCK_BUSY = "busy";
+
+    private static final String CLAIM_SCRIPT =
+        "local existing = redis.call('get', KEYS[1]) " +
+        "if existing then " +
+        "    return existing " +
+        "end " +
+        "redis.call('set', KEYS[1], 'processing', 'PX', ARGV[2]) " +
+        "if redis.call('set', KEYS[2], ARGV[1], 'NX', 'PX', ARGV[3]) then " +
+        "    return '" + CLAIMED + "' " +
+        "end " +
+        "return '" + LOCK_BUSY + "'";
+
+    private static final String RELEASE_LOCK_FRAGMENT =
+        "if redis.call('get', KEYS[2]) == ARGV[3] then " +
+        "    redis.call('del', KEYS[2]) " +
+        "    redis.call('publish', ARGV[4], ARGV[5]) " +
+        "    return 1 " +
+        "end " +
+        "return 0";
+
+    private static final String COMPLETE_SCRIPT =
+        "redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2]) " + RELEASE_LOCK_FRAGMENT;
+
+    private static final String ABORT_SCRIPT =
+        "redis.call('del', KEYS[1]) " + RELEASE_LOCK_FRAGMENT;
+
+    private final IdempotencyService idempotencyService;
+    private final DistributedLockService lockService;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisLockBackend redisBackend;
+    private final DefaultRedisScript<String> claimScript;
+    private final DefaultRedisScript<Long> completeScript;
+    private final DefaultRedisScript<Long> abortScript;
+
+    public TransactionGate(IdempotencyService idempotencyService,
+                           DistributedLockService lockService,
+                           StringRedisTemplate redisTemplate,
+                           LockBackend lockBackend) {
+        this.idempotencyService = idempotencyService;
+        this.lockService = lockService;
+        this.redisTemplate = redisTemplate;
+        this.redisBackend = lockBackend instanceof RedisLockBackend redis ? redis : null;
+        this.claimScript = script(CLAIM_SCRIPT, String.class);
+        this.completeScript = script(COMPLETE_SCRIPT, Long.class);
+        this.abortScript = script(ABORT_SCRIPT, Long.class);
+    }
+
+    private static <T> DefaultRedisScript<T> script(String text, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setScriptText(text);
+        script.setResultType(resultType);
+        return script;
+    }
+
+    /**
+     * Claims the transaction ID and, if lockKey is not null, the lock.
+     * If the lock is busy the transaction stays claimed while waiting for it.
+     * @return the admission; check {@link Admission#duplicate()} before processing
+     * @throws DistributedLockService.LockAcquisitionException if the lock cannot be acquired,
+     *         in which case the transaction ID claim has already been released
+     */
+    public Admission admit(String transactionId, String lockKey) {
+        if (redisBackend != null && lockKey != null) {
+            String token = UUID.randomUUID().toString();
+            String result = redisTemplate.execute(claimScript,
+                List.of(idempotencyService.keyFor(transactionId), redisBackend.keyFor(lockKey)),
+                token,
+                Long.toString(idempotencyService.ttl().toMillis()),
+                Long.toString(DistributedLockService.DEFAULT_LOCK_TTL.toMillis()));
+            if (CLAIMED.equals(result)) {
+                lockService.lockAcquired(token);
+                return Admission.admitted(transactionId, lockKey, token);
+            }
+            if (LOCK_BUSY.equals(result)) {
+                return Admission.admitted(transactionId, lockKey, awaitLock(transactionId, lockKey));
+            }
+            return Admission.duplicate(transactionId, idempotencyService.decodeCompleted(transactionId, result));
+        }
+
+        if (!idempotencyService.tryAcquire(transactionId)) {
+            return Admission.duplicate(transactionId, idempotencyService.findCompleted(transactionId));
+        }
+        String token = lockKey != null ? awaitLock(transactionId, lockKey) : null;
+        return Admission.admitted(transactionId, lockKey, token);
+    }
+
+    private String awaitLock(String transactionId, String lockKey) {
+        String token = lockService.acquire(lockKey);
+        if (token == null) {
+            idempotencyService.release(transactionId);
+            throw new DistributedLockService.LockAcquisitionException("Failed to acquire lock for: " + lockKey);
+        }
+        return token;
+    }
+
+    /**
+     * Marks the transaction completed, storing the response for retries, and releases the lock.
+     * Call after the DB commit.
+     */
+    public void complete(Admission admission, TransactionResponse response) {
+        if (redisBackend != null && admission.lockToken() != null) {
+            runAndRelease(completeScript, admission, idempotencyService.encodeCompleted(response));
+            return;
+        }
+        idempotencyService.markCompleted(response);
+        lockService.unlock(admission.lockKey(), admission.lockToken());
+    }
+
+    /**
+     * Releases the transaction ID claim and the lock after a failure, so the request can be retried.
+     */
+    public void abort(Admission admission) {
+        if (redisBackend != null && admission.lockToken() != null) {
+            runAndRelease(abortScript, admission, "");
+            return;
+        }
+        idempotencyService.release(admission.transactionId());
+        lockService.unlock(admission.lockKey(), admission.lockToken());
+    }
+
+    private void runAndRelease(DefaultRedisScript<Long> script, Admission admission, String value) {
+        Long released = redisTemplate.execute(script,
+            List.of(idempotencyService.keyFor(admission.transactionId()), redisBackend.keyFor(admission.lockKey())),
+            value,
+            Long.toString(idempotencyService.ttl().toMillis()),
+            admission.lockToken(),
+            redisBackend.releaseChannel(),
+            admission.lockKey());
+        lockService.lockReleased(admission.lockToken());
+        if (released != null && released > 0) {
+            redisBackend.onReleased(admission.lockKey());
+        }
+    }
+
+    /**
+     * Result of {@link #admit}. lockToken is null when no lock was requested or for duplicates.
+     * For duplicates, storedResponse holds the response recorded at completion when Redis has it.
+     */
+    public record Admission(String transactionId, String lockKey, String lockToken, boolean duplicate,
+                            Optional<TransactionResponse> storedResponse) {
+
+        static Admission admitted(String transactionId, String lockKey, String lockToken) {
+            return new Admission(transactionId, lockKey, lockToken, false, Optional.empty());
+        }
+
+        static Admission duplicate(String transactionId, Optional<TransactionResponse> storedResponse) {
+            return new Admission(transactionId, null, null, true, storedResponse);
+        }
+    }
+}
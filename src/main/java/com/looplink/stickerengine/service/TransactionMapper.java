@@ -0,0 +1,62 @@
+package com.looplink.stickerengine.service;
+
+import com.looplink.stickerengine.entity.TransactionEntity;
+import com.looplink.stickerengine.entity.TransactionItemEntity;
+import com.looplink.stickerengine.model.Item;
+import com.looplink.stickerengine.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Maps between the Transaction record and its JPA entities.
+ */
+final class TransactionMapper {
+
+    private TransactionMapper() {}
+
+    static TransactionEntity toEntity(Transaction tx) {
+        TransactionEntity entity = new TransactionEntity();
+        entity.setTransactionId(tx.transactionId());
+        entity.setShopperId(tx.shopperId());
+        entity.setStoreId(tx.storeId());
+        entity.setTimestamp(tx.timestamp());
+        entity.setTotalAmount(tx.totalAmount());
+        entity.setStickersEarned(tx.stickersEarned());
+        entity.setRuleVersion(tx.ruleVersion());
+
+        for (Item item : tx.items()) {
+            TransactionItemEntity itemEntity = new TransactionItemEntity();
+            itemEntity.setSku(item.sku());
+            itemEntity.setName(item.name());
+            itemEntity.setQuantity(item.quantity());
+            itemEntity.setUnitPrice(item.unitPrice());
+            itemEntity.setCategory(item.category());
+            entity.addItem(itemEntity);
+        }
+
+        return entity;
+    }
+
+    static Transaction toTransaction(TransactionEntity entity) {
+        List<Item> items = entity.getItems().stream()
+            .map(itemEntity -> new Item(
+                itemEntity.getSku(),
+                itemEntity.getName(),
+                itemEntity.getQuantity(),
+                itemEntity.getUnitPrice(),
+                itemEntity.getCategory()
+            ))
+            .toList();
+
+        return new Transaction(
+            entity.getTransactionId(),
+            entity.getShopperId(),
+            entity.getStoreId(),
+            entity.getTimestamp(),
+            items,
+            entity.getTotalAmount(),
+            entity.getStickersEarned(),
+            entity.getRuleVersion()
+        );
+    }
+}
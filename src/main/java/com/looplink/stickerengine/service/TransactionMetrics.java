@@ -0,0 +1,119 @@
+package com.looplink.stickerengine.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the transaction write path.
+ *
+ * sticker.transaction.stage times each stage of processTransaction, tagged by stage. Timers publish
+ * bucketed histograms for server-side percentiles (e.g. Prometheus histogram_quantile) rather than
+ * client-side percentiles, with the bucket range bounded so recording stays a few array writes.
+ * All meters are registered up front so the hot path never builds tags or looks meters up.
+ */
+@Component
+public class TransactionMetrics {
+
+    static final Duration MIN_EXPECTED_LATENCY = Duration.ofNanos(50_000);
+    static final Duration MAX_EXPECTED_LATENCY = Duration.ofSeconds(10);
+
+    public enum Stage {
+        /** Redis idempotency claim plus shopper lock, including any wait for the lock. */
+        ADMIT,
+        /** findByTransactionId check for a row written before the Redis claim expired. */
+        LOOKUP,
+        /** Basket aggregation and rule chain. */
+        CALCULATE,
+        /** Balance upsert and transaction insert, or the write-ahead log append in write-behind mode. */
+        WRITE,
+        /** JPA flush (transaction items) and DB commit. Not recorded in write-behind mode. */
+        COMMIT,
+        /** Storing the response in Redis, releasing the lock and invalidating the cache. */
+        COMPLETE
+    }
+
+    public enum DetectedBy {
+        REDIS,
+        DATABASE,
+        WRITE_BEHIND_LOG
+    }
+
+    private final Timer[] stageTimers;
+    private final Counter[] duplicateCounters;
+    private final Counter singleLockFailures;
+    private final Counter batchLockFailures;
+
+    public TransactionMetrics(MeterRegistry meterRegistry) {
+        this.stageTimers = new Timer[Stage.values().length];
+        for (Stage stage : Stage.values()) {
+            stageTimers[stage.ordinal()] = latencyTimer("sticker.transaction.stage")
+                .description("Time spent in one stage of processing a transaction")
+                .tag("stage", tagValue(stage))
+                .register(meterRegistry);
+        }
+        this.duplicateCounters = new Counter[DetectedBy.values().length];
+        for (DetectedBy detectedBy : DetectedBy.values()) {
+            duplicateCounters[detectedBy.ordinal()] = Counter.builder("sticker.transaction.duplicates")
+                .description("Duplicate transaction submissions")
+                .tag("detected_by", tagValue(detectedBy))
+                .register(meterRegistry);
+        }
+        this.singleLockFailures = lockFailureCounter(meterRegistry, "single");
+        this.batchLockFailures = lockFailureCounter(meterRegistry, "batch");
+    }
+
+    /**
+     * Histogram-backed timer with the bucket range used for all engine latencies.
+     */
+    static Timer.Builder latencyTimer(String name) {
+        return Timer.builder(name)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(MIN_EXPECTED_LATENCY)
+            .maximumExpectedValue(MAX_EXPECTED_LATENCY);
+    }
+
+    private static Counter lockFailureCounter(MeterRegistry meterRegistry, String path) {
+        return Counter.builder("sticker.lock.failures")
+            .description("Requests rejected because the shopper lock could not be acquired")
+            .tag("path", path)
+            .register(meterRegistry);
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Records the time since startNanos against the stage.
+     * @return the current System.nanoTime(), to use as the start of the next stage
+     */
+    public long record(Stage stage, long startNanos) {
+        long now = System.nanoTime();
+        stageTimers[stage.ordinal()].record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    public void duplicate(DetectedBy detectedBy) {
+        duplicateCounters[detectedBy.ordinal()].increment();
+    }
+
+    public void duplicates(DetectedBy detectedBy, int count) {
+        if (count > 0) {
+            duplicateCounters[detectedBy.ordinal()].increment(count);
+        }
+    }
+
+    public void lockFailure() {
+        singleLockFailures.increment();
+    }
+
+    public void batchLockFailure() {
+        batchLockFailures.increment();
+    }
+}
@@ -1,18 +1,41 @@
 package com.looplink.stickerengine.service;
 
-import com.looplink.stickerengine.entity.ShopperEntity;
 import com.looplink.stickerengine.entity.TransactionEntity;
-import com.looplink.stickerengine.entity.TransactionItemEntity;
 import com.looplink.stickerengine.model.*;
+import com.looplink.stickerengine.repository.ShopperHistoryRepository;
 import com.looplink.stickerengine.repository.ShopperRepository;
+import com.looplink.stickerengine.repository.TransactionBatchRepository;
+import com.looplink.stickerengine.repository.TransactionKeyRepository;
+import com.looplink.stickerengine.repository.TransactionKeyRepository.TransactionKey;
 import com.looplink.stickerengine.repository.TransactionRepository;
+import com.looplink.stickerengine.repository.TransactionSummaryRow;
+import com.looplink.stickerengine.service.archive.TransactionArchive;
+import com.looplink.stickerengine.service.leaderboard.Leaderboards;
+import com.looplink.stickerengine.service.rollup.StoreRollups;
+import com.looplink.stickerengine.service.rule.BasketContext;
+import com.looplink.stickerengine.service.stream.BalanceStreamHub;
+import com.looplink.stickerengine.service.wal.WriteBehindIngestion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 
 /**
  * Core service for processing transactions and managing shopper stickers.
@@ -22,157 +45,532 @@ public class TransactionService {
 
     private static final Logger log = LoggerFactory.getLogger(TransactionService.class);
     private static final String SHOPPER_LOCK_PREFIX = "shopper:";
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
 
     private final TransactionRepository transactionRepository;
+    private final TransactionBatchRepository batchRepository;
+    private final TransactionKeyRepository keyRepository;
+    private final ShopperHistoryRepository historyRepository;
     private final ShopperRepository shopperRepository;
     private final StickerCalculator stickerCalculator;
     private final IdempotencyService idempotencyService;
     private final DistributedLockService lockService;
+    private final TransactionGate transactionGate;
+    private final ShopperCache shopperCache;
+    private final TransactionArchive archive;
+    private final BalanceStreamHub balanceStreamHub;
+    private final StoreRollups rollups;
+    private final Leaderboards leaderboards;
+    private final TransactionMetrics metrics;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ShopperMailboxExecutor mailboxExecutor;
+    private final WriteBehindIngestion writeBehind;
+    private final boolean shopperLockEnabled;
 
     public TransactionService(
             TransactionRepository transactionRepository,
+            TransactionBatchRepository batchRepository,
+            TransactionKeyRepository keyRepository,
+            ShopperHistoryRepository historyRepository,
             ShopperRepository shopperRepository,
             StickerCalculator stickerCalculator,
             IdempotencyService idempotencyService,
-            DistributedLockService lockService) {
+            DistributedLockService lockService,
+            TransactionGate transactionGate,
+            ShopperCache shopperCache,
+            TransactionArchive archive,
+            BalanceStreamHub balanceStreamHub,
+            StoreRollups rollups,
+            Leaderboards leaderboards,
+            TransactionMetrics metrics,
+            PlatformTransactionManager transactionManager,
+            Optional<ShopperMailboxExecutor> mailboxExecutor,
+            Optional<WriteBehindIngestion> writeBehind,
+            @Value("${sticker-engine.lock.shopper-lock-enabled:true}") boolean shopperLockEnabled) {
         this.transactionRepository = transactionRepository;
+        this.batchRepository = batchRepository;
+        this.keyRepository = keyRepository;
+        this.historyRepository = historyRepository;
         this.shopperRepository = shopperRepository;
         this.stickerCalculator = stickerCalculator;
         this.idempotencyService = idempotencyService;
         this.lockService = lockService;
+        this.transactionGate = transactionGate;
+        this.shopperCache = shopperCache;
+        this.archive = archive;
+        this.balanceStreamHub = balanceStreamHub;
+        this.rollups = rollups;
+        this.leaderboards = leaderboards;
+        this.metrics = metrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.mailboxExecutor = mailboxExecutor.orElse(null);
+        this.writeBehind = writeBehind.orElse(null);
+        this.shopperLockEnabled = shopperLockEnabled;
     }
 
     /**
      * Processes a transaction request.
-     * Uses Redis for idempotency check and distributed locking to prevent race conditions.
+     * The transaction ID (and, if enabled, the shopper lock) is claimed in Redis before the DB
+     * transaction starts and released after it commits, so a retry never sees a completed
+     * marker for uncommitted data. The balance is maintained with an atomic upsert, so the
+     * per-shopper distributed lock is optional (sticker-engine.lock.shopper-lock-enabled).
+     *
+     * In mailbox execution mode the request runs on its shopper's mailbox thread instead, which
+     * already serializes work per shopper, so no lock is taken.
+     *
+     * In write-behind ingestion mode the transaction is acknowledged once it is durable in the local
+     * write-ahead log, and reaches the DB with a later background flush.
+     *
+     * Each stage is timed in sticker.transaction.stage (see {@link TransactionMetrics.Stage}).
+     * New balances are published to open balance streams after the commit (or log append).
      */
-    @Transactional
     public TransactionResponse processTransaction(TransactionRequest request) {
+        if (mailboxExecutor != null) {
+            return mailboxExecutor.call(request.shopperId(), () -> processAdmitted(request, null));
+        }
+        return processAdmitted(request, shopperLockEnabled ? SHOPPER_LOCK_PREFIX + request.shopperId() : null);
+    }
+
+    private TransactionResponse processAdmitted(TransactionRequest request, String lockKey) {
         String txId = request.transactionId();
         String shopperId = request.shopperId();
 
-        if (!idempotencyService.tryAcquire(txId)) {
-            log.info("Duplicate transaction detected: txId={}", txId);
-            return handleDuplicateTransaction(txId);
-        }
-
-        String lockToken = lockService.tryLock(SHOPPER_LOCK_PREFIX + shopperId);
-        if (lockToken == null) {
+        long mark = System.nanoTime();
+        TransactionGate.Admission admission;
+        try {
+            admission = transactionGate.admit(txId, lockKey);
+        } catch (DistributedLockService.LockAcquisitionException e) {
+            metrics.lockFailure();
             log.warn("Failed to acquire lock for shopperId={}, txId={}", shopperId, txId);
-            idempotencyService.release(txId);
-            throw new DistributedLockService.LockAcquisitionException(
-                "Failed to acquire lock for shopper: " + shopperId);
+            throw e;
+        }
+        metrics.record(TransactionMetrics.Stage.ADMIT, mark);
+        if (admission.duplicate()) {
+            metrics.duplicate(TransactionMetrics.DetectedBy.REDIS);
+            log.info("Duplicate transaction detected: txId={}, cached={}", txId, admission.storedResponse().isPresent());
+            return admission.storedResponse()
+                .or(() -> writeBehind != null ? writeBehind.findPending(txId) : Optional.empty())
+                .orElseGet(() -> readOnlyTransactionTemplate.execute(status -> handleDuplicateTransaction(txId)));
         }
-        log.debug("Acquired lock for shopperId={}", shopperId);
+        log.debug("Admitted txId={}, shopperId={}", txId, shopperId);
 
+        TransactionResponse response;
         try {
-            Optional<TransactionEntity> existing = transactionRepository.findByTransactionId(txId);
-            if (existing.isPresent()) {
-                log.info("Transaction already exists in DB: txId={}", txId);
-                idempotencyService.markCompleted(txId);
-                return handleDuplicateTransaction(txId);
-            }
+            response = writeBehind != null ? logTransaction(request) : commitTransaction(request);
+        } catch (Exception e) {
+            log.error("Transaction failed: txId={}, shopperId={}, error={}", txId, shopperId, e.getMessage());
+            transactionGate.abort(admission);
+            throw e;
+        }
+        mark = System.nanoTime();
+        transactionGate.complete(admission, response);
+        shopperCache.invalidate(List.of(shopperId));
+        if (!response.duplicate()) {
+            balanceStreamHub.publish(List.of(BalanceUpdate.of(response)));
+        }
+        metrics.record(TransactionMetrics.Stage.COMPLETE, mark);
+        log.debug("Completed txId={} and released lock for shopperId={}", txId, shopperId);
+        return response;
+    }
 
-            int stickersEarned = stickerCalculator.calculate(request);
-            log.debug("Calculated stickers: txId={}, stickersEarned={}", txId, stickersEarned);
-            Transaction transaction = Transaction.from(request, stickersEarned);
+    private TransactionResponse commitTransaction(TransactionRequest request) {
+        long[] callbackEnd = new long[1];
+        TransactionResponse response = transactionTemplate.execute(status -> {
+            TransactionResponse persisted = persistTransaction(request);
+            callbackEnd[0] = System.nanoTime();
+            return persisted;
+        });
+        metrics.record(TransactionMetrics.Stage.COMMIT, callbackEnd[0]);
+        return response;
+    }
 
-            ShopperEntity shopper = shopperRepository.findByShopperId(shopperId)
-                .orElseGet(() -> {
-                    ShopperEntity newShopper = new ShopperEntity(shopperId);
-                    return shopperRepository.save(newShopper);
-                });
+    /**
+     * Write-behind variant of persistTransaction: the DB is only read, the write goes to the log.
+     */
+    private TransactionResponse logTransaction(TransactionRequest request) {
+        String txId = request.transactionId();
 
-            TransactionEntity txEntity = toEntity(transaction);
-            transactionRepository.save(txEntity);
+        long mark = System.nanoTime();
+        boolean stored = keyRepository.exists(txId);
+        mark = metrics.record(TransactionMetrics.Stage.LOOKUP, mark);
+        if (stored) {
+            metrics.duplicate(TransactionMetrics.DetectedBy.DATABASE);
+            log.info("Transaction already exists in DB: txId={}", txId);
+            return readOnlyTransactionTemplate.execute(status -> handleDuplicateTransaction(txId));
+        }
+        checkNotArchived(request);
 
-            shopper.setTotalStickers(shopper.getTotalStickers() + stickersEarned);
-            shopperRepository.save(shopper);
+        BasketContext basket = stickerCalculator.newContext(request);
+        int stickersEarned = stickerCalculator.calculate(basket);
+        mark = metrics.record(TransactionMetrics.Stage.CALCULATE, mark);
+        Transaction transaction = Transaction.from(request, stickersEarned, basket.totalAmount(),
+                basket.rules().version());
 
-            idempotencyService.markCompleted(txId);
-            log.info("Transaction completed: txId={}, shopperId={}, stickersEarned={}, newBalance={}",
-                    txId, shopperId, stickersEarned, shopper.getTotalStickers());
-            return TransactionResponse.success(transaction, shopper.getTotalStickers());
-        } catch (Exception e) {
-            log.error("Transaction failed: txId={}, shopperId={}, error={}", txId, shopperId, e.getMessage());
-            idempotencyService.release(txId);
-            throw e;
-        } finally {
-            lockService.unlock(SHOPPER_LOCK_PREFIX + shopperId, lockToken);
-            log.debug("Released lock for shopperId={}", shopperId);
+        TransactionResponse response = writeBehind.append(transaction);
+        metrics.record(TransactionMetrics.Stage.WRITE, mark);
+        if (response.duplicate()) {
+            metrics.duplicate(TransactionMetrics.DetectedBy.WRITE_BEHIND_LOG);
+        } else {
+            rollups.record(transaction, basket.promoQuantity());
+            leaderboards.record(List.of(transaction));
         }
+        log.info("Transaction logged: txId={}, shopperId={}, stickersEarned={}, newBalance={}",
+                txId, request.shopperId(), response.stickersEarned(), response.newTotalBalance());
+        return response;
+    }
+
+    private TransactionResponse persistTransaction(TransactionRequest request) {
+        String txId = request.transactionId();
+        String shopperId = request.shopperId();
+
+        long mark = System.nanoTime();
+        boolean stored = keyRepository.exists(txId);
+        mark = metrics.record(TransactionMetrics.Stage.LOOKUP, mark);
+        if (stored) {
+            metrics.duplicate(TransactionMetrics.DetectedBy.DATABASE);
+            log.info("Transaction already exists in DB: txId={}", txId);
+            return handleDuplicateTransaction(txId);
+        }
+        checkNotArchived(request);
+
+        BasketContext basket = stickerCalculator.newContext(request);
+        int stickersEarned = stickerCalculator.calculate(basket);
+        mark = metrics.record(TransactionMetrics.Stage.CALCULATE, mark);
+        log.debug("Calculated stickers: txId={}, stickersEarned={}, ruleVersion={}",
+                txId, stickersEarned, basket.rules().version());
+        Transaction transaction = Transaction.from(request, stickersEarned, basket.totalAmount(),
+                basket.rules().version());
+
+        // Balance first: the upsert creates the shopper row the transaction references
+        int newBalance = shopperRepository.addStickers(shopperId, stickersEarned);
+
+        keyRepository.insertAll(List.of(transaction));
+        TransactionEntity txEntity = TransactionMapper.toEntity(transaction);
+        transactionRepository.save(txEntity);
+        metrics.record(TransactionMetrics.Stage.WRITE, mark);
+        rollups.record(transaction, basket.promoQuantity());
+        leaderboards.record(List.of(transaction));
+
+        log.info("Transaction completed: txId={}, shopperId={}, stickersEarned={}, newBalance={}",
+                txId, shopperId, stickersEarned, newBalance);
+        return TransactionResponse.success(transaction, newBalance);
+    }
+
+    /**
+     * Rejects a new transaction dated before the archive horizon. Its month is already in an archive
+     * file, so the row would be missing from history and dropped with the partition, leaving its
+     * transaction key behind.
+     */
+    private void checkNotArchived(TransactionRequest request) {
+        if (isArchivedPeriod(request)) {
+            throw new ArchivedPeriodException("Transaction " + request.transactionId() + " is dated "
+                + request.timestamp() + ", before the archive horizon " + archive.horizon());
+        }
+    }
+
+    private boolean isArchivedPeriod(TransactionRequest request) {
+        Instant horizon = archive.horizon();
+        return horizon != null && request.timestamp().isBefore(horizon);
     }
 
     private TransactionResponse handleDuplicateTransaction(String txId) {
         Optional<TransactionEntity> existing = transactionRepository.findByTransactionId(txId);
         if (existing.isPresent()) {
             TransactionEntity txEntity = existing.get();
-            Transaction tx = toTransaction(txEntity);
-            int currentBalance = shopperRepository.findByShopperId(tx.shopperId())
-                .map(ShopperEntity::getTotalStickers)
+            Transaction tx = TransactionMapper.toTransaction(txEntity);
+            int currentBalance = shopperCache.getBalance(tx.shopperId(),
+                    () -> shopperRepository.findBalance(tx.shopperId()))
                 .orElse(0);
             return TransactionResponse.duplicate(tx, currentBalance);
         }
+        // Its partition may have been archived and dropped since; the key row is kept
+        Optional<TransactionKey> key = keyRepository.findById(txId);
+        Optional<TransactionSummaryRow> archived = key.flatMap(archive::findTransaction);
+        if (archived.isPresent()) {
+            String shopperId = key.get().shopperId();
+            int currentBalance = shopperCache.getBalance(shopperId, () -> shopperRepository.findBalance(shopperId))
+                .orElse(0);
+            return TransactionResponse.duplicate(txId, shopperId, archived.get().stickersEarned(), currentBalance);
+        }
         throw new IllegalStateException("Transaction marked as duplicate but not found in DB: " + txId);
     }
 
     /**
-     * Gets a shopper's sticker status including balance and transaction history.
+     * Processes a batch of transaction requests.
+     * Requests are grouped by shopper so each shopper is locked once, transactions and items are
+     * inserted in bulk, and each shopper's balance is updated with a single statement. Busy shopper
+     * locks are waited for like on the single-transaction path, within one lock.max-wait for the whole
+     * batch; a shopper whose lock is still held after that is reported as FAILED.
+     * Results are returned in request order; repeated IDs within the batch are reported as duplicates.
+     * New transactions dated before the archive horizon are reported as FAILED.
+     * As for single transactions, IDs are marked completed and locks released only after commit.
+     */
+    public BatchTransactionResponse processBatch(List<TransactionRequest> requests) {
+        Map<String, TransactionRequest> uniqueRequests = new LinkedHashMap<>();
+        for (TransactionRequest request : requests) {
+            uniqueRequests.putIfAbsent(request.transactionId(), request);
+        }
+
+        Map<String, String> alreadyClaimed = idempotencyService.tryAcquireAll(uniqueRequests.keySet());
+        metrics.duplicates(TransactionMetrics.DetectedBy.REDIS, alreadyClaimed.size());
+        Map<String, TransactionResponse> responses = new HashMap<>();
+        Map<String, String> failures = new HashMap<>();
+        List<String> duplicateIds = new ArrayList<>();
+
+        Map<String, List<TransactionRequest>> byShopper = new LinkedHashMap<>();
+        for (TransactionRequest request : uniqueRequests.values()) {
+            String txId = request.transactionId();
+            if (!alreadyClaimed.containsKey(txId)) {
+                byShopper.computeIfAbsent(request.shopperId(), id -> new ArrayList<>()).add(request);
+                continue;
+            }
+            Optional<TransactionResponse> stored = idempotencyService.decodeCompleted(txId, alreadyClaimed.get(txId));
+            if (stored.isPresent()) {
+                responses.put(txId, stored.get());
+            } else {
+                duplicateIds.add(txId);
+            }
+        }
+
+        Map<String, String> lockTokens = new LinkedHashMap<>();
+        List<String> pendingIds = new ArrayList<>();
+        List<String> existingInDb = new ArrayList<>();
+        List<String> archivedIds = new ArrayList<>();
+        try {
+            List<TransactionRequest> lockedRequests = new ArrayList<>();
+            List<String> unlockedIds = new ArrayList<>();
+            if (shopperLockEnabled) {
+                // One max-wait budget for the whole batch, shared by every lock it waits on. Locks are
+                // taken in shopper order, so two batches sharing shoppers cannot wait on each other.
+                long deadline = System.nanoTime() + lockService.maxWait().toNanos();
+                for (String shopperId : new TreeSet<>(byShopper.keySet())) {
+                    Duration wait = Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+                    String lockToken = lockService.acquire(SHOPPER_LOCK_PREFIX + shopperId, wait);
+                    if (lockToken == null) {
+                        metrics.batchLockFailure();
+                        log.warn("Failed to acquire lock for shopperId={} in batch", shopperId);
+                        for (TransactionRequest request : byShopper.get(shopperId)) {
+                            failures.put(request.transactionId(), "Failed to acquire lock for shopper: " + shopperId);
+                            unlockedIds.add(request.transactionId());
+                        }
+                        continue;
+                    }
+                    lockTokens.put(shopperId, lockToken);
+                }
+            }
+            for (Map.Entry<String, List<TransactionRequest>> entry : byShopper.entrySet()) {
+                if (!shopperLockEnabled || lockTokens.containsKey(entry.getKey())) {
+                    lockedRequests.addAll(entry.getValue());
+                }
+            }
+            idempotencyService.releaseAll(unlockedIds);
+            lockedRequests.forEach(request -> pendingIds.add(request.transactionId()));
+
+            int persisted = transactionTemplate.execute(status ->
+                persistBatch(lockedRequests, existingInDb, archivedIds, responses));
+            // Rows already in the DB are resolved, and marked completed, after the duplicate lookup below
+            duplicateIds.addAll(existingInDb);
+            pendingIds.removeAll(existingInDb);
+            pendingIds.removeAll(archivedIds);
+            idempotencyService.releaseAll(archivedIds);
+            archivedIds.forEach(txId -> failures.put(txId, "Transaction is dated before the archive horizon"));
+            metrics.duplicates(TransactionMetrics.DetectedBy.DATABASE, existingInDb.size());
+
+            List<TransactionResponse> committed = pendingIds.stream().map(responses::get).toList();
+            idempotencyService.markCompletedAll(committed);
+            pendingIds.clear();
+            shopperCache.invalidate(byShopper.keySet());
+            balanceStreamHub.publish(committed.stream().map(BalanceUpdate::of).toList());
+            log.info("Batch completed: size={}, processed={}, shoppers={}",
+                    requests.size(), persisted, byShopper.size());
+        } catch (Exception e) {
+            log.error("Batch failed: size={}, error={}", requests.size(), e.getMessage());
+            idempotencyService.releaseAll(pendingIds);
+            throw e;
+        } finally {
+            lockTokens.forEach((shopperId, token) -> lockService.unlock(SHOPPER_LOCK_PREFIX + shopperId, token));
+        }
+
+        readOnlyTransactionTemplate.executeWithoutResult(status -> resolveDuplicates(duplicateIds, responses, failures));
+        idempotencyService.markCompletedAll(existingInDb.stream()
+            .map(responses::get)
+            .filter(Objects::nonNull)
+            .toList());
+
+        Map<String, BatchTransactionResponse.Result> firstResults = new HashMap<>();
+        List<BatchTransactionResponse.Result> results = new ArrayList<>(requests.size());
+        for (TransactionRequest request : requests) {
+            String txId = request.transactionId();
+            BatchTransactionResponse.Result first = firstResults.get(txId);
+            BatchTransactionResponse.Result result;
+            if (first != null) {
+                result = first.status() == BatchTransactionResponse.Status.FAILED
+                    ? first
+                    : BatchTransactionResponse.Result.from(TransactionResponse.duplicate(
+                        txId, first.shopperId(), first.stickersEarned(), first.newTotalBalance()));
+            } else if (responses.containsKey(txId)) {
+                result = BatchTransactionResponse.Result.from(responses.get(txId));
+            } else {
+                result = BatchTransactionResponse.Result.failed(request, failures.get(txId));
+            }
+            firstResults.putIfAbsent(txId, result);
+            results.add(result);
+        }
+        return BatchTransactionResponse.of(results);
+    }
+
+    private int persistBatch(List<TransactionRequest> requests, List<String> existingIds, List<String> archivedIds,
+                             Map<String, TransactionResponse> responses) {
+        Set<String> existing = batchRepository.findExistingTransactionIds(
+            requests.stream().map(TransactionRequest::transactionId).toList());
+        List<Transaction> transactions = new ArrayList<>();
+        Map<String, Integer> deltaByShopper = new LinkedHashMap<>();
+        for (TransactionRequest request : requests) {
+            if (existing.contains(request.transactionId())) {
+                log.info("Transaction already exists in DB: txId={}", request.transactionId());
+                existingIds.add(request.transactionId());
+                continue;
+            }
+            if (isArchivedPeriod(request)) {
+                log.info("Transaction dated before the archive horizon: txId={}, timestamp={}",
+                    request.transactionId(), request.timestamp());
+                archivedIds.add(request.transactionId());
+                continue;
+            }
+            BasketContext basket = stickerCalculator.newContext(request);
+            int stickersEarned = stickerCalculator.calculate(basket);
+            Transaction transaction = Transaction.from(request, stickersEarned, basket.totalAmount(),
+                basket.rules().version());
+            transactions.add(transaction);
+            rollups.record(transaction, basket.promoQuantity());
+            deltaByShopper.merge(request.shopperId(), stickersEarned, Integer::sum);
+        }
+
+        batchRepository.incrementBalances(deltaByShopper);
+        batchRepository.insertTransactions(transactions);
+        leaderboards.record(transactions);
+        Map<String, Integer> balances = batchRepository.findBalances(deltaByShopper.keySet());
+
+        Map<String, Integer> runningBalances = new HashMap<>();
+        deltaByShopper.forEach((shopperId, delta) ->
+            runningBalances.put(shopperId, balances.getOrDefault(shopperId, 0) - delta));
+        for (Transaction tx : transactions) {
+            int balance = runningBalances.merge(tx.shopperId(), tx.stickersEarned(), Integer::sum);
+            responses.put(tx.transactionId(), TransactionResponse.success(tx, balance));
+        }
+        return transactions.size();
+    }
+
+    private void resolveDuplicates(List<String> txIds, Map<String, TransactionResponse> responses,
+                                   Map<String, String> failures) {
+        if (txIds.isEmpty()) {
+            return;
+        }
+        Map<String, TransactionResponse> found = new HashMap<>();
+        for (TransactionEntity entity : transactionRepository.findByTransactionIdIn(txIds)) {
+            found.put(entity.getTransactionId(), TransactionResponse.duplicate(
+                entity.getTransactionId(), entity.getShopperId(), entity.getStickersEarned(), 0));
+        }
+        List<String> missing = txIds.stream().filter(txId -> !found.containsKey(txId)).toList();
+        for (TransactionKey key : keyRepository.findAllById(missing)) {
+            archive.findTransaction(key).ifPresent(row -> found.put(key.transactionId(), TransactionResponse.duplicate(
+                key.transactionId(), key.shopperId(), row.stickersEarned(), 0)));
+        }
+        Map<String, Integer> balances = batchRepository.findBalances(
+            found.values().stream().map(TransactionResponse::shopperId).distinct().toList());
+        found.forEach((txId, response) -> responses.put(txId, TransactionResponse.duplicate(
+            txId, response.shopperId(), response.stickersEarned(), balances.getOrDefault(response.shopperId(), 0))));
+        for (String txId : txIds) {
+            if (!responses.containsKey(txId)) {
+                failures.put(txId, "Transaction is already being processed: " + txId);
+            }
+        }
+    }
+
+    /**
+     * Gets a shopper's sticker status including balance and one page of transaction history.
+     * Reads summary columns only, in two queries regardless of page size; items are never loaded.
+     * Rows before the archive horizon come from {@link TransactionArchive}, later ones from the DB.
+     * @param cursor nextCursor from the previous page, or null for the first page
+     * @param limit page size, clamped to [1, MAX_PAGE_SIZE]
+     *
+     * The default first page, which is what the app requests on open, is served from ShopperCache.
      */
-    @Transactional(readOnly = true)
-    public Optional<ShopperStatus> getShopperStatus(String shopperId) {
-        return shopperRepository.findByShopperId(shopperId)
-            .map(shopper -> {
-                List<TransactionEntity> txEntities = transactionRepository.findByShopperId(shopperId);
-                List<ShopperStatus.TransactionSummary> summaries = txEntities.stream()
-                    .map(this::toTransaction)
-                    .map(ShopperStatus.TransactionSummary::from)
+    public Optional<ShopperStatus> getShopperStatus(String shopperId, String cursor, int limit) {
+        if (cursor == null && limit == DEFAULT_PAGE_SIZE) {
+            return shopperCache.getStatus(shopperId, () -> readOnlyTransactionTemplate.execute(
+                status -> loadShopperStatus(shopperId, null, DEFAULT_PAGE_SIZE)));
+        }
+        return readOnlyTransactionTemplate.execute(status -> loadShopperStatus(shopperId, cursor, limit));
+    }
+
+    private Optional<ShopperStatus> loadShopperStatus(String shopperId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        HistoryCursor after = cursor != null ? HistoryCursor.decode(cursor) : null;
+        return shopperRepository.findBalance(shopperId)
+            .map(balance -> {
+                // One extra row tells us whether there is a next page
+                List<TransactionSummaryRow> rows = new ArrayList<>(pageSize + 1);
+                HistoryCursor dbAfter = after;
+                Instant horizon = archive.horizon();
+                if (horizon != null && (after == null || after.timestamp().isBefore(horizon))) {
+                    rows.addAll(archive.findHistoryPage(shopperId, after, pageSize + 1));
+                    // id -1 includes rows stamped exactly at the horizon
+                    dbAfter = new HistoryCursor(horizon, -1);
+                }
+                if (rows.size() <= pageSize) {
+                    Pageable pageable = PageRequest.of(0, pageSize + 1 - rows.size());
+                    rows.addAll(dbAfter == null
+                        ? transactionRepository.findHistoryPage(shopperId, pageable)
+                        : transactionRepository.findHistoryPageAfter(shopperId, dbAfter.timestamp(), dbAfter.id(),
+                            pageable));
+                }
+
+                String nextCursor = null;
+                if (rows.size() > pageSize) {
+                    rows = rows.subList(0, pageSize);
+                    TransactionSummaryRow last = rows.get(pageSize - 1);
+                    nextCursor = new HistoryCursor(last.timestamp(), last.id()).encode();
+                }
+                List<ShopperStatus.TransactionSummary> summaries = rows.stream()
+                    .map(TransactionSummaryRow::toSummary)
                     .toList();
-                return new ShopperStatus(shopperId, shopper.getTotalStickers(), summaries);
+                return new ShopperStatus(shopperId, balance, summaries, nextCursor);
             });
     }
 
-    private TransactionEntity toEntity(Transaction tx) {
-        TransactionEntity entity = new TransactionEntity();
-        entity.setTransactionId(tx.transactionId());
-        entity.setShopperId(tx.shopperId());
-        entity.setStoreId(tx.storeId());
-        entity.setTimestamp(tx.timestamp());
-        entity.setTotalAmount(tx.totalAmount());
-        entity.setStickersEarned(tx.stickersEarned());
-
-        for (Item item : tx.items()) {
-            TransactionItemEntity itemEntity = new TransactionItemEntity();
-            itemEntity.setSku(item.sku());
-            itemEntity.setName(item.name());
-            itemEntity.setQuantity(item.quantity());
-            itemEntity.setUnitPrice(item.unitPrice());
-            itemEntity.setCategory(item.category());
-            entity.addItem(itemEntity);
-        }
-
-        return entity;
-    }
-
-    private Transaction toTransaction(TransactionEntity entity) {
-        List<Item> items = entity.getItems().stream()
-            .map(itemEntity -> new Item(
-                itemEntity.getSku(),
-                itemEntity.getName(),
-                itemEntity.getQuantity(),
-                itemEntity.getUnitPrice(),
-                itemEntity.getCategory()
-            ))
-            .toList();
-
-        return new Transaction(
-            entity.getTransactionId(),
-            entity.getShopperId(),
-            entity.getStoreId(),
-            entity.getTimestamp(),
-            items,
-            entity.getTotalAmount(),
-            entity.getStickersEarned()
-        );
+    /**
+     * Current balance, 0 for shoppers with no transactions yet.
+     */
+    public int getBalance(String shopperId) {
+        return shopperCache.getBalance(shopperId, () -> shopperRepository.findBalance(shopperId)).orElse(0);
+    }
+
+    public boolean shopperExists(String shopperId) {
+        return shopperRepository.existsById(shopperId);
+    }
+
+    /**
+     * Streams a shopper's full history, in (timestamp, id) order, to the consumer:
+     * archived rows first, then DB rows from the archive horizon on.
+     */
+    public void streamHistory(String shopperId, Consumer<ShopperStatus.TransactionSummary> consumer) {
+        Instant horizon = archive.horizon();
+        if (horizon == null) {
+            historyRepository.streamSummaries(shopperId, consumer);
+            return;
+        }
+        archive.streamSummaries(shopperId, row -> consumer.accept(row.toSummary()));
+        historyRepository.streamSummariesFrom(shopperId, horizon, consumer);
+    }
+
+    public static class ArchivedPeriodException extends RuntimeException {
+        public ArchivedPeriodException(String message) {
+            super(message);
+        }
     }
 }
@@ -0,0 +1,314 @@
+package com.looplink.stickerengine.service.archive;
+
+import com.looplink.stickerengine.model.Item;
+import com.looplink.stickerengine.model.Money;
+import com.looplink.stickerengine.model.Transaction;
+import com.looplink.stickerengine.repository.LeaderboardRepository.StickerTotal;
+import com.looplink.stickerengine.repository.TransactionSummaryRow;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Read side of an archive file written by {@link ArchiveFileWriter}.
+ *
+ * Opening reads only the header and footer. A shopper lookup decompresses just the groups whose
+ * first/last shopper range contains the shopper, and only their summary columns.
+ */
+final class ArchiveFile {
+
+    static final int HEADER_BYTES = 24;
+    static final int TRAILER_BYTES = 12;
+
+    private final Path path;
+    private final FileTime modified;
+    private final Instant lowerBound;
+    private final Instant upperBound;
+    private final long rowCount;
+    private final List<Group> groups;
+
+    private ArchiveFile(Path path, FileTime modified, Instant lowerBound, Instant upperBound, long rowCount,
+                        List<Group> groups) {
+        this.path = path;
+        this.modified = modified;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.rowCount = rowCount;
+        this.groups = groups;
+    }
+
+    static ArchiveFile open(Path path) throws IOException {
+        FileTime modified = Files.getLastModifiedTime(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + TRAILER_BYTES) {
+                throw new IOException("Truncated archive file: " + path);
+            }
+            ByteBuffer header = readFully(channel, 0, HEADER_BYTES);
+            if (header.getInt() != ArchiveFileWriter.MAGIC || header.getInt() != ArchiveFileWriter.VERSION) {
+                throw new IOException("Not an archive file, or unsupported version: " + path);
+            }
+            Instant lower = Instant.ofEpochSecond(header.getLong());
+            Instant upper = Instant.ofEpochSecond(header.getLong());
+
+            ByteBuffer trailer = readFully(channel, size - TRAILER_BYTES, TRAILER_BYTES);
+            long footerOffset = trailer.getLong();
+            if (trailer.getInt() != ArchiveFileWriter.MAGIC || footerOffset < HEADER_BYTES
+                    || footerOffset > size - TRAILER_BYTES) {
+                throw new IOException("Archive file has no valid footer: " + path);
+            }
+            ByteBuffer footerBytes = readFully(channel, footerOffset, (int) (size - TRAILER_BYTES - footerOffset));
+            DataInputStream footer = new DataInputStream(
+                new ByteArrayInputStream(footerBytes.array(), 0, footerBytes.limit()));
+            long rowCount = footer.readLong();
+            int groupCount = footer.readInt();
+            List<Group> groups = new ArrayList<>(groupCount);
+            for (int i = 0; i < groupCount; i++) {
+                groups.add(new Group(footer.readLong(), footer.readInt(), footer.readInt(), footer.readUTF(), footer.readUTF()));
+            }
+            return new ArchiveFile(path, modified, lower, upper, rowCount, List.copyOf(groups));
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    FileTime modified() {
+        return modified;
+    }
+
+    Instant lowerBound() {
+        return lowerBound;
+    }
+
+    Instant upperBound() {
+        return upperBound;
+    }
+
+    long rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * The shopper's archived transactions in (timestamp, id) order.
+     */
+    List<TransactionSummaryRow> readSummaries(String shopperId) throws IOException {
+        List<TransactionSummaryRow> rows = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (Group group : groups) {
+                if (group.firstShopper().compareTo(shopperId) > 0 || group.lastShopper().compareTo(shopperId) < 0) {
+                    continue;
+                }
+                try (DataInputStream in = group.open(channel)) {
+                    new Columns(in, false).collectSummaries(shopperId, rows);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Stickers earned per (store, shopper), summed within each group; a pair that spans groups is
+     * passed once per group.
+     */
+    void streamStoreTotals(Consumer<StickerTotal> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (Group group : groups) {
+                try (DataInputStream in = group.open(channel)) {
+                    new Columns(in, false).streamStoreTotals(consumer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes every group in full, items included, and returns the number of rows read.
+     * @throws IOException if the file is corrupt or its row count does not match the footer
+     */
+    long verify() throws IOException {
+        long rows = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (Group group : groups) {
+                try (DataInputStream in = group.open(channel)) {
+                    int decoded = new Columns(in, true).rows.size();
+                    if (decoded != group.rows()) {
+                        throw new IOException("Archive group row count mismatch in " + path);
+                    }
+                    rows += decoded;
+                }
+            }
+        }
+        if (rows != rowCount) {
+            throw new IOException("Archive row count mismatch in " + path + ": footer " + rowCount + ", groups " + rows);
+        }
+        return rows;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of archive file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    record Group(long offset, int length, int rows, String firstShopper, String lastShopper) {
+        DataInputStream open(FileChannel channel) throws IOException {
+            ByteBuffer bytes = readFully(channel, offset, length);
+            return new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(bytes.array(), 0, length)));
+        }
+    }
+
+    /**
+     * Column values of one group, in file order.
+     */
+    private static final class Columns {
+        final List<ArchiveRow> rows;
+        final String[] shoppers;
+        final long[] ids;
+        final long[] seconds;
+        final int[] nanos;
+        final String[] stores;
+        final String[] transactionIds;
+        final long[] totalCents;
+        final int[] stickers;
+        final int[] ruleVersions;
+
+        Columns(DataInputStream in, boolean withItems) throws IOException {
+            int count = in.readInt();
+            shoppers = new String[count];
+            int runs = in.readInt();
+            for (int run = 0, row = 0; run < runs; run++) {
+                String shopperId = in.readUTF();
+                int length = in.readInt();
+                for (int i = 0; i < length; i++) {
+                    shoppers[row++] = shopperId;
+                }
+            }
+            ids = new long[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = in.readLong();
+            }
+            seconds = new long[count];
+            for (int i = 0; i < count; i++) {
+                seconds[i] = in.readLong();
+            }
+            nanos = new int[count];
+            for (int i = 0; i < count; i++) {
+                nanos[i] = in.readInt();
+            }
+            stores = readDictionaryColumn(in, count);
+            transactionIds = new String[count];
+            for (int i = 0; i < count; i++) {
+                transactionIds[i] = in.readUTF();
+            }
+            totalCents = new long[count];
+            for (int i = 0; i < count; i++) {
+                totalCents[i] = in.readLong();
+            }
+            stickers = new int[count];
+            for (int i = 0; i < count; i++) {
+                stickers[i] = in.readInt();
+            }
+            ruleVersions = new int[count];
+            for (int i = 0; i < count; i++) {
+                ruleVersions[i] = in.readInt();
+            }
+            rows = withItems ? readRows(in, count) : List.of();
+        }
+
+        void collectSummaries(String shopperId, List<TransactionSummaryRow> out) {
+            for (int i = 0; i < shoppers.length; i++) {
+                if (shoppers[i].equals(shopperId)) {
+                    out.add(new TransactionSummaryRow(ids[i], transactionIds[i], stores[i], timestamp(i),
+                        Money.ofCents(totalCents[i]), stickers[i]));
+                }
+            }
+        }
+
+        void streamStoreTotals(Consumer<StickerTotal> consumer) {
+            // Rows are sorted by shopper, so one shopper's stores are summed at a time
+            Map<String, Long> byStore = new HashMap<>();
+            for (int i = 0; i < shoppers.length; i++) {
+                byStore.merge(stores[i], (long) stickers[i], Long::sum);
+                if (i + 1 == shoppers.length || !shoppers[i + 1].equals(shoppers[i])) {
+                    String shopperId = shoppers[i];
+                    byStore.forEach((storeId, total) -> consumer.accept(new StickerTotal(storeId, shopperId, total)));
+                    byStore.clear();
+                }
+            }
+        }
+
+        private List<ArchiveRow> readRows(DataInputStream in, int count) throws IOException {
+            int[] itemCounts = new int[count];
+            int totalItems = 0;
+            for (int i = 0; i < count; i++) {
+                itemCounts[i] = in.readInt();
+                totalItems += itemCounts[i];
+            }
+            String[] skus = new String[totalItems];
+            for (int i = 0; i < totalItems; i++) {
+                skus[i] = in.readUTF();
+            }
+            String[] names = new String[totalItems];
+            for (int i = 0; i < totalItems; i++) {
+                names[i] = in.readUTF();
+            }
+            int[] quantities = new int[totalItems];
+            for (int i = 0; i < totalItems; i++) {
+                quantities[i] = in.readInt();
+            }
+            long[] unitCents = new long[totalItems];
+            for (int i = 0; i < totalItems; i++) {
+                unitCents[i] = in.readLong();
+            }
+            String[] categories = readDictionaryColumn(in, totalItems);
+
+            List<ArchiveRow> result = new ArrayList<>(count);
+            int item = 0;
+            for (int i = 0; i < count; i++) {
+                List<Item> items = new ArrayList<>(itemCounts[i]);
+                for (int j = 0; j < itemCounts[i]; j++, item++) {
+                    items.add(new Item(skus[item], names[item], quantities[item], Money.ofCents(unitCents[item]),
+                        categories[item]));
+                }
+                result.add(new ArchiveRow(ids[i], new Transaction(transactionIds[i], shoppers[i], stores[i],
+                    timestamp(i), items, Money.ofCents(totalCents[i]), stickers[i], ruleVersions[i])));
+            }
+            return result;
+        }
+
+        private Instant timestamp(int row) {
+            return Instant.ofEpochSecond(seconds[row], nanos[row]);
+        }
+
+        private static String[] readDictionaryColumn(DataInputStream in, int count) throws IOException {
+            String[] dictionary = new String[in.readInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = in.readUTF();
+            }
+            String[] values = new String[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = dictionary[in.readInt()];
+            }
+            return values;
+        }
+    }
+}
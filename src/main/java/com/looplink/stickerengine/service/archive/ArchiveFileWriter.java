@@ -0,0 +1,194 @@
+package com.looplink.stickerengine.service.archive;
+
+import com.looplink.stickerengine.model.Item;
+import com.looplink.stickerengine.model.Transaction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes one archive file. Rows must be added in (shopper_id, timestamp, id) order.
+ *
+ * Layout: a header (magic, version, partition bounds), then independently gzip-compressed row groups,
+ * then a footer listing each group's offset, length, row count and first/last shopper, followed by the
+ * footer offset and the magic again. Inside a group the rows are stored column by column: shopper runs,
+ * ids, timestamps, dictionary-coded store IDs, transaction IDs, amounts, stickers and rule versions, then
+ * the item columns. Summary columns come first so a history read can stop before the items.
+ */
+final class ArchiveFileWriter implements Closeable {
+
+    static final int MAGIC = 0x53545841;
+    static final int VERSION = 1;
+
+    private final FileChannel channel;
+    private final int groupSize;
+    private final List<ArchiveRow> group;
+    private final List<ArchiveFile.Group> groups = new ArrayList<>();
+    private long rowCount;
+    private long position;
+
+    ArchiveFileWriter(Path path, Instant lowerBound, Instant upperBound, int groupSize) throws IOException {
+        this.channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.groupSize = groupSize;
+        this.group = new ArrayList<>(groupSize);
+        ByteBuffer header = ByteBuffer.allocate(ArchiveFile.HEADER_BYTES)
+            .putInt(MAGIC)
+            .putInt(VERSION)
+            .putLong(lowerBound.getEpochSecond())
+            .putLong(upperBound.getEpochSecond());
+        write(header.flip());
+    }
+
+    void add(ArchiveRow row) throws IOException {
+        group.add(row);
+        if (group.size() == groupSize) {
+            flushGroup();
+        }
+    }
+
+    long rowCount() {
+        return rowCount + group.size();
+    }
+
+    /**
+     * Writes the remaining rows and the footer, and forces the file to disk.
+     */
+    void finish() throws IOException {
+        flushGroup();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream footer = new DataOutputStream(bytes);
+        footer.writeLong(rowCount);
+        footer.writeInt(groups.size());
+        for (ArchiveFile.Group g : groups) {
+            footer.writeLong(g.offset());
+            footer.writeInt(g.length());
+            footer.writeInt(g.rows());
+            footer.writeUTF(g.firstShopper());
+            footer.writeUTF(g.lastShopper());
+        }
+        footer.flush();
+        long footerOffset = position;
+        write(ByteBuffer.wrap(bytes.toByteArray()));
+        write(ByteBuffer.allocate(ArchiveFile.TRAILER_BYTES).putLong(footerOffset).putInt(MAGIC).flip());
+        channel.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void flushGroup() throws IOException {
+        if (group.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(group.size() * 64);
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            writeColumns(out, group);
+        }
+        byte[] compressed = bytes.toByteArray();
+        groups.add(new ArchiveFile.Group(position, compressed.length, group.size(),
+            group.get(0).transaction().shopperId(), group.get(group.size() - 1).transaction().shopperId()));
+        write(ByteBuffer.wrap(compressed));
+        rowCount += group.size();
+        group.clear();
+    }
+
+    private static void writeColumns(DataOutputStream out, List<ArchiveRow> rows) throws IOException {
+        out.writeInt(rows.size());
+
+        List<String> runShoppers = new ArrayList<>();
+        List<Integer> runLengths = new ArrayList<>();
+        for (ArchiveRow row : rows) {
+            String shopperId = row.transaction().shopperId();
+            int last = runShoppers.size() - 1;
+            if (last >= 0 && runShoppers.get(last).equals(shopperId)) {
+                runLengths.set(last, runLengths.get(last) + 1);
+            } else {
+                runShoppers.add(shopperId);
+                runLengths.add(1);
+            }
+        }
+        out.writeInt(runShoppers.size());
+        for (int i = 0; i < runShoppers.size(); i++) {
+            out.writeUTF(runShoppers.get(i));
+            out.writeInt(runLengths.get(i));
+        }
+
+        for (ArchiveRow row : rows) {
+            out.writeLong(row.id());
+        }
+        for (ArchiveRow row : rows) {
+            out.writeLong(row.transaction().timestamp().getEpochSecond());
+        }
+        for (ArchiveRow row : rows) {
+            out.writeInt(row.transaction().timestamp().getNano());
+        }
+        writeDictionaryColumn(out, rows.stream().map(row -> row.transaction().storeId()).toList());
+        for (ArchiveRow row : rows) {
+            out.writeUTF(row.transaction().transactionId());
+        }
+        for (ArchiveRow row : rows) {
+            out.writeLong(row.transaction().totalAmount().cents());
+        }
+        for (ArchiveRow row : rows) {
+            out.writeInt(row.transaction().stickersEarned());
+        }
+        for (ArchiveRow row : rows) {
+            out.writeInt(row.transaction().ruleVersion());
+        }
+
+        List<Item> items = new ArrayList<>();
+        for (ArchiveRow row : rows) {
+            Transaction tx = row.transaction();
+            out.writeInt(tx.items().size());
+            items.addAll(tx.items());
+        }
+        for (Item item : items) {
+            out.writeUTF(item.sku());
+        }
+        for (Item item : items) {
+            out.writeUTF(item.name());
+        }
+        for (Item item : items) {
+            out.writeInt(item.quantity());
+        }
+        for (Item item : items) {
+            out.writeLong(item.unitPrice().cents());
+        }
+        writeDictionaryColumn(out, items.stream().map(Item::category).toList());
+    }
+
+    private static void writeDictionaryColumn(DataOutputStream out, List<String> values) throws IOException {
+        Map<String, Integer> codes = new LinkedHashMap<>();
+        for (String value : values) {
+            codes.putIfAbsent(value, codes.size());
+        }
+        out.writeInt(codes.size());
+        for (String value : codes.keySet()) {
+            out.writeUTF(value);
+        }
+        for (String value : values) {
+            out.writeInt(codes.get(value));
+        }
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+    }
+}
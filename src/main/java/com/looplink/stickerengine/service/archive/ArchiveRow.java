@@ -0,0 +1,8 @@
+package com.looplink.stickerengine.service.archive;
+
+import com.looplink.stickerengine.model.Transaction;
+
+/**
+ * A transaction with its DB id, which archived history pages keep using as the cursor tie-breaker.
+ */
+public record ArchiveRow(long id, Transaction transaction) {}
@@ -0,0 +1,223 @@
+package com.looplink.stickerengine.service.archive;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.looplink.stickerengine.model.HistoryCursor;
+import com.looplink.stickerengine.repository.LeaderboardRepository.StickerTotal;
+import com.looplink.stickerengine.repository.TransactionKeyRepository.TransactionKey;
+import com.looplink.stickerengine.repository.TransactionSummaryRow;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Read side of the transaction archive: the compressed columnar files that monthly partitions are
+ * moved to once they pass the retention window (see {@link TransactionArchiveJob}).
+ *
+ * The horizon is the end of the newest archived month. History reads take rows before the horizon
+ * from the archive and rows from the horizon on from the DB, so a partition that is archived but not
+ * yet dropped is never read twice. A shopper's archived rows are decoded once and cached, since old
+ * history is only read when a shopper pages back past the live months.
+ *
+ * Cached rows are tagged with the file snapshot they were read from and only served while that
+ * snapshot is current, so a read racing a refresh cannot keep a list that misses a new month. Files
+ * are read outside the cache's compute and refreshes are serialized on a ReentrantLock rather than a
+ * monitor, because both do disk I/O, which would pin a virtual thread's carrier. Concurrent misses for
+ * the same shopper may each read the files; the last one is cached.
+ */
+@Component
+public class TransactionArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionArchive.class);
+
+    static final String FILE_PREFIX = "transactions-";
+    static final String FILE_SUFFIX = ".stxa";
+
+    private static final Comparator<TransactionSummaryRow> HISTORY_ORDER =
+        Comparator.comparing(TransactionSummaryRow::timestamp).thenComparing(TransactionSummaryRow::id);
+
+    private final Path directory;
+    private final Cache<String, Summaries> summariesByShopper;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Snapshot snapshot = new Snapshot(List.of(), null);
+
+    public TransactionArchive(MeterRegistry meterRegistry,
+                              @Value("${sticker-engine.archive.dir:./data/archive}") Path directory,
+                              @Value("${sticker-engine.archive.cache-size:10000}") long cacheSize) {
+        this.directory = directory;
+        this.summariesByShopper = Caffeine.newBuilder()
+            .maximumSize(cacheSize)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, summariesByShopper, "transaction.archive");
+    }
+
+    @PostConstruct
+    void init() {
+        refresh();
+    }
+
+    /**
+     * End of the newest archived month, or null if nothing has been archived.
+     */
+    public Instant horizon() {
+        return snapshot.horizon();
+    }
+
+    /**
+     * Up to limit archived rows for the shopper in (timestamp, id) order, after the cursor if given.
+     */
+    public List<TransactionSummaryRow> findHistoryPage(String shopperId, HistoryCursor after, int limit) {
+        List<TransactionSummaryRow> page = new ArrayList<>(limit);
+        for (TransactionSummaryRow row : summaries(shopperId)) {
+            if (page.size() == limit) {
+                break;
+            }
+            if (after == null || row.timestamp().isAfter(after.timestamp())
+                    || (row.timestamp().equals(after.timestamp()) && row.id() > after.id())) {
+                page.add(row);
+            }
+        }
+        return page;
+    }
+
+    public void streamSummaries(String shopperId, Consumer<TransactionSummaryRow> consumer) {
+        summaries(shopperId).forEach(consumer);
+    }
+
+    /**
+     * Looks up an archived transaction by its key. Searches the shopper's whole archive rather than
+     * the file covering the timestamp, since a late row is archived with the partition it landed in.
+     */
+    public Optional<TransactionSummaryRow> findTransaction(TransactionKey key) {
+        return summaries(key.shopperId()).stream()
+            .filter(row -> row.transactionId().equals(key.transactionId()))
+            .findFirst();
+    }
+
+    /**
+     * Stickers earned per (store, shopper) across all archive files. Totals are partial: a pair may be
+     * passed several times, and the consumer sums them.
+     * @return the horizon of the files read, from which the DB holds the remaining rows
+     */
+    public Instant streamStoreTotals(Consumer<StickerTotal> consumer) {
+        Snapshot current = snapshot;
+        try {
+            for (ArchiveFile file : current.files()) {
+                file.streamStoreTotals(consumer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return current.horizon();
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    Path pathFor(String partition) {
+        return directory.resolve(FILE_PREFIX + partition + FILE_SUFFIX);
+    }
+
+    /**
+     * Picks up archive files written by this or another node, and drops cached rows if they changed.
+     */
+    @Scheduled(fixedDelayString = "${sticker-engine.archive.refresh-interval:1m}",
+               initialDelayString = "${sticker-engine.archive.refresh-interval:1m}")
+    public void refresh() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        refreshLock.lock();
+        try {
+            reload();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void reload() {
+        Map<Path, ArchiveFile> current = snapshot.files().stream()
+            .collect(Collectors.toMap(ArchiveFile::path, file -> file));
+        List<ArchiveFile> files = new ArrayList<>();
+        boolean changed = false;
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path path : paths) {
+                ArchiveFile file = current.get(path);
+                if (file != null && file.modified().equals(Files.getLastModifiedTime(path))) {
+                    files.add(file);
+                    continue;
+                }
+                files.add(ArchiveFile.open(path));
+                changed = true;
+            }
+        } catch (IOException e) {
+            log.warn("Failed to read transaction archive, keeping previous files: dir={}, error={}",
+                    directory, e.getMessage());
+            return;
+        }
+        changed |= files.size() != current.size();
+        if (!changed) {
+            return;
+        }
+        files.sort(Comparator.comparing(ArchiveFile::lowerBound));
+        Instant horizon = files.stream().map(ArchiveFile::upperBound).max(Comparator.naturalOrder()).orElse(null);
+        snapshot = new Snapshot(List.copyOf(files), horizon);
+        summariesByShopper.invalidateAll();
+        log.info("Loaded transaction archive: files={}, horizon={}", files.size(), horizon);
+    }
+
+    private List<TransactionSummaryRow> summaries(String shopperId) {
+        Snapshot current = snapshot;
+        if (current.files().isEmpty()) {
+            return List.of();
+        }
+        Summaries cached = summariesByShopper.getIfPresent(shopperId);
+        if (cached != null && cached.snapshot() == current) {
+            return cached.rows();
+        }
+        List<TransactionSummaryRow> rows = new ArrayList<>();
+        try {
+            for (ArchiveFile file : current.files()) {
+                rows.addAll(file.readSummaries(shopperId));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        rows.sort(HISTORY_ORDER);
+        List<TransactionSummaryRow> sorted = List.copyOf(rows);
+        // Skipped if a refresh swapped the snapshot meanwhile; one that lands after the check is tagged stale
+        if (snapshot == current) {
+            summariesByShopper.put(shopperId, new Summaries(current, sorted));
+        }
+        return sorted;
+    }
+
+    private record Snapshot(List<ArchiveFile> files, Instant horizon) {}
+
+    /**
+     * A shopper's archived rows and the snapshot they were read from.
+     */
+    private record Summaries(Snapshot snapshot, List<TransactionSummaryRow> rows) {}
+}
@@ -0,0 +1,138 @@
+package com.looplink.stickerengine.service.archive;
+
+import com.looplink.stickerengine.repository.TransactionPartitionRepository;
+import com.looplink.stickerengine.repository.TransactionPartitionRepository.Partition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Moves monthly partitions older than the retention window out of MySQL into archive files.
+ *
+ * A partition is archived in two runs. The first streams it in (shopper_id, timestamp, id) order into
+ * a new file, written to a temporary name, forced to disk and renamed into place, so readers only see
+ * complete files; from then on history reads before the horizon come from the file. A later run, once
+ * the file is older than drop-grace (so every node has picked it up), decodes the whole file and drops
+ * the partition only if its row count still matches; otherwise a late row arrived and the file is
+ * rewritten. Once a node has loaded the file it rejects new transactions dated before the horizon,
+ * so after drop-grace no more rows can reach the partition and the count is a final check rather than
+ * a race with writers. transaction_keys is never archived, so duplicate detection covers archived IDs too.
+ *
+ * Runs on one node only (sticker-engine.archive.enabled); the archive directory is shared.
+ */
+@Component
+@ConditionalOnProperty(name = "sticker-engine.archive.enabled", havingValue = "true")
+public class TransactionArchiveJob {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionArchiveJob.class);
+
+    private static final int ROW_GROUP_SIZE = 4096;
+
+    private final TransactionPartitionRepository partitions;
+    private final TransactionArchive archive;
+    private final int retentionMonths;
+    private final Duration dropGrace;
+    private final int readBatchSize;
+    private final Counter archivedRows;
+
+    public TransactionArchiveJob(TransactionPartitionRepository partitions,
+                                 TransactionArchive archive,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${sticker-engine.archive.retention-months:6}") int retentionMonths,
+                                 @Value("${sticker-engine.archive.drop-grace:1h}") Duration dropGrace,
+                                 @Value("${sticker-engine.archive.read-batch-size:1000}") int readBatchSize) {
+        this.partitions = partitions;
+        this.archive = archive;
+        this.retentionMonths = retentionMonths;
+        this.dropGrace = dropGrace;
+        this.readBatchSize = readBatchSize;
+        this.archivedRows = Counter.builder("sticker.archive.rows")
+            .description("Transactions written to archive files")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${sticker-engine.archive.cron:0 30 3 * * *}", zone = "UTC")
+    public void run() {
+        Instant cutoff = YearMonth.now(ZoneOffset.UTC).minusMonths(retentionMonths)
+            .atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        List<Partition> candidates = partitions.findPartitions(TransactionPartitionRepository.TRANSACTIONS).stream()
+            .filter(partition -> partition.upperBound() != null && !partition.upperBound().isAfter(cutoff))
+            .toList();
+        for (Partition partition : candidates) {
+            try {
+                archivePartition(partition);
+            } catch (IOException | DataAccessException e) {
+                log.error("Archiving failed, will retry on the next run: partition={}, error={}",
+                        partition.name(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void archivePartition(Partition partition) throws IOException {
+        Path path = archive.pathFor(partition.name());
+        if (Files.exists(path)) {
+            Instant written = Files.getLastModifiedTime(path).toInstant();
+            if (written.plus(dropGrace).isAfter(Instant.now())) {
+                return;
+            }
+            long archived = ArchiveFile.open(path).verify();
+            long stored = partitions.countTransactions(partition.name());
+            if (archived == stored) {
+                // Items first: a failure in between leaves transactions whose items are already archived
+                partitions.dropPartition(TransactionPartitionRepository.TRANSACTION_ITEMS, partition.name());
+                partitions.dropPartition(TransactionPartitionRepository.TRANSACTIONS, partition.name());
+                log.info("Dropped archived partition: partition={}, rows={}", partition.name(), archived);
+                return;
+            }
+            log.warn("Archive is stale, rewriting: partition={}, archived={}, stored={}",
+                    partition.name(), archived, stored);
+        }
+        writeArchive(partition, path);
+    }
+
+    private void writeArchive(Partition partition, Path path) throws IOException {
+        Files.createDirectories(archive.directory());
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        long rows;
+        try (ArchiveFileWriter writer = new ArchiveFileWriter(tmp, partition.lowerBound(), partition.upperBound(),
+                ROW_GROUP_SIZE)) {
+            ArchiveRow last = null;
+            List<ArchiveRow> page;
+            do {
+                page = partitions.readPage(partition.name(), last, readBatchSize);
+                for (ArchiveRow row : page) {
+                    writer.add(row);
+                }
+                if (!page.isEmpty()) {
+                    last = page.get(page.size() - 1);
+                }
+            } while (page.size() == readBatchSize);
+            writer.finish();
+            rows = writer.rowCount();
+        } catch (IOException | DataAccessException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        archivedRows.increment(rows);
+        archive.refresh();
+        log.info("Archived partition: partition={}, rows={}, file={}", partition.name(), rows, path);
+    }
+}
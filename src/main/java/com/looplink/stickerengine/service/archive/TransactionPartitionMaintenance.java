@@ -0,0 +1,89 @@
+package com.looplink.stickerengine.service.archive;
+
+import com.looplink.stickerengine.repository.TransactionPartitionRepository;
+import com.looplink.stickerengine.repository.TransactionPartitionRepository.Partition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps monthly partitions of transactions and transaction_items created ahead of time.
+ *
+ * Both tables end in a catch-all p_future partition; this splits it into one pYYYYMM partition per
+ * UTC month up to premake-months ahead, so inserts never land in p_future and archiving a month is a
+ * partition drop. Splitting an empty p_future is a metadata change. Tables that are not partitioned
+ * (H2 in the load test) are left alone.
+ */
+@Component
+@ConditionalOnProperty(name = "sticker-engine.partitions.maintenance-enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionPartitionMaintenance.class);
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final TransactionPartitionRepository partitions;
+    private final int premakeMonths;
+
+    public TransactionPartitionMaintenance(TransactionPartitionRepository partitions,
+                                           @Value("${sticker-engine.partitions.premake-months:3}") int premakeMonths) {
+        this.partitions = partitions;
+        this.premakeMonths = premakeMonths;
+    }
+
+    @Scheduled(fixedDelayString = "${sticker-engine.partitions.check-interval:6h}", initialDelay = 0)
+    public void ensurePartitions() {
+        Instant until = monthStart(YearMonth.now(ZoneOffset.UTC).plusMonths(premakeMonths + 1L));
+        for (String table : List.of(TransactionPartitionRepository.TRANSACTIONS,
+                                    TransactionPartitionRepository.TRANSACTION_ITEMS)) {
+            try {
+                ensurePartitions(table, until);
+            } catch (DataAccessException e) {
+                log.warn("Partition maintenance failed: table={}, error={}", table, e.getMessage());
+            }
+        }
+    }
+
+    private void ensurePartitions(String table, Instant until) {
+        List<Partition> existing = partitions.findPartitions(table);
+        if (existing.isEmpty()) {
+            return;
+        }
+        Partition future = existing.get(existing.size() - 1);
+        if (!TransactionPartitionRepository.FUTURE_PARTITION.equals(future.name())) {
+            log.warn("Partition maintenance skipped, last partition is not {}: table={}, partition={}",
+                    TransactionPartitionRepository.FUTURE_PARTITION, table, future.name());
+            return;
+        }
+        List<Partition> added = new ArrayList<>();
+        Instant lower = future.lowerBound();
+        YearMonth month = YearMonth.from(lower.atZone(ZoneOffset.UTC));
+        while (lower.isBefore(until)) {
+            Instant upper = monthStart(month.plusMonths(1));
+            added.add(new Partition(PARTITION_NAME.format(month), lower, upper));
+            lower = upper;
+            month = month.plusMonths(1);
+        }
+        if (added.isEmpty()) {
+            return;
+        }
+        partitions.splitFuturePartition(table, added);
+        log.info("Created partitions: table={}, from={}, to={}", table,
+                added.get(0).name(), added.get(added.size() - 1).name());
+    }
+
+    private static Instant monthStart(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
@@ -0,0 +1,227 @@
+package com.looplink.stickerengine.service.importer;
+
+import com.looplink.stickerengine.model.Item;
+import com.looplink.stickerengine.model.Money;
+import com.looplink.stickerengine.model.TransactionRequest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV with a header row and one row per item; consecutive rows with the same transactionId form one
+ * transaction, whose shopper, store and timestamp come from its first row.
+ *
+ * Columns are matched by header name, in any order, and extra columns are ignored. Fields may be
+ * quoted, with "" for a literal quote, but may not contain line breaks. Empty fields are read as
+ * absent, so they fail validation like a missing JSON property.
+ */
+final class CsvRecordReader implements RecordReader {
+
+    static final List<String> COLUMNS = List.of(
+        "transactionId", "shopperId", "storeId", "timestamp", "sku", "name", "quantity", "unitPrice", "category");
+
+    private static final int TRANSACTION_ID = 0;
+    private static final int SHOPPER_ID = 1;
+    private static final int STORE_ID = 2;
+    private static final int TIMESTAMP = 3;
+    private static final int SKU = 4;
+    private static final int NAME = 5;
+    private static final int QUANTITY = 6;
+    private static final int UNIT_PRICE = 7;
+    private static final int CATEGORY = 8;
+
+    /** Rows beyond this in one transaction make it invalid rather than growing without bound. */
+    static final int MAX_ITEMS = 10_000;
+
+    private final LineReader lines;
+    private final int[] columns;
+    private final int width;
+    private long line;
+    private Row pending;
+
+    /**
+     * @throws IllegalArgumentException if the header row is missing a column
+     */
+    CsvRecordReader(Path path, long offset, long line) throws IOException {
+        try (LineReader header = new LineReader(path, 0)) {
+            if (!header.next() || header.truncated()) {
+                throw new IllegalArgumentException("CSV file has no header row");
+            }
+            // Spreadsheet exports often start with a byte order mark
+            List<String> names = split(header.text().replace("\uFEFF", ""));
+            if (names == null) {
+                throw new IllegalArgumentException("CSV header row is malformed");
+            }
+            this.width = names.size();
+            this.columns = new int[COLUMNS.size()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = names.indexOf(COLUMNS.get(i));
+                if (columns[i] < 0) {
+                    throw new IllegalArgumentException("CSV header is missing column " + COLUMNS.get(i));
+                }
+            }
+        }
+        this.lines = new LineReader(path, offset);
+        this.line = line;
+        if (offset == 0) {
+            lines.next();
+            this.line = 1;
+        }
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        Row first = pending != null ? pending : readRow();
+        pending = null;
+        if (first == null) {
+            return null;
+        }
+        if (first.error != null) {
+            return ImportRecord.invalid(first.line, first.line, first.offset, first.end, first.error);
+        }
+        String transactionId = first.fields[TRANSACTION_ID];
+        List<Row> rows = new ArrayList<>();
+        rows.add(first);
+        Row last = first;
+        Row row;
+        while (transactionId != null && (row = readRow()) != null) {
+            if (row.error != null || !transactionId.equals(row.fields[TRANSACTION_ID])) {
+                pending = row;
+                break;
+            }
+            if (rows.size() <= MAX_ITEMS) {
+                rows.add(row);
+            }
+            last = row;
+        }
+        if (rows.size() > MAX_ITEMS) {
+            return ImportRecord.invalid(first.line, last.line, first.offset, last.end,
+                "Transaction has more than " + MAX_ITEMS + " items");
+        }
+        try {
+            return ImportRecord.parsed(first.line, last.line, first.offset, last.end, toRequest(rows));
+        } catch (IllegalArgumentException e) {
+            return ImportRecord.invalid(first.line, last.line, first.offset, last.end, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lines.close();
+    }
+
+    private Row readRow() throws IOException {
+        while (lines.next()) {
+            line++;
+            if (lines.truncated()) {
+                return Row.invalid(line, lines.offset(), lines.end(),
+                    "Line longer than " + LineReader.MAX_LINE_BYTES + " bytes");
+            }
+            if (lines.isBlank()) {
+                continue;
+            }
+            List<String> values = split(lines.text());
+            if (values == null) {
+                return Row.invalid(line, lines.offset(), lines.end(), "Unterminated quoted field");
+            }
+            if (values.size() != width) {
+                return Row.invalid(line, lines.offset(), lines.end(),
+                    "Expected " + width + " fields but found " + values.size());
+            }
+            String[] fields = new String[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                String value = values.get(columns[i]);
+                fields[i] = value.isEmpty() ? null : value;
+            }
+            return new Row(line, lines.offset(), lines.end(), fields, null);
+        }
+        return null;
+    }
+
+    /**
+     * @throws IllegalArgumentException naming the line and column of the first unparseable value
+     */
+    private static TransactionRequest toRequest(List<Row> rows) {
+        Row first = rows.get(0);
+        Instant timestamp = null;
+        if (first.fields[TIMESTAMP] != null) {
+            try {
+                timestamp = Instant.parse(first.fields[TIMESTAMP]);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Line " + first.line + ": timestamp is not an ISO-8601 instant");
+            }
+        }
+        List<Item> items = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            String[] fields = row.fields;
+            Integer quantity = null;
+            if (fields[QUANTITY] != null) {
+                try {
+                    quantity = Integer.valueOf(fields[QUANTITY]);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Line " + row.line + ": quantity is not an integer");
+                }
+            }
+            Money unitPrice = null;
+            if (fields[UNIT_PRICE] != null) {
+                try {
+                    unitPrice = Money.of(new BigDecimal(fields[UNIT_PRICE]));
+                } catch (NumberFormatException | ArithmeticException e) {
+                    throw new IllegalArgumentException("Line " + row.line + ": unitPrice is not a decimal amount");
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Line " + row.line + ": " + e.getMessage());
+                }
+            }
+            items.add(new Item(fields[SKU], fields[NAME], quantity, unitPrice, fields[CATEGORY]));
+        }
+        return new TransactionRequest(first.fields[TRANSACTION_ID], first.fields[SHOPPER_ID], first.fields[STORE_ID],
+            timestamp, items);
+    }
+
+    /**
+     * Splits a row on commas, honouring double quotes.
+     * @return null if a quoted field is not closed
+     */
+    static List<String> split(String row) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < row.length(); i++) {
+            char c = row.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < row.length() && row.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record Row(long line, long offset, long end, String[] fields, String error) {
+
+        static Row invalid(long line, long offset, long end, String error) {
+            return new Row(line, offset, end, null, error);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.looplink.stickerengine.service.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a file line by line from a byte offset, tracking the offset of every line.
+ *
+ * The file is read through a fixed 1MB buffer and the current line is copied into a reused array,
+ * so memory stays bounded whatever the file size. Lines end at '\n' (a preceding '\r' is dropped);
+ * a line longer than {@link #MAX_LINE_BYTES} is cut there and flagged, and the rest of it skipped.
+ */
+final class LineReader implements Closeable {
+
+    static final int MAX_LINE_BYTES = 1024 * 1024;
+
+    private static final int READ_BUFFER_BYTES = 1024 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_BYTES).flip();
+    private byte[] line = new byte[1024];
+    private int length;
+    private boolean truncated;
+    private long offset;
+    private long nextOffset;
+
+    LineReader(Path path, long offset) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.channel.position(offset);
+        this.nextOffset = offset;
+    }
+
+    /**
+     * Advances to the next line.
+     * @return false at end of file
+     */
+    boolean next() throws IOException {
+        offset = nextOffset;
+        length = 0;
+        truncated = false;
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int read = channel.read(buffer);
+                buffer.flip();
+                if (read <= 0) {
+                    return nextOffset > offset;
+                }
+            }
+            byte[] bytes = buffer.array();
+            int start = buffer.position();
+            int limit = buffer.limit();
+            int end = start;
+            while (end < limit && bytes[end] != '\n') {
+                end++;
+            }
+            append(bytes, start, end - start);
+            nextOffset += end - start;
+            if (end < limit) {
+                buffer.position(end + 1);
+                nextOffset++;
+                if (length > 0 && line[length - 1] == '\r' && !truncated) {
+                    length--;
+                }
+                return true;
+            }
+            buffer.position(limit);
+        }
+    }
+
+    /** Offset of the current line's first byte. */
+    long offset() {
+        return offset;
+    }
+
+    /** Offset just past the current line and its terminator. */
+    long end() {
+        return nextOffset;
+    }
+
+    byte[] bytes() {
+        return line;
+    }
+
+    int length() {
+        return length;
+    }
+
+    boolean truncated() {
+        return truncated;
+    }
+
+    boolean isBlank() {
+        for (int i = 0; i < length; i++) {
+            if (!Character.isWhitespace(line[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String text() {
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void append(byte[] source, int from, int count) {
+        int room = MAX_LINE_BYTES - length;
+        if (count > room) {
+            truncated = true;
+            count = room;
+        }
+        if (length + count > line.length) {
+            line = Arrays.copyOf(line, Math.min(MAX_LINE_BYTES, Math.max(line.length * 2, length + count)));
+        }
+        System.arraycopy(source, from, line, length, count);
+        length += count;
+    }
+}
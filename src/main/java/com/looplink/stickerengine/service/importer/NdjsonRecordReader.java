@@ -0,0 +1,54 @@
+package com.looplink.stickerengine.service.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.looplink.stickerengine.model.TransactionRequest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * One JSON transaction per line, in the request body's format. Blank lines are skipped.
+ */
+final class NdjsonRecordReader implements RecordReader {
+
+    private final LineReader lines;
+    private final ObjectReader json;
+    private long line;
+
+    NdjsonRecordReader(Path path, long offset, long line, ObjectReader json) throws IOException {
+        this.lines = new LineReader(path, offset);
+        this.json = json;
+        this.line = line;
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        while (lines.next()) {
+            line++;
+            if (lines.truncated()) {
+                return ImportRecord.invalid(line, line, lines.offset(), lines.end(),
+                    "Line longer than " + LineReader.MAX_LINE_BYTES + " bytes");
+            }
+            if (lines.isBlank()) {
+                continue;
+            }
+            try {
+                TransactionRequest request = json.readValue(lines.bytes(), 0, lines.length());
+                if (request == null) {
+                    return ImportRecord.invalid(line, line, lines.offset(), lines.end(), "Line is not a JSON object");
+                }
+                return ImportRecord.parsed(line, line, lines.offset(), lines.end(), request);
+            } catch (JsonProcessingException e) {
+                return ImportRecord.invalid(line, line, lines.offset(), lines.end(),
+                    "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lines.close();
+    }
+}
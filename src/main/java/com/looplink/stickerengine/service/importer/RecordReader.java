@@ -0,0 +1,33 @@
+package com.looplink.stickerengine.service.importer;
+
+import com.looplink.stickerengine.model.TransactionRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Parses transactions from an import file, one record at a time.
+ */
+interface RecordReader extends Closeable {
+
+    /**
+     * @return the next record, or null at end of file
+     */
+    ImportRecord next() throws IOException;
+
+    /**
+     * One transaction read from lines firstLine..lastLine (1-based) at bytes [offset, end). Either the
+     * request or, if the lines could not be parsed, the error is set.
+     */
+    record ImportRecord(long firstLine, long lastLine, long offset, long end, TransactionRequest request,
+                        String error) {
+
+        static ImportRecord parsed(long firstLine, long lastLine, long offset, long end, TransactionRequest request) {
+            return new ImportRecord(firstLine, lastLine, offset, end, request, null);
+        }
+
+        static ImportRecord invalid(long firstLine, long lastLine, long offset, long end, String error) {
+            return new ImportRecord(firstLine, lastLine, offset, end, null, error);
+        }
+    }
+}
@@ -0,0 +1,556 @@
+package com.looplink.stickerengine.service.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.looplink.stickerengine.model.BatchTransactionResponse;
+import com.looplink.stickerengine.model.ImportError;
+import com.looplink.stickerengine.model.ImportRequest;
+import com.looplink.stickerengine.model.ImportStatus;
+import com.looplink.stickerengine.model.TransactionRequest;
+import com.looplink.stickerengine.service.TransactionService;
+import com.looplink.stickerengine.service.importer.RecordReader.ImportRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Imports end-of-day transaction dumps from stores that were offline, as NDJSON or CSV files placed
+ * in the import directory.
+ *
+ * One import at a time runs on a background thread. The file is streamed through a fixed buffer, so
+ * memory is bounded by batch-size records whatever the file size. Each record is checked against the
+ * same constraints as a POST body, and valid ones go through {@link TransactionService#processBatch} in
+ * batches, so imported transactions are scored, deduplicated and published exactly like live ones.
+ * Records the batch reports as FAILED, such as a shopper lock held past lock.max-wait, are recorded as
+ * errors; resuming from an earlier offset or re-importing the file submits them again.
+ *
+ * After every batch the byte offset, line count and counters are written atomically to a
+ * {@value #STATE_SUFFIX} file next to the import, and rejected records are appended to a
+ * {@value #ERRORS_SUFFIX} file with their line, offset and reason. A failed, cancelled or crashed
+ * import resumes from that checkpoint. Records after it are read again, which the idempotent
+ * pipeline turns into duplicates.
+ */
+@Component
+@ConditionalOnProperty(name = "sticker-engine.import.enabled", havingValue = "true")
+public class TransactionFileImport {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionFileImport.class);
+
+    static final String STATE_SUFFIX = ".import-state.json";
+    static final String ERRORS_SUFFIX = ".import-errors.ndjson";
+
+    private static final int MAX_MESSAGE_LENGTH = 512;
+
+    private final TransactionService transactionService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader requestReader;
+    private final Path directory;
+    private final int batchSize;
+    private final int maxRate;
+    private final ExecutorService runner;
+    private final Counter processedCounter;
+    private final Counter duplicateCounter;
+    private final Counter invalidCounter;
+    private final Counter failedCounter;
+    private final AtomicReference<ActiveImport> active = new AtomicReference<>();
+
+    public TransactionFileImport(TransactionService transactionService,
+                                 Validator validator,
+                                 ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${sticker-engine.import.dir:./data/imports}") Path directory,
+                                 @Value("${sticker-engine.import.batch-size:500}") int batchSize,
+                                 @Value("${sticker-engine.import.max-rate:2000}") int maxRate) throws IOException {
+        this.transactionService = transactionService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.requestReader = objectMapper.readerFor(TransactionRequest.class);
+        this.directory = Files.createDirectories(directory).toAbsolutePath().normalize();
+        this.batchSize = batchSize;
+        this.maxRate = maxRate;
+        this.runner = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "import-runner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.processedCounter = recordCounter(meterRegistry, "processed");
+        this.duplicateCounter = recordCounter(meterRegistry, "duplicate");
+        this.invalidCounter = recordCounter(meterRegistry, "invalid");
+        this.failedCounter = recordCounter(meterRegistry, "failed");
+    }
+
+    /**
+     * Starts importing a file from the beginning, or from fromOffset, with fresh counters and errors.
+     * @throws InvalidImportException if the file is missing, its format unknown or the header malformed
+     * @throws ImportConflictException if an import is already executing on this node
+     */
+    public ImportStatus start(ImportRequest request) {
+        Path path = resolve(request.file());
+        if (!Files.isRegularFile(path)) {
+            throw new InvalidImportException("Import file not found: " + request.file());
+        }
+        ImportStatus.Format format = format(request.format(), path);
+        long size = size(path);
+        long from = request.fromOffset() != null ? request.fromOffset() : 0;
+        if (from > size) {
+            throw new InvalidImportException("fromOffset is beyond the end of the file: size=" + size);
+        }
+        ActiveImport run = claim(request.file());
+        try {
+            long offset = alignToLine(path, from);
+            Instant now = Instant.now();
+            ImportStatus status = new ImportStatus(request.file(), format, ImportStatus.Status.RUNNING, size,
+                offset, 0, 0, 0, 0, 0, null, now, now);
+            launch(run, path, new Checkpoint(status, 0));
+            log.info("Import started: file={}, format={}, size={}, offset={}", request.file(), format, size, offset);
+            return status;
+        } catch (RuntimeException e) {
+            active.compareAndSet(run, null);
+            throw e;
+        }
+    }
+
+    /**
+     * Continues a failed, cancelled or interrupted import from its checkpoint.
+     * @throws ImportConflictException if the import completed, or an import is already executing on this node
+     */
+    public Optional<ImportStatus> resume(String file) {
+        Path path = resolve(file);
+        Optional<Checkpoint> found = readCheckpoint(path);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        ImportStatus stored = found.get().status();
+        if (stored.status() == ImportStatus.Status.COMPLETED) {
+            throw new ImportConflictException("Import already completed: " + file);
+        }
+        if (!Files.isRegularFile(path)) {
+            throw new InvalidImportException("Import file not found: " + file);
+        }
+        ActiveImport run = claim(file);
+        try {
+            ImportStatus status = new ImportStatus(file, stored.format(), ImportStatus.Status.RUNNING, size(path),
+                stored.offset(), stored.lines(), stored.processed(), stored.duplicates(), stored.invalid(),
+                stored.failed(), null, stored.startedAt(), Instant.now());
+            launch(run, path, new Checkpoint(status, found.get().errorsLength()));
+            log.info("Import resumed: file={}, offset={}, lines={}", file, status.offset(), status.lines());
+            return Optional.of(status);
+        } catch (RuntimeException e) {
+            active.compareAndSet(run, null);
+            throw e;
+        }
+    }
+
+    /**
+     * Asks the import to stop after its current batch; it can be resumed later.
+     * @throws ImportConflictException if the import is not executing on this node
+     */
+    public Optional<ImportStatus> cancel(String file) {
+        ActiveImport run = active.get();
+        if (run == null || !run.file.equals(file)) {
+            if (readCheckpoint(resolve(file)).isEmpty()) {
+                return Optional.empty();
+            }
+            throw new ImportConflictException("Import is not executing on this node: " + file);
+        }
+        run.cancelled = true;
+        return Optional.of(run.checkpoint.status());
+    }
+
+    public Optional<ImportStatus> find(String file) {
+        return findCheckpoint(file).map(Checkpoint::status);
+    }
+
+    /**
+     * Rejected records up to the last checkpoint, in file order.
+     * @return empty if the file was never imported
+     */
+    public Optional<List<ImportError>> findErrors(String file, int limit) {
+        Optional<Checkpoint> found = findCheckpoint(file);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        Path errorsPath = sidecar(resolve(file), ERRORS_SUFFIX);
+        List<ImportError> errors = new ArrayList<>();
+        if (!Files.exists(errorsPath)) {
+            return Optional.of(errors);
+        }
+        try (LineReader lines = new LineReader(errorsPath, 0)) {
+            while (errors.size() < limit && lines.next() && lines.end() <= found.get().errorsLength()) {
+                errors.add(objectMapper.readValue(lines.bytes(), 0, lines.length(), ImportError.class));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Optional.of(errors);
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        ActiveImport run = active.get();
+        if (run != null) {
+            run.cancelled = true;
+        }
+        runner.shutdown();
+        runner.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private Optional<Checkpoint> findCheckpoint(String file) {
+        ActiveImport run = active.get();
+        if (run != null && run.file.equals(file)) {
+            return Optional.of(run.checkpoint);
+        }
+        return readCheckpoint(resolve(file));
+    }
+
+    private ActiveImport claim(String file) {
+        ActiveImport run = new ActiveImport(file);
+        if (!active.compareAndSet(null, run)) {
+            throw new ImportConflictException("An import is already executing: " + active.get().file);
+        }
+        return run;
+    }
+
+    /**
+     * Opens the file here, so a malformed header is reported to the caller, and reads it in the background.
+     */
+    private void launch(ActiveImport run, Path path, Checkpoint checkpoint) {
+        ImportStatus status = checkpoint.status();
+        RecordReader reader;
+        try {
+            reader = status.format() == ImportStatus.Format.CSV
+                ? new CsvRecordReader(path, status.offset(), status.lines())
+                : new NdjsonRecordReader(path, status.offset(), status.lines(), requestReader);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidImportException(e.getMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        run.checkpoint = checkpoint;
+        writeCheckpoint(path, checkpoint);
+        runner.execute(() -> {
+            try {
+                execute(run, path, reader);
+            } finally {
+                active.compareAndSet(run, null);
+            }
+        });
+    }
+
+    private void execute(ActiveImport run, Path path, RecordReader reader) {
+        long startNanos = System.nanoTime();
+        long records = 0;
+        try (RecordReader input = reader;
+             FileChannel errorsChannel = FileChannel.open(sidecar(path, ERRORS_SUFFIX),
+                 StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Drop errors written after the checkpoint; those records are read again
+            errorsChannel.truncate(run.checkpoint.errorsLength());
+            errorsChannel.position(run.checkpoint.errorsLength());
+            OutputStream errors = new BufferedOutputStream(Channels.newOutputStream(errorsChannel), 64 * 1024);
+            List<ImportRecord> batch = new ArrayList<>(batchSize);
+            ImportRecord record;
+            while ((record = input.next()) != null) {
+                batch.add(record);
+                if (batch.size() >= batchSize) {
+                    commit(run, path, batch, errors, errorsChannel);
+                    records += batch.size();
+                    batch.clear();
+                    throttle(startNanos, records);
+                }
+            }
+            commit(run, path, batch, errors, errorsChannel);
+            finish(run, path, ImportStatus.Status.COMPLETED, null);
+            ImportStatus status = run.checkpoint.status();
+            log.info("Import completed: file={}, lines={}, processed={}, duplicates={}, invalid={}, failed={}",
+                    run.file, status.lines(), status.processed(), status.duplicates(), status.invalid(), status.failed());
+        } catch (CancelledException e) {
+            finish(run, path, ImportStatus.Status.CANCELLED, null);
+            log.info("Import cancelled: file={}, offset={}", run.file, run.checkpoint.status().offset());
+        } catch (IOException | RuntimeException e) {
+            log.error("Import failed: file={}, offset={}, error={}", run.file, run.checkpoint.status().offset(),
+                    e.getMessage(), e);
+            try {
+                finish(run, path, ImportStatus.Status.FAILED, truncate(String.valueOf(e.getMessage())));
+            } catch (RuntimeException checkpointError) {
+                log.error("Failed to record import failure: file={}, error={}", run.file, checkpointError.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Submits one batch and advances the checkpoint past it once every record is accounted for.
+     */
+    private void commit(ActiveImport run, Path path, List<ImportRecord> batch, OutputStream errors,
+                        FileChannel errorsChannel) throws IOException {
+        if (run.cancelled) {
+            throw new CancelledException();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        long invalid = 0;
+        List<ImportRecord> valid = new ArrayList<>(batch.size());
+        for (ImportRecord record : batch) {
+            String error = record.error() != null ? record.error() : validate(record.request());
+            if (error != null) {
+                writeError(errors, record, error);
+                invalid++;
+            } else {
+                valid.add(record);
+            }
+        }
+
+        long processed = 0;
+        long duplicates = 0;
+        long failed = 0;
+        if (!valid.isEmpty()) {
+            List<TransactionRequest> requests = valid.stream().map(ImportRecord::request).toList();
+            List<BatchTransactionResponse.Result> results = transactionService.processBatch(requests).results();
+            for (int i = 0; i < results.size(); i++) {
+                BatchTransactionResponse.Result result = results.get(i);
+                switch (result.status()) {
+                    case PROCESSED -> processed++;
+                    case DUPLICATE -> duplicates++;
+                    case FAILED -> {
+                        writeError(errors, valid.get(i), result.message());
+                        failed++;
+                    }
+                }
+            }
+        }
+
+        errors.flush();
+        errorsChannel.force(false);
+        ImportRecord last = batch.get(batch.size() - 1);
+        ImportStatus previous = run.checkpoint.status();
+        ImportStatus status = new ImportStatus(previous.file(), previous.format(), previous.status(),
+            previous.fileSize(), last.end(), last.lastLine(), previous.processed() + processed,
+            previous.duplicates() + duplicates, previous.invalid() + invalid, previous.failed() + failed,
+            null, previous.startedAt(), Instant.now());
+        Checkpoint checkpoint = new Checkpoint(status, errorsChannel.position());
+        writeCheckpoint(path, checkpoint);
+        run.checkpoint = checkpoint;
+
+        processedCounter.increment(processed);
+        duplicateCounter.increment(duplicates);
+        invalidCounter.increment(invalid);
+        failedCounter.increment(failed);
+        log.debug("Import batch committed: file={}, offset={}, processed={}, duplicates={}, invalid={}, failed={}",
+                run.file, status.offset(), processed, duplicates, invalid, failed);
+    }
+
+    private void finish(ActiveImport run, Path path, ImportStatus.Status outcome, String error) {
+        ImportStatus s = run.checkpoint.status();
+        Checkpoint checkpoint = new Checkpoint(new ImportStatus(s.file(), s.format(), outcome, s.fileSize(),
+            s.offset(), s.lines(), s.processed(), s.duplicates(), s.invalid(), s.failed(), error, s.startedAt(),
+            Instant.now()), run.checkpoint.errorsLength());
+        writeCheckpoint(path, checkpoint);
+        run.checkpoint = checkpoint;
+    }
+
+    private String validate(TransactionRequest request) {
+        Set<ConstraintViolation<TransactionRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining("; "));
+    }
+
+    private void writeError(OutputStream errors, ImportRecord record, String message) throws IOException {
+        String transactionId = record.request() != null ? record.request().transactionId() : null;
+        errors.write(objectMapper.writeValueAsBytes(
+            new ImportError(record.firstLine(), record.offset(), transactionId, truncate(message))));
+        errors.write('\n');
+    }
+
+    /**
+     * The checkpoint is written to a temporary file, forced and renamed over the old one, so a crash
+     * leaves either the previous checkpoint or the new one.
+     */
+    private void writeCheckpoint(Path path, Checkpoint checkpoint) {
+        Path target = sidecar(path, STATE_SUFFIX);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.wrap(objectMapper.writeValueAsBytes(checkpoint)));
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Optional<Checkpoint> readCheckpoint(Path path) {
+        Path state = sidecar(path, STATE_SUFFIX);
+        if (!Files.exists(state)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(state.toFile(), Checkpoint.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A file name directly inside the import directory; anything else is rejected.
+     */
+    private Path resolve(String file) {
+        Path path = directory.resolve(file).normalize();
+        if (!directory.equals(path.getParent()) || file.endsWith(STATE_SUFFIX) || file.endsWith(ERRORS_SUFFIX)) {
+            throw new InvalidImportException("Import file must be a file name in the import directory: " + file);
+        }
+        return path;
+    }
+
+    private static Path sidecar(Path path, String suffix) {
+        return path.resolveSibling(path.getFileName() + suffix);
+    }
+
+    private static ImportStatus.Format format(String format, Path path) {
+        if (format != null) {
+            try {
+                return ImportStatus.Format.valueOf(format.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidImportException("Unsupported import format: " + format);
+            }
+        }
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return ImportStatus.Format.NDJSON;
+        }
+        if (name.endsWith(".csv")) {
+            return ImportStatus.Format.CSV;
+        }
+        throw new InvalidImportException("Cannot tell the format of " + path.getFileName() + ", pass format ndjson or csv");
+    }
+
+    /**
+     * The start of the first line at or after offset.
+     */
+    private static long alignToLine(Path path, long offset) {
+        if (offset == 0) {
+            return 0;
+        }
+        try (LineReader lines = new LineReader(path, offset - 1)) {
+            // Reading from the byte before offset ends the first line at offset if offset starts one
+            lines.next();
+            return lines.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+    }
+
+    private static Counter recordCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("sticker.import.records")
+            .tag("outcome", outcome)
+            .description("Records read by file imports")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Sleeps as long as needed to keep the import at or below max-rate records per second.
+     */
+    private void throttle(long startNanos, long records) {
+        if (maxRate <= 0) {
+            return;
+        }
+        long waitNanos = startNanos + records * 1_000_000_000L / maxRate - System.nanoTime();
+        if (waitNanos > 0) {
+            sleep(TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancelledException();
+        }
+    }
+
+    /**
+     * What the state file holds: the status at the checkpoint and how much of the errors file it covers.
+     */
+    record Checkpoint(ImportStatus status, long errorsLength) {}
+
+    private static final class ActiveImport {
+        final String file;
+        volatile Checkpoint checkpoint;
+        volatile boolean cancelled;
+
+        ActiveImport(String file) {
+            this.file = file;
+        }
+    }
+
+    /**
+     * Unwinds the read loop when an import is cancelled.
+     */
+    private static final class CancelledException extends RuntimeException {
+        CancelledException() {
+            super(null, null, false, false);
+        }
+    }
+
+    public static class InvalidImportException extends RuntimeException {
+        public InvalidImportException(String message) {
+            super(message);
+        }
+    }
+
+    public static class ImportConflictException extends RuntimeException {
+        public ImportConflictException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.looplink.stickerengine.service.leaderboard;
+
+import com.looplink.stickerengine.model.LeaderboardEntry;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Storage for leaderboards used by Leaderboards: one sorted set of shopper scores per board.
+ * Implementations are selected with the sticker-engine.leaderboard.backend property.
+ */
+public interface LeaderboardBackend {
+
+    /**
+     * Adds each increment to its shopper's score, creating boards and members as needed.
+     */
+    void increment(List<Increment> increments);
+
+    /**
+     * Up to limit entries, highest score first.
+     */
+    List<LeaderboardEntry> top(String board, int limit);
+
+    /**
+     * The shopper's entry, or empty if the shopper is not on the board.
+     */
+    Optional<LeaderboardEntry> find(String board, String shopperId);
+
+    long size(String board);
+
+    /**
+     * Starts building replacement boards. Boards are swapped in by {@link Rebuild#commit()}; boards
+     * the rebuild never touched keep their current contents.
+     */
+    Rebuild rebuild();
+
+    interface Rebuild {
+        /**
+         * Adds to the replacement boards; increments for the same member are summed.
+         */
+        void add(List<Increment> increments);
+
+        /**
+         * From now on, also applies live increments to the replacement boards whose names match, so
+         * commits a scan that starts next does not see are kept through the swap. Backends that
+         * cannot do this leave such commits to be lost from the rebuilt boards.
+         */
+        default void follow(Predicate<String> boards) {
+        }
+
+        void commit();
+
+        void abort();
+    }
+
+    record Increment(String board, String shopperId, long stickers) {}
+}
@@ -0,0 +1,288 @@
+package com.looplink.stickerengine.service.leaderboard;
+
+import com.looplink.stickerengine.model.Leaderboard;
+import com.looplink.stickerengine.model.LeaderboardEntry;
+import com.looplink.stickerengine.model.Transaction;
+import com.looplink.stickerengine.repository.LeaderboardRepository;
+import com.looplink.stickerengine.repository.LeaderboardRepository.StickerTotal;
+import com.looplink.stickerengine.service.DistributedLockService;
+import com.looplink.stickerengine.service.archive.TransactionArchive;
+import com.looplink.stickerengine.service.leaderboard.LeaderboardBackend.Increment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Top-collector leaderboards: a global board ranking sticker balances and one board per store ranking
+ * stickers earned there.
+ *
+ * Every balance change adds its stickers to the shopper's score on both boards once it commits, an
+ * O(log n) update on the backend (Redis sorted sets, or an in-memory skip list with
+ * sticker-engine.leaderboard.backend=local). Top-N and rank reads never touch the DB.
+ *
+ * Updates are best-effort: a failed increment is logged and counted, and a rebuild recomputes every
+ * board from shopper balances, DB transactions and the archive. Each DB scan reads from a snapshot
+ * taken when it starts, so the rebuild follows its boards from just before that point: the local
+ * backend then applies live increments to the replacement boards too. With Redis, increments that
+ * commit while a rebuild runs can be missed for the shoppers concerned, so rebuild when traffic is low.
+ */
+@Component
+public class Leaderboards {
+
+    private static final Logger log = LoggerFactory.getLogger(Leaderboards.class);
+
+    static final String GLOBAL_BOARD = "global";
+    private static final String STORE_BOARD_PREFIX = "store:";
+    private static final String REBUILD_LOCK_KEY = "leaderboard:rebuild";
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final LeaderboardBackend backend;
+    private final LeaderboardRepository repository;
+    private final TransactionArchive archive;
+    private final DistributedLockService lockService;
+    private final ExecutorService rebuilder;
+    private final boolean rebuildOnStartup;
+    private final Duration rebuildTimeout;
+    private final Counter updateFailures;
+
+    public Leaderboards(LeaderboardBackend backend,
+                        LeaderboardRepository repository,
+                        TransactionArchive archive,
+                        DistributedLockService lockService,
+                        MeterRegistry meterRegistry,
+                        @Value("${sticker-engine.leaderboard.rebuild-on-startup:true}") boolean rebuildOnStartup,
+                        @Value("${sticker-engine.leaderboard.rebuild-timeout:1h}") Duration rebuildTimeout) {
+        this.backend = backend;
+        this.repository = repository;
+        this.archive = archive;
+        this.lockService = lockService;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.rebuildTimeout = rebuildTimeout;
+        this.rebuilder = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "leaderboard-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.updateFailures = Counter.builder("sticker.leaderboard.update.failures")
+            .description("Leaderboard increments that could not be applied")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Adds newly stored transactions to the leaderboards. Inside a DB transaction the increments
+     * are applied once it commits; outside one, immediately.
+     */
+    public void record(Collection<Transaction> transactions) {
+        List<Increment> increments = new ArrayList<>(transactions.size() * 2);
+        for (Transaction tx : transactions) {
+            addIncrements(increments, tx.storeId(), tx.shopperId(), tx.stickersEarned());
+        }
+        afterCommit(increments);
+    }
+
+    /**
+     * Adjusts scores by sticker deltas that are not new transactions, such as re-score corrections.
+     * Applied on commit as for {@link #record}.
+     */
+    public void adjust(Collection<Change> changes) {
+        List<Increment> increments = new ArrayList<>(changes.size() * 2);
+        for (Change change : changes) {
+            addIncrements(increments, change.storeId(), change.shopperId(), change.stickers());
+        }
+        afterCommit(increments);
+    }
+
+    /**
+     * @param storeId the store's board, or null for the global board
+     */
+    public Leaderboard top(String storeId, int limit) {
+        try {
+            return new Leaderboard(storeId, backend.top(board(storeId), limit));
+        } catch (DataAccessException e) {
+            throw new LeaderboardUnavailableException("Leaderboard is temporarily unavailable");
+        }
+    }
+
+    /**
+     * @param storeId the store's board, or null for the global board
+     * @return empty if the shopper has no stickers on that board
+     */
+    public Optional<LeaderboardEntry> find(String storeId, String shopperId) {
+        try {
+            return backend.find(board(storeId), shopperId);
+        } catch (DataAccessException e) {
+            throw new LeaderboardUnavailableException("Leaderboard is temporarily unavailable");
+        }
+    }
+
+    /**
+     * Starts a rebuild of every board in the background.
+     * @throws RebuildInProgressException if a rebuild is already running on any node
+     */
+    public void startRebuild() {
+        String token = lockService.tryLock(REBUILD_LOCK_KEY, rebuildTimeout);
+        if (token == null) {
+            throw new RebuildInProgressException("A leaderboard rebuild is already running");
+        }
+        rebuilder.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Leaderboard rebuild failed: error={}", e.getMessage(), e);
+            } finally {
+                lockService.unlock(REBUILD_LOCK_KEY, token);
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the boards on startup when the global board is empty: the local backend always starts
+     * empty, and Redis may have lost its data.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        try {
+            if (backend.size(GLOBAL_BOARD) == 0) {
+                log.info("Leaderboards are empty, rebuilding from the DB");
+                startRebuild();
+            }
+        } catch (RebuildInProgressException e) {
+            log.info("Leaderboard rebuild already running on another node");
+        } catch (DataAccessException e) {
+            log.warn("Failed to check leaderboards on startup: error={}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        rebuilder.shutdownNow();
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        LeaderboardBackend.Rebuild rebuild = backend.rebuild();
+        try {
+            Batcher batcher = new Batcher(rebuild);
+            rebuild.follow(GLOBAL_BOARD::equals);
+            repository.streamBalances(total -> batcher.add(new Increment(GLOBAL_BOARD, total.shopperId(), total.stickers())));
+            // Archive first: its horizon is where the DB rows it does not cover begin
+            Consumer<StickerTotal> storeTotals = total ->
+                batcher.add(new Increment(board(total.storeId()), total.shopperId(), total.stickers()));
+            Instant horizon = archive.streamStoreTotals(storeTotals);
+            rebuild.follow(board -> board.startsWith(STORE_BOARD_PREFIX));
+            repository.streamStoreTotals(horizon, storeTotals);
+            batcher.flush();
+            rebuild.commit();
+            log.info("Leaderboards rebuilt: entries={}, horizon={}, elapsedMs={}",
+                    batcher.total, horizon, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            rebuild.abort();
+            throw e;
+        }
+    }
+
+    private void afterCommit(List<Increment> increments) {
+        if (increments.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(increments);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                increment(increments);
+            }
+        });
+    }
+
+    private void increment(List<Increment> increments) {
+        try {
+            backend.increment(increments);
+        } catch (DataAccessException e) {
+            updateFailures.increment(increments.size());
+            log.warn("Failed to update leaderboards, rebuild to recover: increments={}, error={}",
+                    increments.size(), e.getMessage());
+        }
+    }
+
+    private static void addIncrements(List<Increment> into, String storeId, String shopperId, int stickers) {
+        if (stickers == 0) {
+            return;
+        }
+        into.add(new Increment(GLOBAL_BOARD, shopperId, stickers));
+        into.add(new Increment(board(storeId), shopperId, stickers));
+    }
+
+    private static String board(String storeId) {
+        return storeId == null ? GLOBAL_BOARD : STORE_BOARD_PREFIX + storeId;
+    }
+
+    /**
+     * Hands rebuild rows to the backend in fixed-size batches.
+     */
+    private static final class Batcher {
+        private final LeaderboardBackend.Rebuild rebuild;
+        private final List<Increment> pending = new ArrayList<>(REBUILD_BATCH_SIZE);
+        private long total;
+
+        Batcher(LeaderboardBackend.Rebuild rebuild) {
+            this.rebuild = rebuild;
+        }
+
+        void add(Increment increment) {
+            pending.add(increment);
+            total++;
+            if (pending.size() == REBUILD_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!pending.isEmpty()) {
+                rebuild.add(List.copyOf(pending));
+                pending.clear();
+            }
+        }
+    }
+
+    /**
+     * A sticker delta for a shopper, counted toward the store it was earned at.
+     */
+    public record Change(String storeId, String shopperId, int stickers) {}
+
+    public static class LeaderboardUnavailableException extends RuntimeException {
+        public LeaderboardUnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    public static class RebuildInProgressException extends RuntimeException {
+        public RebuildInProgressException(String message) {
+            super(message);
+        }
+    }
+}
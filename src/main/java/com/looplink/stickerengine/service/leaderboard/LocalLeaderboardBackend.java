@@ -0,0 +1,174 @@
+package com.looplink.stickerengine.service.leaderboard;
+
+import com.looplink.stickerengine.model.LeaderboardEntry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * In-JVM leaderboard backend for single-node deployments or running without Redis.
+ *
+ * Each board is a {@link RankedSkipList} plus a member-to-score map, guarded by the board's monitor,
+ * so updates and rank lookups are O(log n) like the Redis backend. Boards live only in memory and
+ * are rebuilt from the DB on startup.
+ *
+ * While a rebuild follows a board, live increments are applied to its replacement as well, and the
+ * swap takes the write side of a read-write lock that every increment holds the read side of, so no
+ * increment lands in a board that is being swapped out.
+ *
+ * Only valid when a single application instance serves all traffic.
+ */
+@Component
+@ConditionalOnProperty(name = "sticker-engine.leaderboard.backend", havingValue = "local")
+public class LocalLeaderboardBackend implements LeaderboardBackend {
+
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Map<String, Board> boards = new ConcurrentHashMap<>();
+    private volatile Follower follower;
+
+    @Override
+    public void increment(List<Increment> increments) {
+        swapLock.readLock().lock();
+        try {
+            apply(boards, increments);
+            Follower current = follower;
+            if (current != null) {
+                current.apply(increments);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<LeaderboardEntry> top(String board, int limit) {
+        Board current = boards.get(board);
+        if (current == null) {
+            return List.of();
+        }
+        synchronized (current) {
+            return current.ranked.top(limit);
+        }
+    }
+
+    @Override
+    public Optional<LeaderboardEntry> find(String board, String shopperId) {
+        Board current = boards.get(board);
+        if (current == null) {
+            return Optional.empty();
+        }
+        synchronized (current) {
+            Long score = current.scores.get(shopperId);
+            if (score == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new LeaderboardEntry(current.ranked.rank(shopperId, score), shopperId, score));
+        }
+    }
+
+    @Override
+    public long size(String board) {
+        Board current = boards.get(board);
+        if (current == null) {
+            return 0;
+        }
+        synchronized (current) {
+            return current.ranked.size();
+        }
+    }
+
+    @Override
+    public Rebuild rebuild() {
+        Map<String, Board> replacement = new ConcurrentHashMap<>();
+        Follower rebuildFollower = new Follower(replacement);
+        return new Rebuild() {
+            @Override
+            public void add(List<Increment> increments) {
+                apply(replacement, increments);
+            }
+
+            @Override
+            public void follow(Predicate<String> boardNames) {
+                rebuildFollower.filters.add(boardNames);
+                follower = rebuildFollower;
+            }
+
+            @Override
+            public void commit() {
+                swapLock.writeLock().lock();
+                try {
+                    Map<String, Board> merged = new ConcurrentHashMap<>(boards);
+                    merged.putAll(replacement);
+                    boards = merged;
+                    follower = null;
+                } finally {
+                    swapLock.writeLock().unlock();
+                }
+            }
+
+            @Override
+            public void abort() {
+                if (follower == rebuildFollower) {
+                    follower = null;
+                }
+                replacement.clear();
+            }
+        };
+    }
+
+    private static void apply(Map<String, Board> target, List<Increment> increments) {
+        for (Increment increment : increments) {
+            Board board = target.computeIfAbsent(increment.board(), key -> new Board());
+            synchronized (board) {
+                board.add(increment.shopperId(), increment.stickers());
+            }
+        }
+    }
+
+    /**
+     * Live increments forwarded to a rebuild's replacement boards, for the boards it follows.
+     */
+    private static final class Follower {
+        final Map<String, Board> replacement;
+        final List<Predicate<String>> filters = new CopyOnWriteArrayList<>();
+
+        Follower(Map<String, Board> replacement) {
+            this.replacement = replacement;
+        }
+
+        void apply(List<Increment> increments) {
+            for (Increment increment : increments) {
+                for (Predicate<String> filter : filters) {
+                    if (filter.test(increment.board())) {
+                        LocalLeaderboardBackend.apply(replacement, List.of(increment));
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Board {
+        final Map<String, Long> scores = new HashMap<>();
+        final RankedSkipList ranked = new RankedSkipList();
+
+        void add(String shopperId, long stickers) {
+            Long old = scores.get(shopperId);
+            long score = stickers;
+            if (old != null) {
+                ranked.remove(shopperId, old);
+                score += old;
+            }
+            scores.put(shopperId, score);
+            ranked.insert(shopperId, score);
+        }
+    }
+}
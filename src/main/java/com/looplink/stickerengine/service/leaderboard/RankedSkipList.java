@@ -0,0 +1,153 @@
+package com.looplink.stickerengine.service.leaderboard;
+
+import com.looplink.stickerengine.model.LeaderboardEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Skip list of (member, score) pairs with per-link spans, the structure behind Redis sorted sets.
+ *
+ * Members are ordered by score, then member, both descending, which is the order ZREVRANGE returns.
+ * Each forward link records how many nodes it skips, so insert, remove and rank are all O(log n)
+ * expected; top-N walks the bottom level. Not thread-safe.
+ */
+final class RankedSkipList {
+
+    private static final int MAX_LEVEL = 32;
+    private static final int LEVEL_UP_ONE_IN = 4;
+
+    private final Node head = new Node(null, 0, MAX_LEVEL);
+    private int level = 1;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds the member; it must not already be present.
+     */
+    void insert(String member, long score) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && precedes(x.next[i], member, score)) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = nodeLevel;
+        }
+        x = new Node(member, score, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            x.next[i] = update[i].next[i];
+            update[i].next[i] = x;
+            x.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+    }
+
+    /**
+     * Removes the member stored with the given score.
+     * @return false if it was not present with that score
+     */
+    boolean remove(String member, long score) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && precedes(x.next[i], member, score)) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        x = x.next[0];
+        if (x == null || x.score != score || !x.member.equals(member)) {
+            return false;
+        }
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == x) {
+                update[i].span[i] += x.span[i] - 1;
+                update[i].next[i] = x.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * 1-based rank of the member stored with the given score, or 0 if it is not present.
+     */
+    long rank(String member, long score) {
+        Node x = head;
+        long rank = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && (precedes(x.next[i], member, score)
+                    || (x.next[i].score == score && x.next[i].member.equals(member)))) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x != head && x.member.equals(member)) {
+                return rank;
+            }
+        }
+        return 0;
+    }
+
+    List<LeaderboardEntry> top(int limit) {
+        List<LeaderboardEntry> entries = new ArrayList<>(Math.min(limit, size));
+        Node x = head.next[0];
+        while (x != null && entries.size() < limit) {
+            entries.add(new LeaderboardEntry(entries.size() + 1, x.member, x.score));
+            x = x.next[0];
+        }
+        return entries;
+    }
+
+    private static boolean precedes(Node node, String member, long score) {
+        return node.score > score || (node.score == score && node.member.compareTo(member) > 0);
+    }
+
+    private static int randomLevel() {
+        int nodeLevel = 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (nodeLevel < MAX_LEVEL && random.nextInt(LEVEL_UP_ONE_IN) == 0) {
+            nodeLevel++;
+        }
+        return nodeLevel;
+    }
+
+    private static final class Node {
+        final String member;
+        final long score;
+        final Node[] next;
+        final int[] span;
+
+        Node(String member, long score, int level) {
+            this.member = member;
+            this.score = score;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+}
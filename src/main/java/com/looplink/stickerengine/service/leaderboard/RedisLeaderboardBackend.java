@@ -0,0 +1,126 @@
+package com.looplink.stickerengine.service.leaderboard;
+
+import com.looplink.stickerengine.model.LeaderboardEntry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Redis leaderboard backend: one sorted set per board, shared by all nodes.
+ *
+ * Updates are ZINCRBY, O(log n) and commutative, so commits from different nodes may land in any
+ * order. Increments for one commit go in a single pipelined round-trip. A rebuild fills
+ * {@value #REBUILD_KEY_PREFIX} copies and RENAMEs each over its live board, so readers never see a
+ * half-built board.
+ */
+@Component
+@ConditionalOnProperty(name = "sticker-engine.leaderboard.backend", havingValue = "redis", matchIfMissing = true)
+public class RedisLeaderboardBackend implements LeaderboardBackend {
+
+    private static final String KEY_PREFIX = "leaderboard:";
+    private static final String REBUILD_KEY_PREFIX = "leaderboard:rebuild:";
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisLeaderboardBackend(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void increment(List<Increment> increments) {
+        incrementAll(KEY_PREFIX, increments, null);
+    }
+
+    @Override
+    public List<LeaderboardEntry> top(String board, int limit) {
+        Set<ZSetOperations.TypedTuple<String>> tuples =
+            redisTemplate.opsForZSet().reverseRangeWithScores(KEY_PREFIX + board, 0, limit - 1);
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        if (tuples != null) {
+            for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                entries.add(new LeaderboardEntry(entries.size() + 1, tuple.getValue(), tuple.getScore().longValue()));
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public Optional<LeaderboardEntry> find(String board, String shopperId) {
+        String key = KEY_PREFIX + board;
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.zRevRank(key, shopperId);
+            stringConnection.zScore(key, shopperId);
+            return null;
+        });
+        if (!(results.get(0) instanceof Long rank) || !(results.get(1) instanceof Double score)) {
+            return Optional.empty();
+        }
+        return Optional.of(new LeaderboardEntry(rank + 1, shopperId, score.longValue()));
+    }
+
+    @Override
+    public long size(String board) {
+        Long size = redisTemplate.opsForZSet().zCard(KEY_PREFIX + board);
+        return size != null ? size : 0;
+    }
+
+    @Override
+    public Rebuild rebuild() {
+        Set<String> boards = new HashSet<>();
+        return new Rebuild() {
+            @Override
+            public void add(List<Increment> increments) {
+                incrementAll(REBUILD_KEY_PREFIX, increments, boards);
+            }
+
+            @Override
+            public void commit() {
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                    for (String board : boards) {
+                        stringConnection.rename(REBUILD_KEY_PREFIX + board, KEY_PREFIX + board);
+                    }
+                    return null;
+                });
+            }
+
+            @Override
+            public void abort() {
+                if (!boards.isEmpty()) {
+                    redisTemplate.delete(boards.stream().map(board -> REBUILD_KEY_PREFIX + board).toList());
+                }
+            }
+        };
+    }
+
+    /**
+     * @param started boards this rebuild has written to; a board's leftover copy from an interrupted
+     *                rebuild is deleted before its first increment. Null for live updates.
+     */
+    private void incrementAll(String prefix, List<Increment> increments, Set<String> started) {
+        if (increments.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (Increment increment : increments) {
+                String key = prefix + increment.board();
+                if (started != null && started.add(increment.board())) {
+                    stringConnection.del(key);
+                }
+                stringConnection.zIncrBy(key, increment.stickers(), increment.shopperId());
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,126 @@
+package com.looplink.stickerengine.service.lock;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-JVM per-key lock backend for single-node deployments.
+ *
+ * Each lock key has its own entry, so, as with Redis keys, only callers of the same key exclude each
+ * other. An entry is reference-counted by its holder and waiters and removed when the last of them
+ * leaves, so memory is bounded by the locks in use rather than by the shoppers ever seen. Acquire and
+ * release are a map update, a CAS and a semaphore permit, with no network round-trip. Each entry's
+ * semaphore is fair, so waiters are served FIFO.
+ *
+ * Only valid when a single application instance serves all traffic.
+ */
+@Component
+@ConditionalOnProperty(name = "sticker-engine.lock.backend", havingValue = "local")
+public class LocalLockBackend implements LockBackend {
+
+    private final ConcurrentHashMap<String, KeyLock> locks = new ConcurrentHashMap<>();
+    private final AtomicLong tokenSequence = new AtomicLong();
+
+    @Override
+    public String tryLock(String lockKey, Duration ttl) {
+        return lock(lockKey, ttl, Duration.ZERO);
+    }
+
+    @Override
+    public String lock(String lockKey, Duration ttl, Duration maxWait) {
+        KeyLock lock = retain(lockKey);
+        Holder mine = new Holder(Long.toString(tokenSequence.incrementAndGet()), 0L);
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                long remaining = Math.max(0L, deadline - now);
+                // Wake up no later than the current holder's expiry so it can be taken over
+                Holder current = lock.holder.get();
+                long slice = current == null ? remaining : Math.min(remaining, Math.max(0L, current.expiresAtNanos() - now));
+                // The timed variant honours fairness, unlike the untimed tryAcquire()
+                if (lock.permit.tryAcquire(slice, TimeUnit.NANOSECONDS)) {
+                    Holder held = mine.expiringAt(System.nanoTime() + ttl.toNanos());
+                    lock.holder.set(held);
+                    return held.token();
+                }
+                // Same as a Redis key expiring: a holder past its TTL can be taken over. The permit
+                // stays taken and is handed to the new holder, and the expired holder's reference
+                // is dropped, since its unlock will no longer match.
+                current = lock.holder.get();
+                if (current != null && current.isExpired(System.nanoTime())) {
+                    Holder held = mine.expiringAt(System.nanoTime() + ttl.toNanos());
+                    if (lock.holder.compareAndSet(current, held)) {
+                        release(lockKey);
+                        return held.token();
+                    }
+                }
+                if (deadline - System.nanoTime() <= 0) {
+                    release(lockKey);
+                    return null;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            release(lockKey);
+            return null;
+        }
+    }
+
+    @Override
+    public boolean unlock(String lockKey, String token) {
+        KeyLock lock = locks.get(lockKey);
+        if (lock == null) {
+            return false;
+        }
+        Holder current = lock.holder.get();
+        if (current == null || !current.token().equals(token) || !lock.holder.compareAndSet(current, null)) {
+            return false;
+        }
+        lock.permit.release();
+        release(lockKey);
+        return true;
+    }
+
+    /**
+     * Takes a reference on the key's entry, creating it if needed.
+     */
+    private KeyLock retain(String lockKey) {
+        return locks.compute(lockKey, (key, lock) -> {
+            KeyLock result = lock != null ? lock : new KeyLock();
+            result.references++;
+            return result;
+        });
+    }
+
+    /**
+     * Drops a reference, removing the entry with the last one.
+     */
+    private void release(String lockKey) {
+        locks.computeIfPresent(lockKey, (key, lock) -> --lock.references == 0 ? null : lock);
+    }
+
+    private static final class KeyLock {
+        final Semaphore permit = new Semaphore(1, true);
+        final AtomicReference<Holder> holder = new AtomicReference<>();
+        /** Holder plus waiters; only changed inside the map's compute functions. */
+        int references;
+    }
+
+    private record Holder(String token, long expiresAtNanos) {
+        Holder expiringAt(long nanos) {
+            return new Holder(token, nanos);
+        }
+
+        boolean isExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos > 0;
+        }
+    }
+}
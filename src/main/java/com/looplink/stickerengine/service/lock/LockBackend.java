@@ -0,0 +1,31 @@
+package com.looplink.stickerengine.service.lock;
+
+import java.time.Duration;
+
+/**
+ * Storage backend for shopper mutual exclusion used by DistributedLockService.
+ * Implementations are selected with the sticker-engine.lock.backend property.
+ */
+public interface LockBackend {
+
+    /**
+     * Attempts to acquire the lock without waiting.
+     * @param lockKey the key to lock on
+     * @param ttl lock expiration time, after which another caller may take the lock over
+     * @return lock token if acquired, null if lock not available
+     */
+    String tryLock(String lockKey, Duration ttl);
+
+    /**
+     * Acquires the lock, waiting up to maxWait for the current holder to release it.
+     * Waiters are woken on release rather than polling, and are served in arrival order.
+     * @return lock token if acquired, null if maxWait elapsed or the thread was interrupted
+     */
+    String lock(String lockKey, Duration ttl, Duration maxWait);
+
+    /**
+     * Releases the lock if the token matches the current holder.
+     * @return true if lock was released, false if lock was not held or token mismatch
+     */
+    boolean unlock(String lockKey, String token);
+}
@@ -0,0 +1,182 @@
+package com.looplink.stickerengine.service.lock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis lock backend: SET NX PX to acquire, compare-and-delete script to release.
+ * Safe across any number of application nodes.
+ *
+ * Releasing a lock publishes the lock key on {@value #RELEASE_CHANNEL}. Threads waiting for a
+ * lock queue up per key on this node and only the head of the queue is woken, so waiters on one
+ * node are served in arrival order. Pub/sub is at-most-once, so waiters also re-check every
+ * sticker-engine.lock.wait-recheck in case a notification or a TTL expiry was missed.
+ */
+@Component
+@ConditionalOnProperty(name = "sticker-engine.lock.backend", havingValue = "redis", matchIfMissing = true)
+public class RedisLockBackend implements LockBackend, MessageListener {
+
+    private static final String LOCK_KEY_PREFIX = "lock:";
+    private static final String RELEASE_CHANNEL = "lock:released";
+
+    private static final String UNLOCK_SCRIPT =
+        "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+        "    redis.call('del', KEYS[1]) " +
+        "    redis.call('publish', ARGV[2], ARGV[3]) " +
+        "    return 1 " +
+        "else " +
+        "    return 0 " +
+        "end";
+
+    private final StringRedisTemplate redisTemplate;
+    private final DefaultRedisScript<Long> unlockScript;
+    private final long recheckNanos;
+    private final ConcurrentHashMap<String, Queue<Waiter>> waiters = new ConcurrentHashMap<>();
+
+    public RedisLockBackend(StringRedisTemplate redisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            @Value("${sticker-engine.lock.wait-recheck:250ms}") Duration recheckInterval) {
+        this.redisTemplate = redisTemplate;
+        this.unlockScript = new DefaultRedisScript<>();
+        this.unlockScript.setScriptText(UNLOCK_SCRIPT);
+        this.unlockScript.setResultType(Long.class);
+        this.recheckNanos = recheckInterval.toNanos();
+        listenerContainer.addMessageListener(this, new ChannelTopic(RELEASE_CHANNEL));
+    }
+
+    @Override
+    public String tryLock(String lockKey, Duration ttl) {
+        String key = LOCK_KEY_PREFIX + lockKey;
+        String token = UUID.randomUUID().toString();
+        Boolean success = redisTemplate.opsForValue().setIfAbsent(key, token, ttl);
+        return Boolean.TRUE.equals(success) ? token : null;
+    }
+
+    @Override
+    public String lock(String lockKey, Duration ttl, Duration maxWait) {
+        // Only barge in when nobody on this node is already queued for the key
+        if (!waiters.containsKey(lockKey)) {
+            String token = tryLock(lockKey, ttl);
+            if (token != null || maxWait.isZero()) {
+                return token;
+            }
+        }
+
+        Waiter me = new Waiter();
+        enqueue(lockKey, me);
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        boolean acquired = false;
+        try {
+            while (true) {
+                if (isHead(lockKey, me)) {
+                    String token = tryLock(lockKey, ttl);
+                    if (token != null) {
+                        acquired = true;
+                        return token;
+                    }
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                me.signal.tryAcquire(Math.min(remaining, recheckNanos), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            dequeue(lockKey, me);
+            if (!acquired) {
+                // We may have swallowed a release notification; pass it on
+                signalHead(lockKey);
+            }
+        }
+    }
+
+    @Override
+    public boolean unlock(String lockKey, String token) {
+        String key = LOCK_KEY_PREFIX + lockKey;
+        Long result = redisTemplate.execute(unlockScript, Collections.singletonList(key), token, RELEASE_CHANNEL, lockKey);
+        boolean released = result != null && result > 0;
+        if (released) {
+            // Wake local waiters without waiting for our own notification to come back
+            signalHead(lockKey);
+        }
+        return released;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        signalHead(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Redis key holding the lock, for scripts that combine locking with other commands.
+     */
+    public String keyFor(String lockKey) {
+        return LOCK_KEY_PREFIX + lockKey;
+    }
+
+    /**
+     * Channel that scripts releasing a lock must publish the lock key on.
+     */
+    public String releaseChannel() {
+        return RELEASE_CHANNEL;
+    }
+
+    /**
+     * Wakes local waiters after a script outside this class released a lock.
+     */
+    public void onReleased(String lockKey) {
+        signalHead(lockKey);
+    }
+
+    private void enqueue(String lockKey, Waiter waiter) {
+        waiters.compute(lockKey, (key, queue) -> {
+            Queue<Waiter> q = queue != null ? queue : new ConcurrentLinkedQueue<>();
+            q.add(waiter);
+            return q;
+        });
+    }
+
+    private void dequeue(String lockKey, Waiter waiter) {
+        waiters.computeIfPresent(lockKey, (key, queue) -> {
+            queue.remove(waiter);
+            return queue.isEmpty() ? null : queue;
+        });
+    }
+
+    private boolean isHead(String lockKey, Waiter waiter) {
+        Queue<Waiter> queue = waiters.get(lockKey);
+        return queue != null && queue.peek() == waiter;
+    }
+
+    private void signalHead(String lockKey) {
+        Queue<Waiter> queue = waiters.get(lockKey);
+        Waiter head = queue != null ? queue.peek() : null;
+        if (head != null) {
+            head.signal.release();
+        }
+    }
+
+    private static final class Waiter {
+        final Semaphore signal = new Semaphore(0);
+    }
+}
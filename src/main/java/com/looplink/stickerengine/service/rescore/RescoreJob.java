@@ -0,0 +1,450 @@
+package com.looplink.stickerengine.service.rescore;
+
+import com.looplink.stickerengine.model.RescoreCorrection;
+import com.looplink.stickerengine.model.RescoreRequest;
+import com.looplink.stickerengine.model.RescoreRun;
+import com.looplink.stickerengine.model.Transaction;
+import com.looplink.stickerengine.model.TransactionRequest;
+import com.looplink.stickerengine.repository.CampaignRuleRepository;
+import com.looplink.stickerengine.repository.RescoreRepository;
+import com.looplink.stickerengine.repository.RescoreRepository.Checkpoint;
+import com.looplink.stickerengine.repository.RescoreRepository.Rescored;
+import com.looplink.stickerengine.repository.RescoreRepository.StoredTransaction;
+import com.looplink.stickerengine.repository.TransactionBatchRepository;
+import com.looplink.stickerengine.service.ShopperCache;
+import com.looplink.stickerengine.service.StickerCalculator;
+import com.looplink.stickerengine.service.archive.TransactionArchive;
+import com.looplink.stickerengine.service.leaderboard.Leaderboards;
+import com.looplink.stickerengine.service.rollup.StoreRollups;
+import com.looplink.stickerengine.service.rule.BasketContext;
+import com.looplink.stickerengine.service.rule.RuleSet;
+import com.looplink.stickerengine.service.rule.RuleSetProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Re-scores stored transactions against a campaign rule version and corrects stickers and balances.
+ *
+ * One run at a time executes on a background thread. It streams transactions with their items from a
+ * server-side cursor in (shopper_id, timestamp, id) order, one page per cursor, and cuts the stream
+ * into batches at shopper boundaries. Each batch is scored on a fork-join pool; the changed rows, the
+ * per-shopper balance deltas and the run checkpoint are then written in one DB transaction with
+ * batched statements, so a resumed run continues exactly where the last commit left off and never
+ * applies a delta twice.
+ *
+ * A run is executed only under a lease in rescore_runs: starting or resuming claims it with a
+ * conditional update that fails while another node's lease is current, and every batch renews the
+ * lease in its own DB transaction, rolling back if the lease was lost. Each row update also requires
+ * the sticker count the run read, and only the rows actually updated feed balance deltas, rollups and
+ * leaderboards, so a transaction is never corrected twice.
+ *
+ * Balances are adjusted with the same atomic increment live writes use, so no shopper lock is needed
+ * and the job can run next to live traffic; max-rate caps its transactions per second. A dry run
+ * records the differences in rescore_corrections without touching transactions or balances.
+ * Transactions before the archive horizon are not re-scored: archive files keep the stickers they were
+ * written with, and the archive job drops a partition as long as its row count matches, so a correction
+ * there would be lost from history while balances kept it. The horizon is re-read for every page.
+ */
+@Component
+@ConditionalOnProperty(name = "sticker-engine.rescore.enabled", havingValue = "true")
+public class RescoreJob {
+
+    private static final Logger log = LoggerFactory.getLogger(RescoreJob.class);
+
+    /** Transactions scored per fork-join leaf task. */
+    private static final int SCORE_THRESHOLD = 64;
+
+    private final RescoreRepository repository;
+    private final TransactionBatchRepository batchRepository;
+    private final CampaignRuleRepository ruleRepository;
+    private final RuleSetProvider ruleSetProvider;
+    private final StickerCalculator stickerCalculator;
+    private final ShopperCache shopperCache;
+    private final StoreRollups rollups;
+    private final Leaderboards leaderboards;
+    private final TransactionArchive archive;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService runner;
+    private final ForkJoinPool scoringPool;
+    private final int batchSize;
+    private final int pageSize;
+    private final int maxRate;
+    private final Duration lease;
+    private final Counter scannedCounter;
+    private final Counter correctedCounter;
+    private final AtomicReference<ActiveRun> active = new AtomicReference<>();
+
+    public RescoreJob(RescoreRepository repository,
+                      TransactionBatchRepository batchRepository,
+                      CampaignRuleRepository ruleRepository,
+                      RuleSetProvider ruleSetProvider,
+                      StickerCalculator stickerCalculator,
+                      ShopperCache shopperCache,
+                      StoreRollups rollups,
+                      Leaderboards leaderboards,
+                      TransactionArchive archive,
+                      PlatformTransactionManager transactionManager,
+                      MeterRegistry meterRegistry,
+                      @Value("${sticker-engine.rescore.batch-size:1000}") int batchSize,
+                      @Value("${sticker-engine.rescore.page-size:50000}") int pageSize,
+                      @Value("${sticker-engine.rescore.parallelism:0}") int parallelism,
+                      @Value("${sticker-engine.rescore.max-rate:2000}") int maxRate,
+                      @Value("${sticker-engine.rescore.lease:2m}") Duration lease) {
+        this.repository = repository;
+        this.batchRepository = batchRepository;
+        this.ruleRepository = ruleRepository;
+        this.ruleSetProvider = ruleSetProvider;
+        this.stickerCalculator = stickerCalculator;
+        this.shopperCache = shopperCache;
+        this.rollups = rollups;
+        this.leaderboards = leaderboards;
+        this.archive = archive;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.pageSize = pageSize;
+        this.maxRate = maxRate;
+        this.lease = lease;
+        this.runner = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "rescore-runner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Half the cores by default, leaving the rest to live traffic
+        this.scoringPool = new ForkJoinPool(parallelism > 0
+            ? parallelism
+            : Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        this.scannedCounter = Counter.builder("sticker.rescore.transactions")
+            .tag("outcome", "scanned")
+            .description("Transactions scored by re-score runs")
+            .register(meterRegistry);
+        this.correctedCounter = Counter.builder("sticker.rescore.transactions")
+            .tag("outcome", "corrected")
+            .description("Transactions scored by re-score runs")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Creates a run and starts it in the background.
+     * @throws InvalidRescoreException if the rule version does not exist or the time range is empty
+     * @throws RescoreConflictException if a run is already executing on this node
+     */
+    public RescoreRun start(RescoreRequest request) {
+        int version = request.ruleVersion() != null ? request.ruleVersion() : ruleSetProvider.current().version();
+        RuleSet rules = ruleRepository.findByVersion(version)
+            .orElseThrow(() -> new InvalidRescoreException("Campaign rule set not found: version=" + version));
+        if (request.from() != null && request.to() != null && !request.from().isBefore(request.to())) {
+            throw new InvalidRescoreException("from must be before to");
+        }
+        ActiveRun run = claim();
+        try {
+            long id = repository.createRun(version, request.dryRun(), request.from(), request.to(), run.owner, lease);
+            RescoreRun created = repository.findRun(id).orElseThrow();
+            launch(run, created, rules);
+            log.info("Re-score started: runId={}, ruleVersion={}, dryRun={}, from={}, to={}",
+                    id, version, request.dryRun(), request.from(), request.to());
+            return created;
+        } catch (RuntimeException e) {
+            active.compareAndSet(run, null);
+            throw e;
+        }
+    }
+
+    /**
+     * Continues a failed, cancelled or interrupted run from its checkpoint.
+     * @throws RescoreConflictException if the run completed, a run is already executing on this node,
+     *         or another node holds the run's lease
+     */
+    public Optional<RescoreRun> resume(long id) {
+        Optional<RescoreRun> found = repository.findRun(id);
+        if (found.isEmpty()) {
+            return found;
+        }
+        RescoreRun stored = found.get();
+        if (stored.status() == RescoreRun.Status.COMPLETED) {
+            throw new RescoreConflictException("Re-score run already completed: " + id);
+        }
+        RuleSet rules = ruleRepository.findByVersion(stored.ruleVersion())
+            .orElseThrow(() -> new InvalidRescoreException("Campaign rule set not found: version=" + stored.ruleVersion()));
+        ActiveRun run = claim();
+        try {
+            if (!repository.claimRun(id, run.owner, lease)) {
+                throw new RescoreConflictException("Re-score run is completed or executing on another node: " + id);
+            }
+            launch(run, stored, rules);
+            log.info("Re-score resumed: runId={}", id);
+            return repository.findRun(id);
+        } catch (RuntimeException e) {
+            active.compareAndSet(run, null);
+            throw e;
+        }
+    }
+
+    /**
+     * Asks the run to stop after its current batch; it can be resumed later.
+     * @throws RescoreConflictException if the run is not executing on this node
+     */
+    public Optional<RescoreRun> cancel(long id) {
+        ActiveRun run = active.get();
+        if (run == null || run.id != id) {
+            if (repository.findRun(id).isEmpty()) {
+                return Optional.empty();
+            }
+            throw new RescoreConflictException("Re-score run is not executing on this node: " + id);
+        }
+        run.cancelled = true;
+        return repository.findRun(id);
+    }
+
+    public Optional<RescoreRun> find(long id) {
+        return repository.findRun(id);
+    }
+
+    public List<RescoreCorrection> findCorrections(long id, int limit) {
+        return repository.findCorrections(id, limit);
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        ActiveRun run = active.get();
+        if (run != null) {
+            run.cancelled = true;
+        }
+        runner.shutdown();
+        runner.awaitTermination(30, TimeUnit.SECONDS);
+        scoringPool.shutdown();
+    }
+
+    private ActiveRun claim() {
+        ActiveRun run = new ActiveRun();
+        if (!active.compareAndSet(null, run)) {
+            throw new RescoreConflictException("A re-score run is already executing: " + active.get().id);
+        }
+        return run;
+    }
+
+    private void launch(ActiveRun run, RescoreRun stored, RuleSet rules) {
+        run.id = stored.id();
+        runner.execute(() -> {
+            try {
+                execute(run, stored, rules);
+            } finally {
+                active.compareAndSet(run, null);
+            }
+        });
+    }
+
+    private void execute(ActiveRun run, RescoreRun stored, RuleSet rules) {
+        long startNanos = System.nanoTime();
+        long[] processed = new long[1];
+        List<StoredTransaction> batch = new ArrayList<>(batchSize);
+        try {
+            Checkpoint after = repository.findCheckpoint(stored.id()).orElse(null);
+            int read;
+            do {
+                read = repository.streamTransactions(scanFrom(stored), stored.to(), after, pageSize, row -> {
+                    if (batch.size() >= batchSize
+                            && !batch.get(batch.size() - 1).transaction().shopperId().equals(row.transaction().shopperId())) {
+                        processed[0] += processBatch(run, stored, rules, batch);
+                        batch.clear();
+                        throttle(startNanos, processed[0]);
+                    }
+                    batch.add(row);
+                });
+                // Read position, which runs ahead of the committed checkpoint by the batch still in memory
+                if (!batch.isEmpty()) {
+                    after = batch.get(batch.size() - 1).checkpoint();
+                }
+            } while (read == pageSize);
+            processBatch(run, stored, rules, batch);
+            repository.finishRun(stored.id(), run.owner, RescoreRun.Status.COMPLETED, null);
+            log.info("Re-score completed: runId={}", stored.id());
+        } catch (CancelledException e) {
+            repository.finishRun(stored.id(), run.owner, RescoreRun.Status.CANCELLED, null);
+            log.info("Re-score cancelled: runId={}", stored.id());
+        } catch (RescoreRepository.LeaseLostException e) {
+            log.warn("Re-score stopped, its lease was taken over: runId={}", stored.id());
+        } catch (RuntimeException e) {
+            log.error("Re-score failed: runId={}, error={}", stored.id(), e.getMessage(), e);
+            String error = String.valueOf(e.getMessage());
+            repository.finishRun(stored.id(), run.owner, RescoreRun.Status.FAILED,
+                error.length() > 512 ? error.substring(0, 512) : error);
+        }
+    }
+
+    /**
+     * Lower timestamp bound for the next page: the run's own, raised to the archive horizon.
+     */
+    private Instant scanFrom(RescoreRun stored) {
+        Instant horizon = archive.horizon();
+        if (horizon == null || (stored.from() != null && !stored.from().isBefore(horizon))) {
+            return stored.from();
+        }
+        return horizon;
+    }
+
+    /**
+     * Scores one batch and commits its corrections together with the checkpoint.
+     */
+    private int processBatch(ActiveRun run, RescoreRun stored, RuleSet rules, List<StoredTransaction> batch) {
+        if (run.cancelled) {
+            throw new CancelledException();
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int[] stickers = new int[batch.size()];
+        scoringPool.invoke(new ScoreTask(batch, stickers, rules, 0, batch.size()));
+
+        List<Rescored> corrections = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (stickers[i] != batch.get(i).transaction().stickersEarned()) {
+                corrections.add(new Rescored(batch.get(i), stickers[i]));
+            }
+        }
+
+        Checkpoint checkpoint = batch.get(batch.size() - 1).checkpoint();
+        Map<String, Integer> deltaByShopper = new LinkedHashMap<>();
+        List<Rescored> applied = transactionTemplate.execute(status -> {
+            // Rows whose stickers changed since they were read are skipped, and left out of every delta
+            List<Rescored> written = stored.dryRun()
+                ? corrections
+                : repository.updateStickers(corrections, stored.ruleVersion());
+            repository.insertCorrections(stored.id(), written);
+            long stickerDelta = 0;
+            for (Rescored rescored : written) {
+                int delta = rescored.stickers() - rescored.row().transaction().stickersEarned();
+                deltaByShopper.merge(rescored.row().transaction().shopperId(), delta, Integer::sum);
+                stickerDelta += delta;
+            }
+            deltaByShopper.values().removeIf(delta -> delta == 0);
+            if (!stored.dryRun()) {
+                batchRepository.incrementBalances(deltaByShopper);
+            }
+            repository.recordProgress(stored.id(), run.owner, lease, checkpoint,
+                batch.size(), written.size(), stickerDelta);
+            return written;
+        });
+        if (!stored.dryRun()) {
+            // Only after the commit, so a batch rolled back on a lost lease leaves no trace
+            List<Leaderboards.Change> changes = new ArrayList<>(applied.size());
+            for (Rescored rescored : applied) {
+                Transaction tx = rescored.row().transaction();
+                int delta = rescored.stickers() - tx.stickersEarned();
+                rollups.recordStickerCorrection(tx, delta);
+                changes.add(new Leaderboards.Change(tx.storeId(), tx.shopperId(), delta));
+            }
+            leaderboards.adjust(changes);
+            shopperCache.invalidate(deltaByShopper.keySet());
+        }
+        scannedCounter.increment(batch.size());
+        correctedCounter.increment(applied.size());
+        log.debug("Re-score batch committed: runId={}, scanned={}, corrected={}, skipped={}",
+                stored.id(), batch.size(), applied.size(), corrections.size() - applied.size());
+        return batch.size();
+    }
+
+    /**
+     * Sleeps as long as needed to keep the run at or below max-rate transactions per second.
+     */
+    private void throttle(long startNanos, long processed) {
+        if (maxRate <= 0) {
+            return;
+        }
+        long dueNanos = startNanos + processed * 1_000_000_000L / maxRate;
+        long waitNanos = dueNanos - System.nanoTime();
+        if (waitNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancelledException();
+        }
+    }
+
+    /**
+     * Scores a range of a batch, splitting it in halves down to SCORE_THRESHOLD transactions.
+     */
+    private final class ScoreTask extends RecursiveAction {
+        private final List<StoredTransaction> batch;
+        private final int[] stickers;
+        private final RuleSet rules;
+        private final int from;
+        private final int to;
+
+        ScoreTask(List<StoredTransaction> batch, int[] stickers, RuleSet rules, int from, int to) {
+            this.batch = batch;
+            this.stickers = stickers;
+            this.rules = rules;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SCORE_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    Transaction tx = batch.get(i).transaction();
+                    TransactionRequest request = new TransactionRequest(
+                        tx.transactionId(), tx.shopperId(), tx.storeId(), tx.timestamp(), tx.items());
+                    stickers[i] = stickerCalculator.calculate(BasketContext.of(request, rules));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ScoreTask(batch, stickers, rules, from, mid), new ScoreTask(batch, stickers, rules, mid, to));
+        }
+    }
+
+    private static final class ActiveRun {
+        /** Lease owner in rescore_runs, unique to this execution. */
+        final String owner = UUID.randomUUID().toString();
+        volatile long id;
+        volatile boolean cancelled;
+    }
+
+    /**
+     * Unwinds the cursor scan when a run is cancelled.
+     */
+    private static final class CancelledException extends RuntimeException {
+        CancelledException() {
+            super(null, null, false, false);
+        }
+    }
+
+    public static class InvalidRescoreException extends RuntimeException {
+        public InvalidRescoreException(String message) {
+            super(message);
+        }
+    }
+
+    public static class RescoreConflictException extends RuntimeException {
+        public RescoreConflictException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.looplink.stickerengine.service.rollup;
+
+import com.looplink.stickerengine.model.RollupGranularity;
+import com.looplink.stickerengine.model.RollupReport;
+import com.looplink.stickerengine.model.Transaction;
+import com.looplink.stickerengine.repository.StoreRollupRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-store campaign rollups (transactions, stickers issued, spend, promo units per UTC hour and day),
+ * kept current without per-request writes.
+ *
+ * Committed transactions add to in-memory deltas keyed by (store, hour). A scheduled flush drains them
+ * and applies them with one batched additive upsert per table, deriving the daily deltas from the
+ * hourly ones, so the write path touches no rollup row and a busy store costs one row update per
+ * flush rather than one per transaction. Upserts are additive, so every node flushes its own deltas.
+ * A failed flush puts its deltas back for the next one; deltas not yet flushed when a node crashes
+ * are lost (at most one flush interval), and are flushed on a normal shutdown.
+ *
+ * Dashboards read the rollup tables only, so a report costs a range scan over at most maxBuckets rows
+ * regardless of transaction volume. Reports lag commits by up to one flush interval.
+ */
+@Component
+public class StoreRollups {
+
+    private static final Logger log = LoggerFactory.getLogger(StoreRollups.class);
+
+    private final Map<BucketKey, Delta> pending = new ConcurrentHashMap<>();
+    private final StoreRollupRepository repository;
+    private final TransactionTemplate transactionTemplate;
+
+    public StoreRollups(StoreRollupRepository repository,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("sticker.rollups.pending", pending, Map::size)
+            .description("Store-hour rollup buckets with deltas not yet flushed")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Counts a newly stored transaction. Inside a DB transaction the delta is added only once it
+     * commits; outside one, immediately.
+     */
+    public void record(Transaction tx, int promoUnits) {
+        afterCommit(() -> add(tx.storeId(), tx.timestamp(), 1, tx.stickersEarned(), tx.totalAmount().cents(), promoUnits));
+    }
+
+    /**
+     * Adjusts stickers issued for a transaction re-scored after the fact, on commit as for {@link #record}.
+     */
+    public void recordStickerCorrection(Transaction tx, int stickerDelta) {
+        afterCommit(() -> add(tx.storeId(), tx.timestamp(), 0, stickerDelta, 0, 0));
+    }
+
+    @Scheduled(fixedDelayString = "${sticker-engine.rollups.flush-interval:1s}",
+               initialDelayString = "${sticker-engine.rollups.flush-interval:1s}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<BucketKey, Delta> drained = new HashMap<>();
+        for (BucketKey key : pending.keySet()) {
+            // remove is atomic against add's compute, so no increment is lost
+            Delta delta = pending.remove(key);
+            if (delta != null) {
+                drained.put(key, delta);
+            }
+        }
+        Map<BucketKey, Delta> daily = new HashMap<>();
+        List<StoreRollupRepository.Delta> hourlyRows = new ArrayList<>(drained.size());
+        drained.forEach((key, delta) -> {
+            hourlyRows.add(delta.toRow(key));
+            daily.computeIfAbsent(new BucketKey(key.storeId(), RollupGranularity.DAY.bucketStart(key.bucketStart())),
+                k -> new Delta()).add(delta);
+        });
+        List<StoreRollupRepository.Delta> dailyRows = new ArrayList<>(daily.size());
+        daily.forEach((key, delta) -> dailyRows.add(delta.toRow(key)));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                repository.addDeltas(RollupGranularity.HOUR, hourlyRows);
+                repository.addDeltas(RollupGranularity.DAY, dailyRows);
+            });
+        } catch (DataAccessException e) {
+            log.warn("Rollup flush failed, retrying on the next flush: buckets={}, error={}",
+                    drained.size(), e.getMessage());
+            drained.forEach((key, delta) -> pending.merge(key, delta, Delta::add));
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    /**
+     * @param granularity "hour" or "day"
+     * @param from ISO-8601 instant, rounded down to its bucket
+     * @param to ISO-8601 instant, exclusive
+     * @throws InvalidRollupQueryException if a parameter does not parse or the range is empty or too long
+     */
+    public RollupReport findStoreReport(String storeId, String granularity, String from, String to) {
+        RollupGranularity parsed = parseGranularity(granularity);
+        Instant start = parsed.bucketStart(parseInstant("from", from));
+        Instant end = parseInstant("to", to);
+        checkRange(parsed, start, end);
+        return new RollupReport(storeId, parsed, start, end, repository.findStoreBuckets(parsed, storeId, start, end));
+    }
+
+    /**
+     * As {@link #findStoreReport}, summed over all stores.
+     */
+    public RollupReport findCampaignReport(String granularity, String from, String to) {
+        RollupGranularity parsed = parseGranularity(granularity);
+        Instant start = parsed.bucketStart(parseInstant("from", from));
+        Instant end = parseInstant("to", to);
+        checkRange(parsed, start, end);
+        return new RollupReport(null, parsed, start, end, repository.findCampaignBuckets(parsed, start, end));
+    }
+
+    private void add(String storeId, Instant timestamp, long transactions, long stickers, long spendCents,
+                     long promoUnits) {
+        pending.compute(new BucketKey(storeId, RollupGranularity.HOUR.bucketStart(timestamp)), (key, delta) -> {
+            Delta result = delta != null ? delta : new Delta();
+            result.transactionCount += transactions;
+            result.stickersIssued += stickers;
+            result.spendCents += spendCents;
+            result.promoUnits += promoUnits;
+            return result;
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static RollupGranularity parseGranularity(String granularity) {
+        try {
+            return RollupGranularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRollupQueryException("Unknown granularity: " + granularity + " (use hour or day)");
+        }
+    }
+
+    private static Instant parseInstant(String name, String value) {
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRollupQueryException(name + " must be an ISO-8601 instant, e.g. 2024-01-31T00:00:00Z");
+        }
+    }
+
+    private static void checkRange(RollupGranularity granularity, Instant from, Instant to) {
+        if (!from.isBefore(to)) {
+            throw new InvalidRollupQueryException("from must be before to");
+        }
+        if (from.plus(granularity.duration().multipliedBy(granularity.maxBuckets())).isBefore(to)) {
+            throw new InvalidRollupQueryException(
+                "Range too long: at most " + granularity.maxBuckets() + " " + granularity.name().toLowerCase(Locale.ROOT) +
+                " buckets per request");
+        }
+    }
+
+    private record BucketKey(String storeId, Instant bucketStart) {}
+
+    /**
+     * Mutable sums for one bucket; only changed inside pending.compute or after being drained.
+     */
+    private static final class Delta {
+        long transactionCount;
+        long stickersIssued;
+        long spendCents;
+        long promoUnits;
+
+        Delta add(Delta other) {
+            transactionCount += other.transactionCount;
+            stickersIssued += other.stickersIssued;
+            spendCents += other.spendCents;
+            promoUnits += other.promoUnits;
+            return this;
+        }
+
+        StoreRollupRepository.Delta toRow(BucketKey key) {
+            return new StoreRollupRepository.Delta(key.storeId(), key.bucketStart(), transactionCount,
+                stickersIssued, spendCents, promoUnits);
+        }
+    }
+
+    public static class InvalidRollupQueryException extends RuntimeException {
+        public InvalidRollupQueryException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.looplink.stickerengine.service.rule;
+
+import com.looplink.stickerengine.model.Item;
+import com.looplink.stickerengine.model.Money;
+import com.looplink.stickerengine.model.TransactionRequest;
+
+import java.util.List;
+
+/**
+ * Per-request basket aggregates shared by all rules: the total and promo units, computed in one pass
+ * over the items when the context is built. Holds only what some rule reads; add an aggregate together
+ * with the rule that needs it. Carries the campaign rule snapshot captured when it was built, so every rule in one calculation
+ * sees the same version. Not thread-safe; a context belongs to one calculation.
+ */
+public final class BasketContext {
+
+    private final TransactionRequest request;
+    private final RuleSet rules;
+    private final Money totalAmount;
+    private final int promoQuantity;
+
+    private BasketContext(TransactionRequest request, RuleSet rules, Money totalAmount, int promoQuantity) {
+        this.request = request;
+        this.rules = rules;
+        this.totalAmount = totalAmount;
+        this.promoQuantity = promoQuantity;
+    }
+
+    public static BasketContext of(TransactionRequest request, RuleSet rules) {
+        List<Item> items = request.items();
+        String promoCategory = rules.promoCategory();
+        long totalCents = 0;
+        int promoQuantity = 0;
+
+        for (int i = 0, n = items.size(); i < n; i++) {
+            Item item = items.get(i);
+            totalCents = Math.addExact(totalCents, item.totalCents());
+            // promoCategory is lower-cased by RuleSet
+            if (item.category().equalsIgnoreCase(promoCategory)) {
+                promoQuantity += item.quantity();
+            }
+        }
+
+        return new BasketContext(request, rules, Money.ofCents(totalCents), promoQuantity);
+    }
+
+    public TransactionRequest request() {
+        return request;
+    }
+
+    /**
+     * Campaign rule snapshot this basket is evaluated with.
+     */
+    public RuleSet rules() {
+        return rules;
+    }
+
+    /**
+     * Sum of quantity x unit price over all items.
+     */
+    public Money totalAmount() {
+        return totalAmount;
+    }
+
+    /**
+     * Units of items in the campaign's promo category (case-insensitive).
+     */
+    public int promoQuantity() {
+        return promoQuantity;
+    }
+}
@@ -1,20 +1,33 @@
 package com.looplink.stickerengine.service.rule;
 
-import com.looplink.stickerengine.model.TransactionRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Component;
 
 /**
- * Per-transaction cap rule: Maximum 5 stickers per transaction.
+ * Per-transaction cap rule: maximum stickers per transaction (5 in the default campaign).
  * This rule should run last to cap the total stickers.
+ * Transactions that were actually reduced are counted in sticker.rule.cap.hits.
  */
 @Component
 public class MaxCapRule implements StickerRule {
 
-    private static final int MAX_STICKERS_PER_TRANSACTION = 5;
+    private final Counter capHits;
+
+    public MaxCapRule(MeterRegistry meterRegistry) {
+        this.capHits = Counter.builder("sticker.rule.cap.hits")
+            .description("Transactions whose stickers were reduced by the per-transaction cap")
+            .register(meterRegistry);
+    }
 
     @Override
-    public int apply(TransactionRequest request, int currentStickers) {
-        return Math.min(currentStickers, MAX_STICKERS_PER_TRANSACTION);
+    public int apply(BasketContext context, int currentStickers) {
+        int max = context.rules().maxStickersPerTransaction();
+        if (currentStickers > max) {
+            capHits.increment();
+            return max;
+        }
+        return currentStickers;
     }
 
     @Override
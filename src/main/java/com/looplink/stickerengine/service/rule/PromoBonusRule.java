@@ -1,23 +1,16 @@
 package com.looplink.stickerengine.service.rule;
 
-import com.looplink.stickerengine.model.Item;
-import com.looplink.stickerengine.model.TransactionRequest;
 import org.springframework.stereotype.Component;
 
 /**
- * Promo item bonus rule: +1 extra sticker per unit of items with category "promo".
+ * Promo item bonus rule: +1 extra sticker per unit of items in the promo category ("promo" in the default campaign).
  */
 @Component
 public class PromoBonusRule implements StickerRule {
 
     @Override
-    public int apply(TransactionRequest request, int currentStickers) {
-        int promoBonus = request.items().stream()
-            .filter(Item::isPromo)
-            .mapToInt(Item::quantity)
-            .sum();
-
-        return currentStickers + promoBonus;
+    public int apply(BasketContext context, int currentStickers) {
+        return currentStickers + context.promoQuantity();
     }
 
     @Override
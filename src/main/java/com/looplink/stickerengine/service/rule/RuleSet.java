@@ -0,0 +1,23 @@
+package com.looplink.stickerengine.service.rule;
+
+import java.util.Locale;
+
+/**
+ * Immutable snapshot of one campaign rule version, with parameters already in the form the rules use.
+ */
+public record RuleSet(
+    int version,
+    long baseRateThresholdCents,
+    String promoCategory,
+    int maxStickersPerTransaction
+) {
+    public RuleSet {
+        if (baseRateThresholdCents <= 0) {
+            throw new IllegalArgumentException("Base rate threshold must be positive: version=" + version);
+        }
+        if (maxStickersPerTransaction < 0) {
+            throw new IllegalArgumentException("Max stickers per transaction must not be negative: version=" + version);
+        }
+        promoCategory = promoCategory.toLowerCase(Locale.ROOT);
+    }
+}
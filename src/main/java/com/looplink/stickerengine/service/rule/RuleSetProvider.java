@@ -0,0 +1,69 @@
+package com.looplink.stickerengine.service.rule;
+
+import com.looplink.stickerengine.repository.CampaignRuleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the campaign rule snapshot in effect.
+ *
+ * The active version is loaded at startup and polled on a fixed delay. When it changes the new
+ * snapshot is built off to the side and swapped in with a single reference write, so calculations
+ * never wait on a reload; a calculation that already captured the previous snapshot finishes with it.
+ */
+@Component
+public class RuleSetProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleSetProvider.class);
+
+    private final CampaignRuleRepository repository;
+    private final AtomicReference<RuleSet> current = new AtomicReference<>();
+
+    public RuleSetProvider(CampaignRuleRepository repository) {
+        this.repository = repository;
+        this.current.set(load());
+    }
+
+    public RuleSet current() {
+        return current.get();
+    }
+
+    @Scheduled(fixedDelayString = "${sticker-engine.rules.refresh-interval:30s}",
+               initialDelayString = "${sticker-engine.rules.refresh-interval:30s}")
+    public void refresh() {
+        try {
+            int activeVersion = activeVersion();
+            RuleSet previous = current.get();
+            if (activeVersion == previous.version()) {
+                return;
+            }
+            RuleSet next = load(activeVersion);
+            if (current.compareAndSet(previous, next)) {
+                log.info("Campaign rules updated: version {} -> {}", previous.version(), next.version());
+            }
+        } catch (DataAccessException | IllegalStateException | IllegalArgumentException e) {
+            log.warn("Campaign rule refresh failed, keeping version {}: {}", current.get().version(), e.getMessage());
+        }
+    }
+
+    private RuleSet load() {
+        RuleSet ruleSet = load(activeVersion());
+        log.info("Campaign rules loaded: version={}", ruleSet.version());
+        return ruleSet;
+    }
+
+    private int activeVersion() {
+        return repository.findActiveVersion()
+            .orElseThrow(() -> new IllegalStateException("No active campaign rule set"));
+    }
+
+    private RuleSet load(int version) {
+        return repository.findByVersion(version)
+            .orElseThrow(() -> new IllegalStateException("Campaign rule set not found: version=" + version));
+    }
+}
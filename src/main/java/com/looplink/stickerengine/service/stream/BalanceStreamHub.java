@@ -0,0 +1,307 @@
+package com.looplink.stickerengine.service.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.looplink.stickerengine.model.BalanceUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fans balance updates out to server-sent event streams.
+ *
+ * Committed updates are published on {@value #CHANNEL}; every node, including the publisher, delivers
+ * them to its local subscribers for the shopper. An idle subscriber is only an open async request and
+ * a map entry, so one node can hold tens of thousands. Each subscriber has a small bounded buffer
+ * drained by a shared dispatcher pool; when a slow client lets it fill up, the oldest event is dropped,
+ * which is safe because every event carries the full balance. If Redis is unavailable updates are
+ * delivered locally only, and apps fall back to the balance in the next snapshot.
+ */
+@Component
+public class BalanceStreamHub implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceStreamHub.class);
+
+    private static final String CHANNEL = "shopper:balance";
+    private static final String EVENT_NAME = "balance";
+    private static final Event HEARTBEAT = new Event(null, null);
+
+    private final Map<String, Set<Subscriber>> subscribersByShopper = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService dispatcher;
+    private final int maxSubscribers;
+    private final int bufferCapacity;
+    private final long timeoutMillis;
+    private final Counter dropped;
+    private volatile boolean closed;
+
+    public BalanceStreamHub(StringRedisTemplate redisTemplate,
+                            ObjectMapper objectMapper,
+                            RedisMessageListenerContainer listenerContainer,
+                            MeterRegistry meterRegistry,
+                            @Value("${sticker-engine.balance-stream.max-subscribers:50000}") int maxSubscribers,
+                            @Value("${sticker-engine.balance-stream.buffer-size:8}") int bufferCapacity,
+                            @Value("${sticker-engine.balance-stream.timeout:30m}") Duration timeout,
+                            @Value("${sticker-engine.balance-stream.dispatch-threads:4}") int dispatchThreads) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.maxSubscribers = maxSubscribers;
+        this.bufferCapacity = bufferCapacity;
+        this.timeoutMillis = timeout.toMillis();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatchThreads, task -> {
+            Thread thread = new Thread(task, "balance-stream-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("sticker.stream.subscribers", subscriberCount, AtomicInteger::get)
+            .description("Open shopper balance streams on this node")
+            .register(meterRegistry);
+        this.dropped = Counter.builder("sticker.stream.dropped")
+            .description("Balance events dropped because a subscriber's buffer was full")
+            .register(meterRegistry);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * Opens a stream for the shopper, then reads the snapshot and queues it.
+     *
+     * The subscriber is registered before the snapshot is read, so every update published after the
+     * read is delivered. An update published between registration and the read is queued ahead of
+     * the snapshot, which already includes it. The snapshot comes from the balance cache, so a
+     * cached entry not yet invalidated for a transaction committed just before the subscription
+     * can show an older balance until the next update.
+     * @throws SubscriberLimitException if this node already holds the maximum number of streams
+     */
+    public SseEmitter subscribe(String shopperId, Supplier<BalanceUpdate> snapshot) {
+        if (closed || subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new SubscriberLimitException("Balance stream limit reached: " + maxSubscribers);
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(shopperId, emitter);
+        emitter.onCompletion(subscriber::remove);
+        emitter.onTimeout(subscriber::remove);
+        emitter.onError(error -> subscriber.remove());
+        subscribersByShopper.compute(shopperId, (id, subscribers) -> {
+            Set<Subscriber> result = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            result.add(subscriber);
+            return result;
+        });
+        BalanceUpdate current;
+        try {
+            current = snapshot.get();
+        } catch (RuntimeException e) {
+            subscriber.remove();
+            throw e;
+        }
+        subscriber.offer(toEvent(current));
+        return emitter;
+    }
+
+    /**
+     * Publishes committed updates to subscribers on every node. Never fails the caller.
+     */
+    public void publish(List<BalanceUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(updates));
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.warn("Failed to publish balance updates, delivering locally: updates={}, error={}",
+                    updates.size(), e.getMessage());
+            deliver(updates);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            deliver(List.of(objectMapper.readValue(message.getBody(), BalanceUpdate[].class)));
+        } catch (IOException e) {
+            log.warn("Discarding unreadable balance message: error={}", e.getMessage());
+        }
+    }
+
+    /**
+     * Keeps idle streams open through proxies and detects clients that went away.
+     */
+    @Scheduled(fixedDelayString = "${sticker-engine.balance-stream.heartbeat-interval:20s}",
+               initialDelayString = "${sticker-engine.balance-stream.heartbeat-interval:20s}")
+    public void heartbeat() {
+        subscribersByShopper.values().forEach(subscribers -> subscribers.forEach(Subscriber::heartbeat));
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        closed = true;
+        subscribersByShopper.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+        log.info("Closed balance streams");
+    }
+
+    private void deliver(List<BalanceUpdate> updates) {
+        for (BalanceUpdate update : updates) {
+            Set<Subscriber> subscribers = subscribersByShopper.get(update.shopperId());
+            if (subscribers == null || subscribers.isEmpty()) {
+                continue;
+            }
+            Event event = toEvent(update);
+            if (event != null) {
+                subscribers.forEach(subscriber -> subscriber.offer(event));
+            }
+        }
+    }
+
+    private Event toEvent(BalanceUpdate update) {
+        try {
+            return new Event(update.transactionId(), objectMapper.writeValueAsString(update));
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize balance update: shopperId={}", update.shopperId());
+            return null;
+        }
+    }
+
+    /**
+     * Serialized event; built into an SseEventBuilder per send, since builders are single-use.
+     */
+    private record Event(String id, String json) {}
+
+    private final class Subscriber implements Runnable {
+        final String shopperId;
+        final SseEmitter emitter;
+        private final ArrayDeque<Event> buffer = new ArrayDeque<>(bufferCapacity);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean removed = new AtomicBoolean();
+
+        Subscriber(String shopperId, SseEmitter emitter) {
+            this.shopperId = shopperId;
+            this.emitter = emitter;
+        }
+
+        void offer(Event event) {
+            if (event == null) {
+                return;
+            }
+            synchronized (buffer) {
+                if (buffer.size() == bufferCapacity) {
+                    buffer.pollFirst();
+                    dropped.increment();
+                }
+                buffer.addLast(event);
+            }
+            schedule();
+        }
+
+        void heartbeat() {
+            synchronized (buffer) {
+                if (!buffer.isEmpty()) {
+                    return;
+                }
+                buffer.addLast(HEARTBEAT);
+            }
+            schedule();
+        }
+
+        /**
+         * At most one dispatcher thread drains a subscriber at a time, which keeps its events in order.
+         */
+        private void schedule() {
+            if (removed.get() || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                dispatcher.execute(this);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Event event;
+                synchronized (buffer) {
+                    event = buffer.pollFirst();
+                    if (event == null) {
+                        scheduled.set(false);
+                        return;
+                    }
+                }
+                if (!send(event)) {
+                    return;
+                }
+            }
+        }
+
+        private boolean send(Event event) {
+            try {
+                if (event == HEARTBEAT) {
+                    emitter.send(SseEmitter.event().comment("keepalive"));
+                } else {
+                    SseEmitter.SseEventBuilder builder = SseEmitter.event().name(EVENT_NAME);
+                    if (event.id() != null) {
+                        builder.id(event.id());
+                    }
+                    emitter.send(builder.data(event.json(), MediaType.APPLICATION_JSON));
+                }
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // The container completes the async request itself after a failed write
+                log.debug("Closing balance stream: shopperId={}, error={}", shopperId, e.getMessage());
+                remove();
+                return false;
+            }
+        }
+
+        void remove() {
+            if (!removed.compareAndSet(false, true)) {
+                return;
+            }
+            subscribersByShopper.computeIfPresent(shopperId, (id, subscribers) -> {
+                subscribers.remove(this);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    public static class SubscriberLimitException extends RuntimeException {
+        public SubscriberLimitException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.looplink.stickerengine.service.wal;
+
+/**
+ * Byte position in the write-ahead log: a segment sequence number and an offset within that segment.
+ */
+public record WalPosition(long segment, int offset) implements Comparable<WalPosition> {
+
+    @Override
+    public int compareTo(WalPosition other) {
+        int bySegment = Long.compare(segment, other.segment);
+        return bySegment != 0 ? bySegment : Integer.compare(offset, other.offset);
+    }
+}
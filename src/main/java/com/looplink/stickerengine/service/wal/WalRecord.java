@@ -0,0 +1,77 @@
+package com.looplink.stickerengine.service.wal;
+
+import com.looplink.stickerengine.model.Item;
+import com.looplink.stickerengine.model.Money;
+import com.looplink.stickerengine.model.Transaction;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One acknowledged transaction in the write-ahead log, with the balance reported to the client.
+ */
+public record WalRecord(Transaction transaction, int newBalance) {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 + transaction.items().size() * 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeUTF(transaction.transactionId());
+            out.writeUTF(transaction.shopperId());
+            out.writeUTF(transaction.storeId());
+            out.writeLong(transaction.timestamp().getEpochSecond());
+            out.writeInt(transaction.timestamp().getNano());
+            out.writeLong(transaction.totalAmount().cents());
+            out.writeInt(transaction.stickersEarned());
+            out.writeInt(transaction.ruleVersion());
+            out.writeInt(newBalance);
+            out.writeInt(transaction.items().size());
+            for (Item item : transaction.items()) {
+                out.writeUTF(item.sku());
+                out.writeUTF(item.name());
+                out.writeInt(item.quantity());
+                out.writeLong(item.unitPrice().cents());
+                out.writeUTF(item.category());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static WalRecord decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported write-ahead log record version: " + version);
+            }
+            String transactionId = in.readUTF();
+            String shopperId = in.readUTF();
+            String storeId = in.readUTF();
+            Instant timestamp = Instant.ofEpochSecond(in.readLong(), in.readInt());
+            Money totalAmount = Money.ofCents(in.readLong());
+            int stickersEarned = in.readInt();
+            int ruleVersion = in.readInt();
+            int newBalance = in.readInt();
+            int itemCount = in.readInt();
+            List<Item> items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                items.add(new Item(in.readUTF(), in.readUTF(), in.readInt(), Money.ofCents(in.readLong()), in.readUTF()));
+            }
+            Transaction transaction = new Transaction(transactionId, shopperId, storeId, timestamp,
+                List.copyOf(items), totalAmount, stickersEarned, ruleVersion);
+            return new WalRecord(transaction, newBalance);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
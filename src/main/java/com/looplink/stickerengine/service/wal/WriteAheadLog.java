@@ -0,0 +1,423 @@
+package com.looplink.stickerengine.service.wal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log stored in fixed-size, memory-mapped segment files.
+ *
+ * Each record is [int payload length][int CRC32C][payload]. The checksum also covers the segment's
+ * sequence number, so bytes left over from a recycled segment's previous use fail verification and
+ * end the log exactly like a torn write does. With sync enabled each append is forced to disk before
+ * it returns. Forces are shared: an appender that finds a force in progress waits for it to finish,
+ * and the next force covers every record appended by then, so concurrent appends cost one force per
+ * group rather than one each.
+ *
+ * The position up to which records have been applied downstream is kept in a checkpoint file,
+ * replaced atomically. Segments wholly before the checkpoint are renamed into a small pool of spares
+ * that later segments reuse, so the steady state does not allocate or zero new files.
+ *
+ * Appends are serialized, but the force happens outside the append lock. A single reader (the
+ * flusher) may read and checkpoint concurrently. The locks are ReentrantLocks rather than monitors
+ * because appenders block on disk I/O, which would pin a virtual thread's carrier inside synchronized.
+ */
+final class WriteAheadLog implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    static final int HEADER_BYTES = 8;
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SPARE_PREFIX = "spare-";
+    private static final String SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int ZERO_FILL_CHUNK = 1 << 20;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final int maxSpares;
+    private final boolean sync;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Deque<Path> spares = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private Segment head;
+    /** Records appended so far; guarded by lock. */
+    private long appended;
+    /** Records known to be on disk. */
+    private volatile long synced;
+    /** Where the last force ended in the head segment; guarded by syncLock. */
+    private long forcedSequence;
+    private int forcedOffset;
+    private volatile WalPosition checkpoint;
+
+    private WriteAheadLog(Path directory, int segmentSize, int maxSegments, int maxSpares, boolean sync) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.maxSpares = maxSpares;
+        this.sync = sync;
+    }
+
+    /**
+     * Opens the log in the directory, creating it if needed, and finds the end of the valid records.
+     */
+    static WriteAheadLog open(Path directory, int segmentSize, int maxSegments, int maxSpares, boolean sync)
+            throws IOException {
+        Files.createDirectories(directory);
+        WriteAheadLog wal = new WriteAheadLog(directory, segmentSize, maxSegments, maxSpares, sync);
+        wal.lock.lock();
+        try {
+            wal.recover();
+        } finally {
+            wal.lock.unlock();
+        }
+        return wal;
+    }
+
+    private void recover() throws IOException {
+        WalPosition saved = readCheckpoint();
+        TreeMap<Long, Path> found = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SPARE_PREFIX)) {
+                    if (Files.size(file) == segmentSize && spares.size() < maxSpares) {
+                        spares.add(file);
+                    } else {
+                        Files.delete(file);
+                    }
+                } else if (name.startsWith(SEGMENT_PREFIX)) {
+                    found.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SUFFIX.length())), file);
+                }
+            }
+        }
+
+        checkpoint = saved != null ? saved : new WalPosition(found.isEmpty() ? 1 : found.firstKey(), 0);
+        for (Map.Entry<Long, Path> entry : found.entrySet()) {
+            if (entry.getKey() < checkpoint.segment()) {
+                Files.delete(entry.getValue());
+                continue;
+            }
+            Segment segment = Segment.open(entry.getKey(), entry.getValue(), segmentSize, false);
+            segment.end = segment.scanEnd();
+            segment.written = segment.end;
+            segments.put(entry.getKey(), segment);
+        }
+        if (segments.isEmpty()) {
+            long sequence = checkpoint.offset() > 0 ? checkpoint.segment() + 1 : checkpoint.segment();
+            head = Segment.open(sequence, segmentPath(sequence), segmentSize, true);
+            segments.put(sequence, head);
+        } else {
+            head = segments.lastEntry().getValue();
+        }
+        log.info("Opened write-ahead log: dir={}, segments={}, checkpoint={}, head={}:{}",
+            directory, segments.size(), checkpoint, head.sequence, head.end);
+    }
+
+    /**
+     * Appends a record and, with sync enabled, waits until it is on disk.
+     * @return the position just after the record, or null if the log already has the maximum number
+     *         of unflushed segments and the record does not fit in the current one
+     */
+    WalPosition append(byte[] payload) throws IOException {
+        int recordSize = HEADER_BYTES + payload.length;
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException("Record of " + recordSize + " bytes exceeds the segment size " + segmentSize);
+        }
+        long ticket;
+        WalPosition end;
+        lock.lock();
+        try {
+            if (head.written + recordSize > head.capacity()) {
+                if (segments.size() >= maxSegments) {
+                    return null;
+                }
+                roll();
+            }
+            int offset = head.written;
+            MappedByteBuffer buffer = head.buffer;
+            buffer.put(offset + HEADER_BYTES, payload);
+            buffer.putInt(offset + 4, checksum(head.sequence, payload));
+            buffer.putInt(offset, payload.length);
+            head.written = offset + recordSize;
+            if (!sync) {
+                head.end = head.written;
+            }
+            ticket = ++appended;
+            end = new WalPosition(head.sequence, head.written);
+        } finally {
+            lock.unlock();
+        }
+        if (sync) {
+            awaitSynced(ticket);
+        }
+        return end;
+    }
+
+    /**
+     * Returns once the record with the given ticket is on disk. Whoever holds syncLock forces
+     * everything appended up to that moment; the appenders queued behind it usually find their
+     * records covered and return without forcing again. Only forced records are made visible to
+     * the reader, so the checkpoint never passes a record that a crash could lose.
+     */
+    private void awaitSynced(long ticket) throws IOException {
+        if (synced >= ticket) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (synced >= ticket) {
+                return;
+            }
+            long target;
+            Segment segment;
+            int to;
+            lock.lock();
+            try {
+                target = appended;
+                segment = head;
+                to = head.written;
+            } finally {
+                lock.unlock();
+            }
+            // Earlier segments were forced whole when they were rolled
+            int from = segment.sequence == forcedSequence ? forcedOffset : 0;
+            if (to > from) {
+                segment.buffer.force(from, to - from);
+            }
+            forcedSequence = segment.sequence;
+            forcedOffset = to;
+            lock.lock();
+            try {
+                // A roll in the meantime may already have published a later end
+                segment.end = Math.max(segment.end, to);
+            } finally {
+                lock.unlock();
+            }
+            synced = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void roll() throws IOException {
+        head.buffer.force();
+        head.end = head.written;
+        long sequence = head.sequence + 1;
+        Path path = segmentPath(sequence);
+        Path spare = spares.pollFirst();
+        if (spare != null) {
+            Files.move(spare, path, StandardCopyOption.ATOMIC_MOVE);
+        }
+        head = Segment.open(sequence, path, segmentSize, spare == null);
+        segments.put(sequence, head);
+    }
+
+    /**
+     * Reads up to maxRecords records starting at the given position.
+     */
+    List<Entry> read(WalPosition from, int maxRecords) {
+        List<Entry> entries = new ArrayList<>(Math.min(maxRecords, 1024));
+        long sequence = from.segment();
+        int offset = from.offset();
+        while (entries.size() < maxRecords) {
+            Segment segment = segments.get(sequence);
+            if (segment == null || offset >= segment.end) {
+                Map.Entry<Long, Segment> next = segments.higherEntry(sequence);
+                if (next == null) {
+                    break;
+                }
+                if (segment != null && offset < segment.end) {
+                    // Appended to this segment just before it was rolled
+                    continue;
+                }
+                sequence = next.getKey();
+                offset = 0;
+                continue;
+            }
+            byte[] payload = segment.readAt(offset);
+            if (payload == null) {
+                throw new IllegalStateException("Corrupt write-ahead log record at " + sequence + ":" + offset);
+            }
+            offset += HEADER_BYTES + payload.length;
+            entries.add(new Entry(payload, new WalPosition(sequence, offset)));
+        }
+        return entries;
+    }
+
+    WalPosition checkpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Records that everything before the position has been applied, and recycles segments before it.
+     */
+    void checkpoint(WalPosition position) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap((position.segment() + ":" + position.offset()).getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+            StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        checkpoint = position;
+        lock.lock();
+        try {
+            recycleBefore(position.segment());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recycleBefore(long sequence) throws IOException {
+        Iterator<Segment> flushed = segments.headMap(sequence, false).values().iterator();
+        while (flushed.hasNext()) {
+            Segment segment = flushed.next();
+            flushed.remove();
+            segment.channel.close();
+            if (spares.size() < maxSpares && segment.capacity() == segmentSize) {
+                Path spare = directory.resolve(SPARE_PREFIX + segment.sequence + SUFFIX);
+                Files.move(segment.path, spare, StandardCopyOption.ATOMIC_MOVE);
+                spares.add(spare);
+            } else {
+                Files.delete(segment.path);
+            }
+        }
+    }
+
+    /**
+     * Number of segments not yet wholly flushed, including the one being written.
+     */
+    int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            for (Segment segment : segments.values()) {
+                segment.buffer.force();
+                segment.channel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private WalPosition readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        String[] parts = Files.readString(file, StandardCharsets.US_ASCII).trim().split(":");
+        return new WalPosition(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SUFFIX));
+    }
+
+    static int checksum(long sequence, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * A record's payload and the position just after it.
+     */
+    record Entry(byte[] payload, WalPosition end) {}
+
+    private static final class Segment {
+        final long sequence;
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        /** End of the records written so far; guarded by the log's append lock. */
+        int written;
+        /** End of the records visible to the reader: with sync enabled, those already forced. */
+        volatile int end;
+
+        private Segment(long sequence, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Maps the file. New files are zero-filled up front, so a full disk fails here rather than
+         * on a later write through the mapping.
+         */
+        static Segment open(long sequence, Path path, int size, boolean create) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (create) {
+                ByteBuffer zeros = ByteBuffer.allocate(ZERO_FILL_CHUNK);
+                for (long position = 0; position < size; position += ZERO_FILL_CHUNK) {
+                    zeros.clear().limit((int) Math.min(ZERO_FILL_CHUNK, size - position));
+                    channel.write(zeros, position);
+                }
+                channel.force(true);
+            }
+            int mappedSize = create ? size : (int) Math.min(channel.size(), Integer.MAX_VALUE);
+            return new Segment(sequence, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize));
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+
+        int scanEnd() {
+            int offset = 0;
+            byte[] payload;
+            while ((payload = readAt(offset)) != null) {
+                offset += HEADER_BYTES + payload.length;
+            }
+            return offset;
+        }
+
+        /**
+         * Returns the payload of the record at offset, or null if there is no valid record there.
+         */
+        byte[] readAt(int offset) {
+            if (offset > capacity() - HEADER_BYTES) {
+                return null;
+            }
+            int length = buffer.getInt(offset);
+            if (length <= 0 || length > capacity() - offset - HEADER_BYTES) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(offset + HEADER_BYTES, payload);
+            return checksum(sequence, payload) == buffer.getInt(offset + 4) ? payload : null;
+        }
+    }
+}
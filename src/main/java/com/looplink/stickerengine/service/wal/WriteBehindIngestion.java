@@ -0,0 +1,370 @@
+package com.looplink.stickerengine.service.wal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.looplink.stickerengine.model.Transaction;
+import com.looplink.stickerengine.model.TransactionResponse;
+import com.looplink.stickerengine.repository.ShopperRepository;
+import com.looplink.stickerengine.repository.TransactionBatchRepository;
+import com.looplink.stickerengine.service.ShopperCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind ingestion: acknowledges a transaction once it is durable in the local write-ahead
+ * log, and applies logged transactions to MySQL in batches on a background flusher thread.
+ *
+ * The balance in the acknowledgment is the shopper's DB balance plus their acknowledged but unflushed
+ * stickers, tracked per shopper until the flush catches up. Other balance reads go to the DB and
+ * lag by those stickers until then. Appends and flush completions for one
+ * shopper are serialized on a striped per-shopper lock, so reported balances follow log order. The
+ * stripes are ReentrantLocks, not map compute() or synchronized, because an append blocks on a DB read
+ * and a disk force, which must not pin a virtual thread's carrier.
+ *
+ * Flushing is idempotent: a batch skips transaction IDs already in the DB, so records replayed after
+ * a crash between commit and checkpoint are not applied twice. On startup every record after the
+ * checkpoint is reloaded into the pending state and flushed again.
+ *
+ * A batch the DB rejects as invalid is retried one transaction at a time, and a transaction that
+ * still fails is appended to dead-letters.ndjson in the log directory and counted as flushed, so one
+ * bad record cannot stall the log behind it. Any other failure retries the whole batch.
+ *
+ * Acknowledged balances are exact on a single node; with several nodes writing the same shopper they
+ * are best-effort, while the stored balance stays exact because flushes apply deltas.
+ */
+@Component
+@ConditionalOnProperty(name = "sticker-engine.ingestion.mode", havingValue = "write-behind")
+public class WriteBehindIngestion {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindIngestion.class);
+
+    private static final int SHOPPER_LOCK_STRIPES = 1024;
+    private static final String DEAD_LETTER_FILE = "dead-letters.ndjson";
+
+    private final WriteAheadLog wal;
+    private final ShopperRepository shopperRepository;
+    private final TransactionBatchRepository batchRepository;
+    private final ShopperCache shopperCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Path deadLetters;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final Duration drainTimeout;
+    private final Timer flushTimer;
+    private final Counter deadLetterCounter;
+    private final Map<String, TransactionResponse> pendingResponses = new ConcurrentHashMap<>();
+    private final Map<String, PendingShopper> pendingShoppers = new ConcurrentHashMap<>();
+    private final ReentrantLock[] shopperLocks = new ReentrantLock[SHOPPER_LOCK_STRIPES];
+    private final Thread flusher;
+    private WalPosition flushedUpTo;
+    private volatile boolean closed;
+
+    public WriteBehindIngestion(
+            ShopperRepository shopperRepository,
+            TransactionBatchRepository batchRepository,
+            ShopperCache shopperCache,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper,
+            @Value("${sticker-engine.ingestion.wal.dir:./data/wal}") String directory,
+            @Value("${sticker-engine.ingestion.wal.segment-size:64MB}") DataSize segmentSize,
+            @Value("${sticker-engine.ingestion.wal.max-segments:64}") int maxSegments,
+            @Value("${sticker-engine.ingestion.wal.spare-segments:2}") int spareSegments,
+            @Value("${sticker-engine.ingestion.wal.sync:true}") boolean sync,
+            @Value("${sticker-engine.ingestion.flush.batch-size:500}") int batchSize,
+            @Value("${sticker-engine.ingestion.flush.interval:100ms}") Duration flushInterval,
+            @Value("${sticker-engine.ingestion.flush.drain-timeout:30s}") Duration drainTimeout) throws IOException {
+        this.shopperRepository = shopperRepository;
+        this.batchRepository = batchRepository;
+        this.shopperCache = shopperCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.deadLetters = Path.of(directory).resolve(DEAD_LETTER_FILE);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushInterval.toMillis();
+        this.drainTimeout = drainTimeout;
+        for (int i = 0; i < SHOPPER_LOCK_STRIPES; i++) {
+            shopperLocks[i] = new ReentrantLock();
+        }
+        this.wal = WriteAheadLog.open(Path.of(directory), Math.toIntExact(segmentSize.toBytes()), maxSegments, spareSegments, sync);
+        this.flushedUpTo = wal.checkpoint();
+        this.flushTimer = Timer.builder("sticker.writebehind.flush")
+            .description("Time to apply one batch of logged transactions to the DB")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.deadLetterCounter = Counter.builder("sticker.writebehind.dead-letters")
+            .description("Logged transactions the DB rejected, moved to the dead-letter file")
+            .register(meterRegistry);
+        Gauge.builder("sticker.writebehind.pending", pendingResponses, Map::size)
+            .description("Acknowledged transactions not yet flushed to the DB")
+            .register(meterRegistry);
+        Gauge.builder("sticker.writebehind.segments", wal, WriteAheadLog::segmentCount)
+            .description("Write-ahead log segments not yet wholly flushed")
+            .register(meterRegistry);
+
+        replay();
+        this.flusher = new Thread(this::runFlusher, "write-behind-flusher");
+        this.flusher.start();
+    }
+
+    private void replay() {
+        int replayed = 0;
+        WalPosition position = flushedUpTo;
+        List<WriteAheadLog.Entry> entries;
+        while (!(entries = wal.read(position, batchSize)).isEmpty()) {
+            for (WriteAheadLog.Entry entry : entries) {
+                WalRecord record = WalRecord.decode(entry.payload());
+                Transaction tx = record.transaction();
+                pendingResponses.put(tx.transactionId(), TransactionResponse.success(tx, record.newBalance()));
+                pendingShoppers.merge(tx.shopperId(), new PendingShopper(record.newBalance(), 1),
+                    (previous, next) -> new PendingShopper(next.balance(), previous.unflushed() + 1));
+                position = entry.end();
+                replayed++;
+            }
+        }
+        if (replayed > 0) {
+            log.info("Replaying {} unflushed write-ahead log records for {} shoppers", replayed, pendingShoppers.size());
+        }
+    }
+
+    /**
+     * Logs the transaction and returns its acknowledgment, or a duplicate response if the same
+     * transaction ID is already logged and not yet flushed.
+     * @throws BacklogFullException if the log has reached its segment limit, or on shutdown
+     */
+    public TransactionResponse append(Transaction tx) {
+        if (closed) {
+            throw new BacklogFullException("Write-behind ingestion is shutting down");
+        }
+        String shopperId = tx.shopperId();
+        ReentrantLock lock = lockFor(shopperId);
+        lock.lock();
+        try {
+            TransactionResponse logged = pendingResponses.get(tx.transactionId());
+            if (logged != null) {
+                return asDuplicate(logged);
+            }
+            PendingShopper pending = pendingShoppers.get(shopperId);
+            int balance = pending != null ? pending.balance() : shopperRepository.findBalance(shopperId).orElse(0);
+            int newBalance = balance + tx.stickersEarned();
+            WalPosition position;
+            try {
+                position = wal.append(new WalRecord(tx, newBalance).encode());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (position == null) {
+                throw new BacklogFullException("Write-ahead log is full");
+            }
+            TransactionResponse response = TransactionResponse.success(tx, newBalance);
+            pendingResponses.put(tx.transactionId(), response);
+            pendingShoppers.put(shopperId, new PendingShopper(newBalance, (pending != null ? pending.unflushed() : 0) + 1));
+            return response;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Duplicate response for a transaction that is logged but not yet in the DB.
+     */
+    public Optional<TransactionResponse> findPending(String transactionId) {
+        return Optional.ofNullable(pendingResponses.get(transactionId)).map(WriteBehindIngestion::asDuplicate);
+    }
+
+    private static TransactionResponse asDuplicate(TransactionResponse response) {
+        return TransactionResponse.duplicate(response.transactionId(), response.shopperId(),
+            response.stickersEarned(), response.newTotalBalance());
+    }
+
+    private void runFlusher() {
+        while (true) {
+            try {
+                int flushed = flushOnce();
+                if (flushed == 0 && closed) {
+                    return;
+                }
+                if (flushed < batchSize) {
+                    Thread.sleep(flushIntervalMillis);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException | IOException e) {
+                log.error("Write-behind flush failed, retrying: {}", e.getMessage());
+                try {
+                    Thread.sleep(Math.max(flushIntervalMillis, 1_000));
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private int flushOnce() throws IOException {
+        List<WriteAheadLog.Entry> entries = wal.read(flushedUpTo, batchSize);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        Map<String, Transaction> transactions = new LinkedHashMap<>();
+        for (WriteAheadLog.Entry entry : entries) {
+            Transaction tx = WalRecord.decode(entry.payload()).transaction();
+            transactions.putIfAbsent(tx.transactionId(), tx);
+        }
+
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(transactions.values()));
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Write-behind flush of {} transactions rejected, writing them one at a time: {}",
+                transactions.size(), e.getMessage());
+            writeEach(transactions.values());
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        WalPosition end = entries.get(entries.size() - 1).end();
+        wal.checkpoint(end);
+        flushedUpTo = end;
+        release(transactions.values());
+        return entries.size();
+    }
+
+    private void write(Collection<Transaction> transactions) {
+        Set<String> existing = batchRepository.findExistingTransactionIds(
+            transactions.stream().map(Transaction::transactionId).toList());
+        List<Transaction> toInsert = new ArrayList<>(transactions.size());
+        Map<String, Integer> deltaByShopper = new LinkedHashMap<>();
+        for (Transaction tx : transactions) {
+            if (existing.contains(tx.transactionId())) {
+                continue;
+            }
+            toInsert.add(tx);
+            deltaByShopper.merge(tx.shopperId(), tx.stickersEarned(), Integer::sum);
+        }
+        // Balances first: the upsert creates the shopper rows the transactions reference
+        batchRepository.incrementBalances(deltaByShopper);
+        batchRepository.insertTransactions(toInsert);
+        if (!existing.isEmpty()) {
+            log.info("Write-behind flush skipped {} transactions already in the DB", existing.size());
+        }
+    }
+
+    /**
+     * Writes each transaction in its own DB transaction, dead-lettering the ones the DB rejects.
+     * Other failures propagate, and the next attempt skips the transactions already written.
+     */
+    private void writeEach(Collection<Transaction> transactions) throws IOException {
+        for (Transaction tx : transactions) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(List.of(tx)));
+            } catch (DataIntegrityViolationException e) {
+                deadLetter(tx, e);
+            }
+        }
+    }
+
+    /**
+     * Appends the transaction to the dead-letter file and forces it, before the checkpoint moves past it.
+     */
+    private void deadLetter(Transaction tx, DataIntegrityViolationException e) throws IOException {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("failedAt", Instant.now().toString());
+        line.put("error", e.getMostSpecificCause().getMessage());
+        line.put("transaction", tx);
+        byte[] bytes = (objectMapper.writeValueAsString(line) + "\n").getBytes(StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(deadLetters,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        deadLetterCounter.increment();
+        log.error("Moved write-behind transaction to {}: txId={}, shopperId={}, error={}",
+            deadLetters, tx.transactionId(), tx.shopperId(), e.getMostSpecificCause().getMessage());
+    }
+
+    private void release(Collection<Transaction> transactions) {
+        Map<String, List<String>> idsByShopper = new LinkedHashMap<>();
+        for (Transaction tx : transactions) {
+            idsByShopper.computeIfAbsent(tx.shopperId(), id -> new ArrayList<>()).add(tx.transactionId());
+        }
+        for (Map.Entry<String, List<String>> entry : idsByShopper.entrySet()) {
+            String shopperId = entry.getKey();
+            List<String> ids = entry.getValue();
+            ReentrantLock lock = lockFor(shopperId);
+            lock.lock();
+            try {
+                ids.forEach(pendingResponses::remove);
+                PendingShopper pending = pendingShoppers.get(shopperId);
+                if (pending == null) {
+                    continue;
+                }
+                int unflushed = pending.unflushed() - ids.size();
+                if (unflushed > 0) {
+                    pendingShoppers.put(shopperId, new PendingShopper(pending.balance(), unflushed));
+                } else {
+                    pendingShoppers.remove(shopperId);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        shopperCache.invalidate(idsByShopper.keySet());
+    }
+
+    private ReentrantLock lockFor(String shopperId) {
+        int h = shopperId.hashCode();
+        return shopperLocks[(h ^ (h >>> 16)) & (SHOPPER_LOCK_STRIPES - 1)];
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException, IOException {
+        closed = true;
+        flusher.join(Math.max(1L, drainTimeout.toMillis()));
+        flusher.interrupt();
+        flusher.join();
+        wal.close();
+        log.info("Stopped write-behind ingestion: unflushed={}", pendingResponses.size());
+    }
+
+    private record PendingShopper(int balance, int unflushed) {}
+
+    public static class BacklogFullException extends RuntimeException {
+        public BacklogFullException(String message) {
+            super(message);
+        }
+    }
+}
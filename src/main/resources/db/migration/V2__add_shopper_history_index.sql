@@ -0,0 +1,7 @@
+-- Flyway migration V2: Keyset pagination index for shopper history
+
+-- Serves WHERE shopper_id = ? ORDER BY timestamp, id without a filesort
+CREATE INDEX idx_transactions_shopper_history ON transactions(shopper_id, timestamp, id);
+
+-- The composite index has shopper_id as prefix, so it also backs fk_transactions_shopper
+DROP INDEX idx_transactions_shopper_id ON transactions;
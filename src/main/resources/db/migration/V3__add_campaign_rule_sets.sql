@@ -0,0 +1,18 @@
+-- Flyway migration V3: Data-driven campaign rules
+
+-- Versioned rule parameters; the highest active version is the one in effect
+CREATE TABLE IF NOT EXISTS campaign_rule_sets (
+    version INT PRIMARY KEY,
+    base_rate_threshold DECIMAL(10, 2) NOT NULL,
+    promo_category VARCHAR(64) NOT NULL,
+    max_stickers_per_transaction INT NOT NULL,
+    active BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Version 1 is the campaign as originally hard-coded
+INSERT INTO campaign_rule_sets (version, base_rate_threshold, promo_category, max_stickers_per_transaction, active)
+VALUES (1, 10.00, 'promo', 5, TRUE);
+
+-- Rule version each transaction was evaluated with
+ALTER TABLE transactions ADD COLUMN rule_version INT NOT NULL DEFAULT 1;
@@ -0,0 +1,20 @@
+-- Flyway migration V4: Transaction ID guard table and item timestamps, ahead of partitioning
+
+-- Global uniqueness of transaction_id. A partitioned table can only enforce unique keys that contain the
+-- partitioning column, and archived transactions must still be recognised as duplicates, so the guard
+-- lives in its own unpartitioned table. shopper_id and timestamp locate the transaction in the archive.
+CREATE TABLE IF NOT EXISTS transaction_keys (
+    transaction_id VARCHAR(64) PRIMARY KEY,
+    shopper_id VARCHAR(64) NOT NULL,
+    timestamp TIMESTAMP NOT NULL
+);
+
+INSERT INTO transaction_keys (transaction_id, shopper_id, timestamp)
+SELECT transaction_id, shopper_id, timestamp FROM transactions;
+
+-- Items carry their transaction's timestamp so both tables partition on the same key
+ALTER TABLE transaction_items ADD COLUMN timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+UPDATE transaction_items SET timestamp = (
+    SELECT t.timestamp FROM transactions t WHERE t.id = transaction_items.transaction_id
+);
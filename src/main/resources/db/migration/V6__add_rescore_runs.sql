@@ -0,0 +1,34 @@
+-- Flyway migration V6: Bulk re-scoring runs
+-- (V5 is MySQL-only and lives in db/vendor/mysql)
+
+-- One row per re-score run. last_* is the (shopper_id, timestamp, id) of the last transaction whose
+-- correction has been committed; it is written in the same DB transaction as the corrections, so a
+-- resumed run continues exactly after it.
+CREATE TABLE IF NOT EXISTS rescore_runs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    rule_version INT NOT NULL,
+    dry_run BOOLEAN NOT NULL,
+    from_timestamp TIMESTAMP NULL,
+    to_timestamp TIMESTAMP NULL,
+    status VARCHAR(16) NOT NULL,
+    last_shopper_id VARCHAR(64) NULL,
+    last_timestamp TIMESTAMP NULL,
+    last_id BIGINT NULL,
+    scanned BIGINT NOT NULL DEFAULT 0,
+    corrected BIGINT NOT NULL DEFAULT 0,
+    sticker_delta BIGINT NOT NULL DEFAULT 0,
+    error VARCHAR(512) NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+-- Per-transaction differences found by a run: the diff of a dry run, the audit trail of a real one
+CREATE TABLE IF NOT EXISTS rescore_corrections (
+    run_id BIGINT NOT NULL,
+    transaction_id VARCHAR(64) NOT NULL,
+    shopper_id VARCHAR(64) NOT NULL,
+    old_stickers INT NOT NULL,
+    new_stickers INT NOT NULL,
+    old_rule_version INT NOT NULL,
+    PRIMARY KEY (run_id, transaction_id)
+);
@@ -0,0 +1,27 @@
+-- Flyway migration V7: Per-store campaign rollups, maintained incrementally by StoreRollups
+
+-- bucket_start is the UTC start of the hour (hourly) or day (daily). Counters only ever grow by
+-- additive upserts, so nodes flush their deltas independently and in any order.
+CREATE TABLE IF NOT EXISTS store_rollups_hourly (
+    store_id VARCHAR(64) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    stickers_issued BIGINT NOT NULL DEFAULT 0,
+    spend DECIMAL(16, 2) NOT NULL DEFAULT 0,
+    promo_units BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (store_id, bucket_start)
+);
+
+CREATE TABLE IF NOT EXISTS store_rollups_daily (
+    store_id VARCHAR(64) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    stickers_issued BIGINT NOT NULL DEFAULT 0,
+    spend DECIMAL(16, 2) NOT NULL DEFAULT 0,
+    promo_units BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (store_id, bucket_start)
+);
+
+-- Campaign-wide dashboards read one bucket range across all stores
+CREATE INDEX idx_store_rollups_hourly_bucket ON store_rollups_hourly(bucket_start);
+CREATE INDEX idx_store_rollups_daily_bucket ON store_rollups_daily(bucket_start);
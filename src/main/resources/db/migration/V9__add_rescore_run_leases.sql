@@ -0,0 +1,8 @@
+-- Flyway migration V9: Leases on re-score runs
+-- (V8 is MySQL-only and lives in db/vendor/mysql)
+
+-- A node executes a run only while it holds the lease: it claims the run with a conditional update
+-- that succeeds when the run is not RUNNING or its lease has expired, and renews the lease with every
+-- batch it commits. Runs left RUNNING by earlier versions have no lease and can be claimed at once.
+ALTER TABLE rescore_runs ADD COLUMN lease_owner VARCHAR(36) NULL;
+ALTER TABLE rescore_runs ADD COLUMN lease_expires_at TIMESTAMP NULL;